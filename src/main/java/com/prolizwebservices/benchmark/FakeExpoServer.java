@@ -0,0 +1,140 @@
+package com.prolizwebservices.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local stand-in for the Expo push API (benchmark profile only)
+ *
+ * Serves /send and /getReceipts on benchmark.expo.port with a fixed per-request latency plus
+ * random jitter. benchmark.expo.http-error-rate of the send requests fail with HTTP 500 and
+ * benchmark.expo.ticket-error-rate of the tickets come back as MessageRateExceeded errors
+ * (not DeviceNotRegistered, so the seeded tokens are never pruned between runs).
+ */
+@Component
+@Profile("benchmark")
+@Slf4j
+public class FakeExpoServer {
+
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final int threads;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double httpErrorRate;
+    private final double ticketErrorRate;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FakeExpoServer(ObjectMapper objectMapper,
+                          @Value("${benchmark.expo.port:18999}") int port,
+                          @Value("${benchmark.expo.threads:64}") int threads,
+                          @Value("${benchmark.expo.latency-ms:50}") long latencyMs,
+                          @Value("${benchmark.expo.jitter-ms:20}") long jitterMs,
+                          @Value("${benchmark.expo.http-error-rate:0}") double httpErrorRate,
+                          @Value("${benchmark.expo.ticket-error-rate:0}") double ticketErrorRate) {
+        this.objectMapper = objectMapper;
+        this.port = port;
+        this.threads = threads;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.httpErrorRate = httpErrorRate;
+        this.ticketErrorRate = ticketErrorRate;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/send", this::handleSend);
+        server.createContext("/getReceipts", exchange -> respond(exchange, 200, Map.of("data", Map.of())));
+        server.start();
+        log.info("Fake Expo server listening on 127.0.0.1:{} (latency {}±{}ms, http errors {}, ticket errors {})",
+            port, latencyMs, jitterMs, httpErrorRate, ticketErrorRate);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handleSend(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        List<?> batch;
+        try (InputStream in = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(exchange.getRequestBody())
+                : exchange.getRequestBody()) {
+            batch = objectMapper.readValue(in, List.class);
+        }
+        messages.addAndGet(batch.size());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (random.nextDouble() < httpErrorRate) {
+            respond(exchange, 500, Map.of("errors", List.of(Map.of("code", "INTERNAL_SERVER_ERROR"))));
+            return;
+        }
+
+        List<Map<String, Object>> tickets = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (random.nextDouble() < ticketErrorRate) {
+                tickets.add(Map.of("status", "error", "message", "Too many messages",
+                    "details", Map.of("error", "MessageRateExceeded")));
+            } else {
+                tickets.add(Map.of("status", "ok", "id", UUID.randomUUID().toString()));
+            }
+        }
+        respond(exchange, 200, Map.of("data", tickets));
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getMessageCount() {
+        return messages.get();
+    }
+}
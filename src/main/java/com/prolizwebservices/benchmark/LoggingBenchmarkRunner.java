@@ -0,0 +1,288 @@
+package com.prolizwebservices.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prolizwebservices.filter.SimpleCorsFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request-path logging overhead benchmark (benchmark profile, benchmark.suite=logging)
+ *
+ * Drives benchmark.logging.requests GETs with benchmark.logging.threads concurrent clients through
+ * the full filter chain (SimpleCorsFilter, AccessLogFilter, ...) in two logging setups, alternated
+ * benchmark.logging.rounds times:
+ *  - before: root logs straight to the synchronous console/file appenders, the per-request CORS line
+ *    is emitted and the sampled access log is off (the per-request INFO logging this tree replaced;
+ *    the old filter wrote three lines per request, this emits one, so the gap is understated)
+ *  - after: the AsyncAppenders from logback-spring.xml, filter logging at its configured level and
+ *    the sampled access log
+ * Reports requests/s and latency percentiles per setup; the report is logged and, if
+ * benchmark.logging.report-file is set, written as JSON.
+ */
+@Component
+@Profile("benchmark")
+@ConditionalOnProperty(name = "benchmark.suite", havingValue = "logging")
+@Slf4j
+public class LoggingBenchmarkRunner implements CommandLineRunner {
+
+    private static final String ACCESS_LOGGER = "com.prolizwebservices.access";
+
+    private final WebServerApplicationContext webContext;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    private final String contextPath;
+    private final String path;
+    private final int requests;
+    private final int warmup;
+    private final int threads;
+    private final int rounds;
+    private final String reportFile;
+    private final boolean exitOnFinish;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public LoggingBenchmarkRunner(WebServerApplicationContext webContext,
+                                  ObjectMapper objectMapper,
+                                  ConfigurableApplicationContext context,
+                                  @Value("${server.servlet.context-path:}") String contextPath,
+                                  @Value("${benchmark.logging.path:/health}") String path,
+                                  @Value("${benchmark.logging.requests:20000}") int requests,
+                                  @Value("${benchmark.logging.warmup:2000}") int warmup,
+                                  @Value("${benchmark.logging.threads:16}") int threads,
+                                  @Value("${benchmark.logging.rounds:2}") int rounds,
+                                  @Value("${benchmark.logging.report-file:}") String reportFile,
+                                  @Value("${benchmark.exit-on-finish:true}") boolean exitOnFinish) {
+        this.webContext = webContext;
+        this.objectMapper = objectMapper;
+        this.context = context;
+        this.contextPath = contextPath;
+        this.path = path;
+        this.threads = Math.max(1, threads);
+        this.requests = Math.max(this.threads, requests);
+        this.warmup = warmup;
+        this.rounds = Math.max(1, rounds);
+        this.reportFile = reportFile;
+        this.exitOnFinish = exitOnFinish;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + webContext.getWebServer().getPort() + contextPath + path);
+        LogSetup setup = new LogSetup();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        Map<String, List<long[]>> samples = new LinkedHashMap<>();
+        samples.put("before", new ArrayList<>());
+        samples.put("after", new ArrayList<>());
+        Map<String, Long> elapsed = new HashMap<>();
+        try {
+            for (int round = 0; round < rounds; round++) {
+                for (String mode : samples.keySet()) {
+                    if ("before".equals(mode)) {
+                        setup.before();
+                    } else {
+                        setup.after();
+                    }
+                    drive(executor, uri, warmup);
+                    long start = System.nanoTime();
+                    samples.get(mode).add(drive(executor, uri, requests));
+                    elapsed.merge(mode, System.nanoTime() - start, Long::sum);
+                }
+            }
+        } finally {
+            setup.after();
+            executor.shutdownNow();
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, List<long[]>> entry : samples.entrySet()) {
+            results.add(summarize(entry.getKey(), entry.getValue(), elapsed.get(entry.getKey())));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", LocalDateTime.now());
+        report.put("uri", uri.toString());
+        report.put("threads", threads);
+        report.put("requestsPerRound", requests);
+        report.put("rounds", rounds);
+        report.put("results", results);
+
+        log.info("Logging benchmark finished:\n{}", format(results));
+        if (reportFile != null && !reportFile.isBlank()) {
+            File file = new File(reportFile);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+            log.info("Benchmark report written to {}", file.getAbsolutePath());
+        }
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    /**
+     * @return per-request latency in nanos; non-2xx responses and I/O errors count as failures (negative)
+     */
+    private long[] drive(ExecutorService executor, URI uri, int count) throws Exception {
+        long[] latencies = new long[count];
+        AtomicInteger next = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Origin", "http://localhost").GET().build();
+
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < count) {
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 300;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long latency = System.nanoTime() - start;
+                    latencies[i] = ok ? latency : -latency;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        return latencies;
+    }
+
+    private Map<String, Object> summarize(String mode, List<long[]> rounds, long elapsedNanos) {
+        int total = rounds.stream().mapToInt(r -> r.length).sum();
+        long[] sorted = new long[total];
+        int failed = 0;
+        int pos = 0;
+        for (long[] round : rounds) {
+            for (long latency : round) {
+                if (latency < 0) {
+                    failed++;
+                }
+                sorted[pos++] = Math.abs(latency);
+            }
+        }
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long latency : sorted) {
+            sum += latency;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode);
+        result.put("requests", total);
+        result.put("failed", failed);
+        result.put("requestsPerSecond", round(total / (toMillis(elapsedNanos) / 1000.0)));
+        result.put("avgMs", round(toMillis(sum) / total));
+        result.put("p50Ms", round(toMillis(percentile(sorted, 0.50))));
+        result.put("p99Ms", round(toMillis(percentile(sorted, 0.99))));
+        result.put("maxMs", round(toMillis(sorted[total - 1])));
+        return result;
+    }
+
+    /**
+     * Switches the root logger between the synchronous appenders and their AsyncAppender wrappers
+     */
+    private static class LogSetup {
+
+        private final Logger root;
+        private final Logger corsLogger;
+        private final Logger accessLogger;
+        private final Level corsLevel;
+        private final Level accessLevel;
+        private final List<AsyncAppender> asyncAppenders = new ArrayList<>();
+        private final List<Appender<ILoggingEvent>> syncAppenders = new ArrayList<>();
+
+        LogSetup() {
+            LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+            root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+            corsLogger = loggerContext.getLogger(SimpleCorsFilter.class);
+            accessLogger = loggerContext.getLogger(ACCESS_LOGGER);
+            corsLevel = corsLogger.getLevel();
+            accessLevel = accessLogger.getLevel();
+
+            for (Iterator<Appender<ILoggingEvent>> it = root.iteratorForAppenders(); it.hasNext(); ) {
+                Appender<ILoggingEvent> appender = it.next();
+                if (appender instanceof AsyncAppender async) {
+                    asyncAppenders.add(async);
+                    for (Iterator<Appender<ILoggingEvent>> wrapped = async.iteratorForAppenders(); wrapped.hasNext(); ) {
+                        syncAppenders.add(wrapped.next());
+                    }
+                }
+            }
+            if (asyncAppenders.isEmpty()) {
+                log.warn("No AsyncAppender on the root logger; before/after differ only in log levels");
+            }
+        }
+
+        void before() {
+            asyncAppenders.forEach(root::detachAppender);
+            syncAppenders.forEach(root::addAppender);
+            corsLogger.setLevel(Level.DEBUG);
+            accessLogger.setLevel(Level.OFF);
+        }
+
+        void after() {
+            syncAppenders.forEach(root::detachAppender);
+            asyncAppenders.stream().filter(a -> !root.isAttached(a)).forEach(root::addAppender);
+            corsLogger.setLevel(corsLevel);
+            accessLogger.setLevel(accessLevel);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static String format(List<Map<String, Object>> results) {
+        StringBuilder table = new StringBuilder(String.format("%8s %10s %8s %12s %10s %10s %10s %10s%n",
+            "mode", "requests", "failed", "req/s", "avgMs", "p50Ms", "p99Ms", "maxMs"));
+        for (Map<String, Object> result : results) {
+            table.append(String.format("%8s %10s %8s %12s %10s %10s %10s %10s%n",
+                result.get("mode"), result.get("requests"), result.get("failed"), result.get("requestsPerSecond"),
+                result.get("avgMs"), result.get("p50Ms"), result.get("p99Ms"), result.get("maxMs")));
+        }
+        return table.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
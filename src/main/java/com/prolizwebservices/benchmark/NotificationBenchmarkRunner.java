@@ -0,0 +1,240 @@
+package com.prolizwebservices.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prolizwebservices.entity.NotificationHistory;
+import com.prolizwebservices.model.notification.SendNotificationRequest;
+import com.prolizwebservices.model.notification.SendNotificationResponse;
+import com.prolizwebservices.model.notification.TokenRegistrationRequest;
+import com.prolizwebservices.service.NotificationService;
+import com.prolizwebservices.service.TokenRegistrationBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification send-path throughput benchmark (benchmark profile, benchmark.suite=notification)
+ *
+ * Seeds benchmark.recipients' largest size of student tokens through the token registration
+ * buffer, then for every size runs benchmark.warmup unmeasured and benchmark.iterations measured
+ * INDIVIDUAL sends against FakeExpoServer. For each size it reports end-to-end latency,
+ * messages per second, the notification.send.stage breakdown, Expo chunk latency and Hibernate
+ * JDBC statement counts per send. The report is logged and, if benchmark.report-file is set,
+ * written as JSON.
+ */
+@Component
+@Profile("benchmark")
+@ConditionalOnProperty(name = "benchmark.suite", havingValue = "notification", matchIfMissing = true)
+@Slf4j
+public class NotificationBenchmarkRunner implements CommandLineRunner {
+
+    private static final String[] STAGES = {"recipients", "tokens", "dispatch", "history", "tickets"};
+
+    private final NotificationService notificationService;
+    private final TokenRegistrationBuffer tokenBuffer;
+    private final FakeExpoServer expoServer;
+    private final MeterRegistry meterRegistry;
+    private final Statistics statistics;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    private final List<Integer> sizes;
+    private final int warmup;
+    private final int iterations;
+    private final String reportFile;
+    private final boolean exitOnFinish;
+
+    public NotificationBenchmarkRunner(NotificationService notificationService,
+                                       TokenRegistrationBuffer tokenBuffer,
+                                       FakeExpoServer expoServer,
+                                       MeterRegistry meterRegistry,
+                                       EntityManagerFactory entityManagerFactory,
+                                       ObjectMapper objectMapper,
+                                       ConfigurableApplicationContext context,
+                                       @Value("${benchmark.recipients:100,1000,10000}") List<Integer> sizes,
+                                       @Value("${benchmark.warmup:2}") int warmup,
+                                       @Value("${benchmark.iterations:5}") int iterations,
+                                       @Value("${benchmark.report-file:}") String reportFile,
+                                       @Value("${benchmark.exit-on-finish:true}") boolean exitOnFinish) {
+        this.notificationService = notificationService;
+        this.tokenBuffer = tokenBuffer;
+        this.expoServer = expoServer;
+        this.meterRegistry = meterRegistry;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.objectMapper = objectMapper;
+        this.context = context;
+        this.sizes = sizes;
+        this.warmup = warmup;
+        this.iterations = Math.max(1, iterations);
+        this.reportFile = reportFile;
+        this.exitOnFinish = exitOnFinish;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        int maxSize = sizes.stream().mapToInt(Integer::intValue).max().orElse(0);
+        List<String> studentIds = seed(maxSize);
+
+        statistics.setStatisticsEnabled(true);
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int size : sizes) {
+            results.add(runSize(studentIds.subList(0, size)));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", LocalDateTime.now());
+        report.put("warmup", warmup);
+        report.put("iterations", iterations);
+        report.put("expoRequests", expoServer.getRequestCount());
+        report.put("results", results);
+
+        log.info("Notification benchmark finished:\n{}", format(results));
+        if (reportFile != null && !reportFile.isBlank()) {
+            File file = new File(reportFile);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+            log.info("Benchmark report written to {}", file.getAbsolutePath());
+        }
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    /**
+     * One STUDENT token per seeded student, written through the production batch upsert
+     */
+    private List<String> seed(int count) {
+        long start = System.currentTimeMillis();
+        List<String> studentIds = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String studentId = String.format("BENCH%06d", i);
+            TokenRegistrationRequest request = new TokenRegistrationRequest();
+            request.setToken("ExponentPushToken[bench-" + i + "]");
+            request.setUserId(studentId);
+            request.setUserType("student");
+            request.setPlatform(i % 2 == 0 ? "android" : "ios");
+            tokenBuffer.submit(request);
+            studentIds.add(studentId);
+        }
+        tokenBuffer.flush();
+        log.info("Seeded {} benchmark tokens in {}ms", count, System.currentTimeMillis() - start);
+        return studentIds;
+    }
+
+    private Map<String, Object> runSize(List<String> studentIds) {
+        SendNotificationRequest request = new SendNotificationRequest();
+        request.setTitle("Benchmark");
+        request.setBody("Notification throughput benchmark");
+        request.setAcademicId("BENCHMARK");
+        request.setStudentIds(studentIds);
+
+        for (int i = 0; i < warmup; i++) {
+            notificationService.send(request, NotificationHistory.RecipientType.INDIVIDUAL);
+        }
+
+        double[] stagesBefore = stageTotals();
+        double[] chunksBefore = chunkTotals();
+        statistics.clear();
+
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        long total = 0;
+        long sent = 0;
+        long failed = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            SendNotificationResponse response = notificationService.send(request, NotificationHistory.RecipientType.INDIVIDUAL);
+            long elapsed = System.nanoTime() - start;
+            min = Math.min(min, elapsed);
+            max = Math.max(max, elapsed);
+            total += elapsed;
+            sent += response.getSentCount();
+            failed += response.getFailedCount();
+        }
+
+        double[] stagesAfter = stageTotals();
+        double[] chunksAfter = chunkTotals();
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (int i = 0; i < STAGES.length; i++) {
+            stages.put(STAGES[i], round((stagesAfter[i] - stagesBefore[i]) / iterations));
+        }
+        double chunkCount = chunksAfter[0] - chunksBefore[0];
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("recipients", studentIds.size());
+        result.put("avgMs", round(toMillis(total) / iterations));
+        result.put("minMs", round(toMillis(min)));
+        result.put("maxMs", round(toMillis(max)));
+        result.put("messagesPerSecond", round(sent + failed == 0 ? 0 : (sent + failed) / (toMillis(total) / 1000.0)));
+        result.put("sent", sent);
+        result.put("failed", failed);
+        result.put("stageAvgMs", stages);
+        result.put("expoChunksPerSend", round(chunkCount / iterations));
+        result.put("expoChunkAvgMs", round(chunkCount == 0 ? 0 : (chunksAfter[1] - chunksBefore[1]) / chunkCount));
+        result.put("jdbcStatementsPerSend", round((double) statistics.getPrepareStatementCount() / iterations));
+        result.put("entityInsertsPerSend", round((double) statistics.getEntityInsertCount() / iterations));
+        result.put("queriesPerSend", round((double) statistics.getQueryExecutionCount() / iterations));
+        return result;
+    }
+
+    private double[] stageTotals() {
+        double[] totals = new double[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            Timer timer = meterRegistry.find("notification.send.stage").tag("stage", STAGES[i]).timer();
+            totals[i] = timer != null ? timer.totalTime(TimeUnit.MILLISECONDS) : 0;
+        }
+        return totals;
+    }
+
+    /**
+     * {count, total ms} of Expo chunk requests (all outcomes)
+     */
+    private double[] chunkTotals() {
+        double[] totals = new double[2];
+        for (Timer timer : meterRegistry.find("expo.push.requests").timers()) {
+            totals[0] += timer.count();
+            totals[1] += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        return totals;
+    }
+
+    private static String format(List<Map<String, Object>> results) {
+        StringBuilder table = new StringBuilder(String.format("%10s %10s %10s %12s %10s %10s %10s %10s %10s %8s%n",
+            "recipients", "avgMs", "maxMs", "msg/s", "tokensMs", "expoMs", "historyMs", "ticketsMs", "chunkMs", "jdbc"));
+        for (Map<String, Object> result : results) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> stages = (Map<String, Object>) result.get("stageAvgMs");
+            table.append(String.format("%10s %10s %10s %12s %10s %10s %10s %10s %10s %8s%n",
+                result.get("recipients"), result.get("avgMs"), result.get("maxMs"), result.get("messagesPerSecond"),
+                stages.get("tokens"), stages.get("dispatch"), stages.get("history"), stages.get("tickets"),
+                result.get("expoChunkAvgMs"), result.get("jdbcStatementsPerSend")));
+        }
+        return table.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
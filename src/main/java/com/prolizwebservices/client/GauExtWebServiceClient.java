@@ -2,6 +2,8 @@ package com.prolizwebservices.client;
 
 import com.prolizwebservices.exception.SoapServiceException;
 import com.prolizwebservices.service.HybridCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,7 @@ public class GauExtWebServiceClient {
     private static final String SOAP_URL = "https://obs.gantep.edu.tr/proliz_gau_ext_miner/proliz_gau_ext_miner.asmx";
 
     private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
     
     @Autowired(required = false)
     private HybridCacheService cacheService;
@@ -38,11 +41,12 @@ public class GauExtWebServiceClient {
     private static final String SOAP_ACTION_PREFIX = "http://tempuri.org/";
 
     @Autowired
-    public GauExtWebServiceClient(@Qualifier("sslRestTemplate") RestTemplate restTemplate) {
+    public GauExtWebServiceClient(@Qualifier("sslRestTemplate") RestTemplate restTemplate, MeterRegistry meterRegistry) {
         if (restTemplate == null) {
             throw new IllegalArgumentException("RestTemplate cannot be null");
         }
         this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
         
         // Gerekli konfigürasyon kontrolleri
         if (!StringUtils.hasText(serviceUsername) || !StringUtils.hasText(servicePassword)) {
@@ -73,7 +77,7 @@ public class GauExtWebServiceClient {
     }
     
     private String fetchOgrenciIstatistikFromSoap(String methodName) {
-        logger.info("{} başlatıldı (GAU EXT SOAP)", methodName);
+        logger.debug("{} başlatıldı (GAU EXT SOAP)", methodName);
 
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -84,7 +88,7 @@ public class GauExtWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı (GAU EXT SOAP)", methodName);
+        logger.debug("{} tamamlandı (GAU EXT SOAP)", methodName);
         return result;
     }
 
@@ -113,7 +117,7 @@ public class GauExtWebServiceClient {
     }
     
     private String fetchAktifOgrenciListesiFromSoap(String methodName, String ogrNo, String tck) {
-        logger.info("{} başlatıldı (GAU EXT SOAP) - Öğr No: {}, TCK: {}", methodName, ogrNo, tck);
+        logger.debug("{} başlatıldı (GAU EXT SOAP) - Öğr No: {}, TCK: {}", methodName, ogrNo, tck);
 
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -126,7 +130,7 @@ public class GauExtWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı (GAU EXT SOAP)", methodName);
+        logger.debug("{} tamamlandı (GAU EXT SOAP)", methodName);
         return result;
     }
 
@@ -140,11 +144,11 @@ public class GauExtWebServiceClient {
      */
     public String akademikPersonelSifreKontrol(String sicilNo, String sifre, String ipAddress) throws SoapServiceException {
         final String methodName = "AkademikPersonelSifreKontrol";
-        logger.info("{} başlatıldı (GAU EXT) - Sicil No: {}", methodName, sicilNo);
+        logger.debug("{} başlatıldı (GAU EXT) - Sicil No: {}", methodName, sicilNo);
         
         // Şifreyi MD5 hash'e çevir ve büyük harflerle kullan
         String hashedPassword = hashPasswordMD5(sifre);
-        logger.debug("Şifre MD5 hash'lendi: {} -> {}", sifre, hashedPassword);
+        logger.debug("Şifre MD5 hash'lendi");
         
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -158,7 +162,7 @@ public class GauExtWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı (GAU EXT)", methodName);
+        logger.debug("{} tamamlandı (GAU EXT)", methodName);
         return result;
     }
 
@@ -172,11 +176,11 @@ public class GauExtWebServiceClient {
      */
     public String ogrenciGirisKontrol(String ogrenciNo, String sifre, String ipAddress) throws SoapServiceException {
         final String methodName = "OgrenciGirisKontrol";
-        logger.info("{} başlatıldı (GAU EXT) - Öğrenci: {}", methodName, ogrenciNo);
+        logger.debug("{} başlatıldı (GAU EXT) - Öğrenci: {}", methodName, ogrenciNo);
 
         // Şifreyi MD5 hash'e çevir ve büyük harflerle kullan
         String hashedPassword = hashPasswordMD5(sifre);
-        logger.debug("Şifre MD5 hash'lendi: {} -> {}", sifre, hashedPassword);
+        logger.debug("Şifre MD5 hash'lendi");
 
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -190,7 +194,7 @@ public class GauExtWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı (GAU EXT)", methodName);
+        logger.debug("{} tamamlandı (GAU EXT)", methodName);
         return result;
     }
 
@@ -274,8 +278,12 @@ public class GauExtWebServiceClient {
         
         logger.debug("GAU EXT SOAP isteği gönderiliyor - Action: {}", soapAction);
         
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ERROR";
         try {
-            return sendSoapRequestWithHeaders(soapBody, soapAction, false);
+            String result = sendSoapRequestWithHeaders(soapBody, soapAction, false);
+            outcome = "SUCCESS";
+            return result;
             
         } catch (SoapServiceException e) {
             throw e; // Zaten işlenmiş hata
@@ -284,6 +292,8 @@ public class GauExtWebServiceClient {
                 soapAction, e.getMessage());
             logger.error(errorMsg, e);
             throw new SoapServiceException(errorMsg, e);
+        } finally {
+            sample.stop(soapTimer(soapAction, outcome));
         }
     }
 
@@ -355,6 +365,18 @@ public class GauExtWebServiceClient {
         }
     }
 
+    /**
+     * SOAP çağrı süresi timer'ı (metot ve sonuç bazında)
+     */
+    private Timer soapTimer(String soapAction, String outcome) {
+        return Timer.builder("soap.client.requests")
+            .description("SOAP çağrı süresi")
+            .tag("service", "gau-ext")
+            .tag("method", soapAction.substring(soapAction.lastIndexOf('/') + 1))
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
     /**
      * XML karakterlerini escape eder
      * @param text Escape edilecek metin
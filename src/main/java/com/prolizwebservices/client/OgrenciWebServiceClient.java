@@ -2,6 +2,8 @@ package com.prolizwebservices.client;
 
 import com.prolizwebservices.exception.SoapServiceException;
 import com.prolizwebservices.service.HybridCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,7 @@ public class OgrenciWebServiceClient {
     private static final String SOAP_URL = "https://obs.gantep.edu.tr/proliz_obs_lms_miner/proliz_obs_lms_miner.asmx";
 
     private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
     
     @Autowired(required = false)
     private HybridCacheService cacheService;
@@ -41,11 +44,12 @@ public class OgrenciWebServiceClient {
     private static final String SOAP_ACTION_PREFIX = "http://tempuri.org/";
 
     @Autowired
-    public OgrenciWebServiceClient(@Qualifier("sslRestTemplate") RestTemplate restTemplate) {
+    public OgrenciWebServiceClient(@Qualifier("sslRestTemplate") RestTemplate restTemplate, MeterRegistry meterRegistry) {
         if (restTemplate == null) {
             throw new IllegalArgumentException("RestTemplate cannot be null");
         }
         this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
         
         // Gerekli konfigürasyon kontrolleri
         if (!StringUtils.hasText(serviceUsername) || !StringUtils.hasText(servicePassword)) {
@@ -64,11 +68,11 @@ public class OgrenciWebServiceClient {
      */
     public String akademikPersonelSifreKontrol(String sicilNo, String sifre) throws SoapServiceException {
         final String methodName = "AkademikPersonelSifreKontrol";
-        logger.info("{} başlatıldı - Sicil No: {}", methodName, sicilNo);
+        logger.debug("{} başlatıldı - Sicil No: {}", methodName, sicilNo);
         
         // Şifreyi MD5 hash'e çevir ve büyük harflerle kullan
         String hashedPassword = hashPasswordMD5(sifre);
-        logger.debug("Şifre MD5 hash'lendi: {} -> {}", sifre, hashedPassword);
+        logger.debug("Şifre MD5 hash'lendi");
         
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -82,7 +86,7 @@ public class OgrenciWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı", methodName);
+        logger.debug("{} tamamlandı", methodName);
         return result;
     }
 
@@ -95,11 +99,11 @@ public class OgrenciWebServiceClient {
      */
     public String ogrenciSifreKontrol(String ogrenciNo, String sifre) throws SoapServiceException {
         final String methodName = "OgrenciGirisKontrol";
-        logger.info("{} başlatıldı - Öğrenci: {}", methodName, ogrenciNo);
+        logger.debug("{} başlatıldı - Öğrenci: {}", methodName, ogrenciNo);
 
         // Şifreyi MD5 hash'e çevir ve büyük harflerle kullan
         String hashedPassword = hashPasswordMD5(sifre);
-        logger.debug("Şifre MD5 hash'lendi: {} -> {}", sifre, hashedPassword);
+        logger.debug("Şifre MD5 hash'lendi");
 
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -112,7 +116,7 @@ public class OgrenciWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı", methodName);
+        logger.debug("{} tamamlandı", methodName);
         return result;
     }
 
@@ -137,7 +141,7 @@ public class OgrenciWebServiceClient {
     }
     
     private String fetchUzaktanEgitimDersleriFromSoap(String methodName) {
-        logger.info("{} başlatıldı (SOAP)", methodName);
+        logger.debug("{} başlatıldı (SOAP)", methodName);
 
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -148,7 +152,7 @@ public class OgrenciWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı (SOAP)", methodName);
+        logger.debug("{} tamamlandı (SOAP)", methodName);
         return result;
     }
 
@@ -174,7 +178,7 @@ public class OgrenciWebServiceClient {
     }
     
     private String fetchUzaktanEgitimDersiAlanOgrencileriFromSoap(String methodName, String dersKodu) {
-        logger.info("{} başlatıldı (SOAP) - Ders Har ID: {}", methodName, dersKodu);
+        logger.debug("{} başlatıldı (SOAP) - Ders Har ID: {}", methodName, dersKodu);
 
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte) 
         // dersKodu parametresi aslında dersHarID değeri içeriyor
@@ -187,7 +191,7 @@ public class OgrenciWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı (SOAP)", methodName);
+        logger.debug("{} tamamlandı (SOAP)", methodName);
         return result;
     }
 
@@ -218,7 +222,7 @@ public class OgrenciWebServiceClient {
     }
     
     private String fetchOgretimElemaniByFiltersFromSoap(String methodName, String tcKimlikNo, String sicilNo, String eposta) {
-        logger.info("{} başlatıldı (SOAP) - TC: {}, Sicil: {}, Eposta: {}", methodName, tcKimlikNo, sicilNo, eposta);
+        logger.debug("{} başlatıldı (SOAP) - TC: {}, Sicil: {}, Eposta: {}", methodName, tcKimlikNo, sicilNo, eposta);
 
         // SOAP istek gövdesini oluştur (authentication bilgileri ile birlikte)
         String requestBody = "<userName>" + escapeXml(serviceUsername) + "</userName>" +
@@ -232,7 +236,7 @@ public class OgrenciWebServiceClient {
         
         // SOAP isteğini gönder
         String result = sendSoapRequestMain(soapBody, "http://tempuri.org/" + methodName);
-        logger.info("{} tamamlandı (SOAP)", methodName);
+        logger.debug("{} tamamlandı (SOAP)", methodName);
         return result;
     }
 
@@ -247,8 +251,10 @@ public class OgrenciWebServiceClient {
             return false;
         }
         
-        logger.debug("SOAP Response parsing: {}", soapResponse.length() > 500 ? 
-            soapResponse.substring(0, 500) + "..." : soapResponse);
+        if (logger.isDebugEnabled()) {
+            logger.debug("SOAP Response parsing: {}", soapResponse.length() > 500 ? 
+                soapResponse.substring(0, 500) + "..." : soapResponse);
+        }
         
         // XML içinde success indicator'ları ara
         boolean result = soapResponse.contains("<Success>true</Success>") || 
@@ -326,10 +332,14 @@ public class OgrenciWebServiceClient {
         
         logger.debug("SOAP isteği gönderiliyor - Action: {}", soapAction);
         
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ERROR";
         try {
             // WS-Security kullanmıyoruz, direkt SOAP body gönder
             // Authentication bilgileri operasyon parametresi olarak gönderilecek
-            return sendSoapRequestWithHeaders(soapBody, soapAction, false);
+            String result = sendSoapRequestWithHeaders(soapBody, soapAction, false);
+            outcome = "SUCCESS";
+            return result;
             
         } catch (SoapServiceException e) {
             throw e; // Zaten işlenmiş hata
@@ -338,7 +348,9 @@ public class OgrenciWebServiceClient {
                 soapAction, e.getMessage());
             logger.error(errorMsg, e);
             throw new SoapServiceException(errorMsg, e);
-    }
+        } finally {
+            sample.stop(soapTimer(soapAction, outcome));
+        }
     }
 
     /**
@@ -421,7 +433,7 @@ public class OgrenciWebServiceClient {
      * @throws SoapServiceException SOAP hatası durumunda fırlatılır
      */
     public String getDersiVerenOgretimElemani(String dersKodu) throws SoapServiceException {
-        logger.info("getDersiVerenOgretimElemani başlatıldı - DersKodu: {} (CACHE'TEN)", dersKodu);
+        logger.debug("getDersiVerenOgretimElemani başlatıldı - DersKodu: {} (CACHE'TEN)", dersKodu);
         
         try {
             // Cache'i kullan - DataCacheService'e erişim gerekli
@@ -441,7 +453,7 @@ public class OgrenciWebServiceClient {
      * FALLBACK: Cache kullanılamadığında eski yöntem
      */
     private String getDersiVerenOgretimElemaniFallback(String dersKodu) {
-        logger.info("FALLBACK MODE: Cache kullanılamıyor, SOAP isteği gönderiliyor - DersKodu: {}", dersKodu);
+        logger.debug("FALLBACK MODE: Cache kullanılamıyor, SOAP isteği gönderiliyor - DersKodu: {}", dersKodu);
         
         try {
             // 1. Önce ders listesinden bu dersi bul
@@ -454,7 +466,7 @@ public class OgrenciWebServiceClient {
             }
             
             // 2. TC ile öğretim elemanını getir
-            logger.info("Ders {} için bulunan öğretim elemanı TC: {}", dersKodu, ogretimElemaniTC);
+            logger.debug("Ders {} için bulunan öğretim elemanı TC: {}", dersKodu, ogretimElemaniTC);
             return getOgretimElemaniByFilters(ogretimElemaniTC, null, null);
             
         } catch (Exception e) {
@@ -529,6 +541,18 @@ public class OgrenciWebServiceClient {
                "</soap:Envelope>";
     }
 
+    /**
+     * SOAP çağrı süresi timer'ı (metot ve sonuç bazında)
+     */
+    private Timer soapTimer(String soapAction, String outcome) {
+        return Timer.builder("soap.client.requests")
+            .description("SOAP çağrı süresi")
+            .tag("service", "obs")
+            .tag("method", soapAction.substring(soapAction.lastIndexOf('/') + 1))
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
     /**
      * XML karakterlerini escape eder
      * @param text Escape edilecek metin
@@ -1,6 +1,8 @@
 package com.prolizwebservices.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +10,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * Async configuration for parallel SOAP calls
@@ -60,6 +63,119 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * StreamingResponseBody (NDJSON export) yazımı için thread pool
+     * Tanımlanmazsa Spring MVC her istek için yeni thread açan SimpleAsyncTaskExecutor kullanır
+     */
+    @Bean(name = "streamingTaskExecutor")
+    public ThreadPoolTaskExecutor streamingTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(50);
+        executor.setKeepAliveSeconds(30);
+        executor.setThreadNamePrefix("Stream-Thread-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * SSE değişiklik akışı gönderimleri için thread pool
+     * Abone başına en fazla bir task çalışır/bekler, bu yüzden kuyruk abone sınırı kadardır.
+     * Okumayan bir istemcinin send'i connector yazma zaman aşımına kadar thread'i tutar;
+     * DegisiklikAkisiService takılan her gönderim için çekirdek thread sayısını geçici olarak artırır
+     * (üst sınır: send-threads + abone sınırı)
+     */
+    @Bean(name = "sseTaskExecutor")
+    public ThreadPoolTaskExecutor sseTaskExecutor(
+            @Value("${sse.send-threads:8}") int sendThreads,
+            @Value("${sse.max-subscribers:500}") int maxSubscribers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(sendThreads);
+        executor.setMaxPoolSize(sendThreads + maxSubscribers);
+        executor.setKeepAliveSeconds(30);
+        executor.setQueueCapacity(maxSubscribers);
+        executor.setThreadNamePrefix("SSE-Thread-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Expo push chunk gönderimleri için thread pool
+     * Thread sayısı aynı anda Expo'ya giden istek (in-flight) sınırıdır; fazlası kuyrukta bekler
+     */
+    @Bean(name = "expoPushExecutor")
+    public ThreadPoolTaskExecutor expoPushExecutor(
+            @Value("${expo.push.max-in-flight:4}") int maxInFlight) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxInFlight);
+        executor.setMaxPoolSize(maxInFlight);
+        executor.setThreadNamePrefix("Expo-Push-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bildirim outbox worker'ları
+     * Poller sadece boş worker sayısı kadar iş aldığı için kuyruk küçük tutulur
+     */
+    @Bean(name = "notificationWorkerExecutor")
+    public ThreadPoolTaskExecutor notificationWorkerExecutor(
+            @Value("${notification.outbox.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("Notify-Worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * @Scheduled işleri için scheduler (Spring'in varsayılanı tek thread'dir)
+     * progressive loading / cache yenileme gibi SOAP'ta bekleyen işler diğer zamanlanmış işleri durdurmaz
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(
+            @Value("${async.scheduler.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("Scheduler-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Bildirim zamanlaması için ayrı scheduler: zamanlayıcı çarkı tick'i, outbox tetiklemesi,
+     * token flush ve lease yenileme. Sadece kısa işler çalışır, @Scheduled işleriyle paylaşılmaz
+     */
+    @Bean(name = "notificationTaskScheduler")
+    public ThreadPoolTaskScheduler notificationTaskScheduler(
+            @Value("${async.notification-scheduler.pool-size:2}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("Notify-Scheduler-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Cache index'lerinin paralel oluşturulması için fork-join pool
+     * (CPU-bound iş, SOAP thread'lerinden ayrı tutulur)
+     */
+    @Bean(name = "indexBuildPool", destroyMethod = "shutdown")
+    public ForkJoinPool indexBuildPool(
+            @Value("${cache.index.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Index-Thread-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
     @Override
     public Executor getAsyncExecutor() {
         return generalTaskExecutor();
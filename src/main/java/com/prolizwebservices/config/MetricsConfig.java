@@ -0,0 +1,41 @@
+package com.prolizwebservices.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+
+/**
+ * Micrometer metrik yapılandırması (Prometheus: /actuator/prometheus)
+ *
+ * Otomatik gelen metrikler:
+ * - http.server.requests : tüm controller endpoint'leri
+ * - executor.*           : ThreadPoolTaskExecutor bean'leri (name="soapTaskExecutor": queued, active, pool size)
+ * - hikaricp.*           : veritabanı bağlantı havuzu
+ *
+ * Uygulama metrikleri: soap.client.requests, soap.parse, cache.fetch, cache.tier.lookups,
+ * cache.index.lookups. Percentile histogram ayarları application.properties'te.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Tüm metriklere uygulama etiketi ekler
+     */
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> commonTags(
+            @Value("${spring.application.name:ProlizWebServices}") String applicationName) {
+        return registry -> registry.config().commonTags("application", applicationName);
+    }
+
+    /**
+     * Jedis bağlantı havuzu metrikleri (commons-pool2 JMX MBean'lerinden okunur)
+     */
+    @Bean
+    public CommonsObjectPool2Metrics redisPoolMetrics() {
+        return new CommonsObjectPool2Metrics();
+    }
+}
@@ -1,10 +1,22 @@
 package com.prolizwebservices.config;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
 /**
  * Web MVC Configuration for static resources
  * Fixes static resource serving issues in production deployment
@@ -12,6 +24,36 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ThreadPoolTaskExecutor streamingTaskExecutor;
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public WebConfig(@Qualifier("streamingTaskExecutor") ThreadPoolTaskExecutor streamingTaskExecutor,
+                     Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.streamingTaskExecutor = streamingTaskExecutor;
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    /**
+     * CBOR (application/cbor) ve Smile (application/x-jackson-smile) converter'ları
+     * Spring'in varsayılanları yerine uygulamanın Jackson ayarlarıyla (spring.jackson.*, JSR-310) oluşturulur.
+     * JSON converter'ından sonra kalırlar; Accept belirtmeyen istemciler JSON almaya devam eder.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+            || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+            objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+            objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // NDJSON streaming yanıtları bu pool'da yazılır
+        configurer.setTaskExecutor(streamingTaskExecutor);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Swagger UI static resources
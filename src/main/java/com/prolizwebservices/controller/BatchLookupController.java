@@ -0,0 +1,229 @@
+package com.prolizwebservices.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.prolizwebservices.exception.ValidationException;
+import com.prolizwebservices.model.BatchLookupRequest;
+import com.prolizwebservices.model.Ders;
+import com.prolizwebservices.model.OgretimElemani;
+import com.prolizwebservices.service.DataCacheService;
+import com.prolizwebservices.util.ApiMediaTypes;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Toplu (batch) sorgu controller'ı
+ *
+ * Mobil / bildirim istemcilerinin tek tek yaptığı ders, öğretim elemanı ve öğrenci-ders
+ * sorgularını tek istekte, cache index'leri üzerinden tek geçişte çözer.
+ */
+@RestController
+@RequestMapping("/api/data/batch")
+@CrossOrigin(
+    origins = {"*"},
+    methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS},
+    allowedHeaders = "*",
+    allowCredentials = "false",
+    maxAge = 3600
+)
+@Tag(name = "C-Data Services", description = "Cached data services with advanced filtering and search capabilities")
+public class BatchLookupController {
+
+    private final DataCacheService cacheService;
+    private final int maxIds;
+
+    @Autowired
+    public BatchLookupController(DataCacheService cacheService,
+                                 @Value("${batch.lookup.max-ids:5000}") int maxIds) {
+        this.cacheService = cacheService;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * 📦 Toplu ders detayı (dersHarId listesi)
+     */
+    @Operation(
+        summary = "Batch Course Lookup",
+        description = "Resolves many course IDs in one call. Returns a map dersHarId -> {ders, ogretimElemani, ogrenciSayisi}; "
+            + "student lists are included only when ogrencileriDahilEt=true."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Courses resolved"),
+        @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
+        @ApiResponse(responseCode = "400", description = "Empty or too large id list")
+    })
+    @PostMapping(value = "/dersler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<Map<String, Object>> batchDersler(
+            @RequestBody BatchLookupRequest request,
+            @Parameter(description = "Include enrolled students for each course", example = "false")
+            @RequestParam(defaultValue = "false") boolean ogrencileriDahilEt) {
+
+        if (!cacheService.isInitialized()) {
+            return cacheLoading();
+        }
+
+        Set<String> ids = validateIds(request);
+        Map<String, Object> sonuclar = new LinkedHashMap<>();
+        List<String> bulunamayanlar = new ArrayList<>();
+
+        for (String id : ids) {
+            Ders ders = cacheService.getDersByHarId(id);
+            if (ders == null) {
+                bulunamayanlar.add(id);
+                continue;
+            }
+            Map<String, Object> detay = new HashMap<>();
+            detay.put("ders", ders);
+            if (ders.getOgretimElemaniTC() != null) {
+                detay.put("ogretimElemani", cacheService.getOgretimElemaniByTC(ders.getOgretimElemaniTC()));
+            }
+            List<?> ogrenciler = cacheService.getOgrencilerByDersHarId(id);
+            detay.put("ogrenciSayisi", ogrenciler.size());
+            if (ogrencileriDahilEt) {
+                detay.put("ogrenciler", ogrenciler);
+            }
+            sonuclar.put(id, detay);
+        }
+
+        return ResponseEntity.ok(yanit(ids.size(), sonuclar, bulunamayanlar));
+    }
+
+    /**
+     * 📦 Toplu öğretim elemanı (TC listesi)
+     */
+    @Operation(
+        summary = "Batch Faculty Member Lookup",
+        description = "Resolves many faculty member TC numbers in one call. Returns a map tcKimlikNo -> faculty member."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Faculty members resolved"),
+        @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
+        @ApiResponse(responseCode = "400", description = "Empty or too large id list")
+    })
+    @PostMapping(value = "/ogretim-elemanlari", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<Map<String, Object>> batchOgretimElemanlari(@RequestBody BatchLookupRequest request) {
+
+        if (!cacheService.isInitialized()) {
+            return cacheLoading();
+        }
+
+        Set<String> ids = validateIds(request);
+        Map<String, Object> sonuclar = new LinkedHashMap<>();
+        List<String> bulunamayanlar = new ArrayList<>();
+
+        for (String tc : ids) {
+            OgretimElemani eleman = cacheService.getOgretimElemaniByTC(tc);
+            if (eleman != null) {
+                sonuclar.put(tc, eleman);
+            } else {
+                bulunamayanlar.add(tc);
+            }
+        }
+
+        return ResponseEntity.ok(yanit(ids.size(), sonuclar, bulunamayanlar));
+    }
+
+    /**
+     * 📦 Toplu öğrenci dersleri (öğrenci no listesi)
+     * Her ders bir kez "dersler" sözlüğünde döner, öğrenciler sadece dersHarId listesi taşır
+     */
+    @Operation(
+        summary = "Batch Student Courses Lookup",
+        description = "Resolves courses of many students in one call from the student-course index (no lazy SOAP scan). "
+            + "Returns ogrenciNo -> [dersHarId] plus a shared dersler map so each course is sent once."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Student courses resolved"),
+        @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
+        @ApiResponse(responseCode = "400", description = "Empty or too large id list")
+    })
+    @PostMapping(value = "/ogrenci-dersler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<Map<String, Object>> batchOgrenciDersler(@RequestBody BatchLookupRequest request) {
+
+        if (!cacheService.isInitialized()) {
+            return cacheLoading();
+        }
+
+        Set<String> ids = validateIds(request);
+        Map<String, Object> sonuclar = new LinkedHashMap<>();
+        Map<String, Ders> dersler = new LinkedHashMap<>();
+        List<String> bulunamayanlar = new ArrayList<>();
+
+        for (String ogrenciNo : ids) {
+            List<Ders> ogrenciDersleri = cacheService.getIndekslenmisDersler(ogrenciNo);
+            if (ogrenciDersleri == null) {
+                bulunamayanlar.add(ogrenciNo);
+                continue;
+            }
+            List<String> dersHarIdleri = new ArrayList<>(ogrenciDersleri.size());
+            for (Ders ders : ogrenciDersleri) {
+                dersHarIdleri.add(ders.getDersHarId());
+                dersler.putIfAbsent(ders.getDersHarId(), ders);
+            }
+            sonuclar.put(ogrenciNo, dersHarIdleri);
+        }
+
+        Map<String, Object> response = yanit(ids.size(), sonuclar, bulunamayanlar);
+        response.put("dersler", dersler);
+        return ResponseEntity.ok(response);
+    }
+
+    // İstek id'lerini doğrular, boşları atar ve tekrarları birleştirir (sıra korunur)
+    private Set<String> validateIds(BatchLookupRequest request) {
+        if (request == null || request.getIds() == null || request.getIds().isEmpty()) {
+            throw new ValidationException("ids cannot be null or empty", "ids", null);
+        }
+        if (request.getIds().size() > maxIds) {
+            throw new ValidationException(
+                String.format("Too many ids: %d (max %d)", request.getIds().size(), maxIds),
+                "ids",
+                request.getIds().size()
+            );
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : request.getIds()) {
+            if (id != null && !id.trim().isEmpty()) {
+                ids.add(id.trim());
+            }
+        }
+        return ids;
+    }
+
+    private static Map<String, Object> yanit(int istenen, Map<String, Object> sonuclar, List<String> bulunamayanlar) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sonuclar", sonuclar);
+        response.put("bulunamayanlar", bulunamayanlar);
+        response.put("istenen", istenen);
+        response.put("bulunan", sonuclar.size());
+        return response;
+    }
+
+    private static ResponseEntity<Map<String, Object>> cacheLoading() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "CACHE_LOADING");
+        result.put("message", "Cache is still loading, please try again in a few moments");
+        return ResponseEntity.status(202).body(result);
+    }
+}
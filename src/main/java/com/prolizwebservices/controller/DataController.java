@@ -2,17 +2,19 @@ package com.prolizwebservices.controller;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,11 +25,18 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.prolizwebservices.client.OgrenciWebServiceClient;
 import com.prolizwebservices.model.Ders;
 import com.prolizwebservices.model.Ogrenci;
+import com.prolizwebservices.model.OgrenciProfili;
 import com.prolizwebservices.model.OgretimElemani;
 import com.prolizwebservices.service.DataCacheService;
+import com.prolizwebservices.service.DersKatalogu;
+import com.prolizwebservices.service.KeysetSayfa;
+import com.prolizwebservices.util.ApiMediaTypes;
+import com.prolizwebservices.util.NdjsonYazici;
+import com.prolizwebservices.util.SayfaImleci;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -58,6 +67,9 @@ public class DataController {
     @Autowired
     private OgrenciWebServiceClient webServiceClient;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * 🚀 Cache durumunu kontrol et (Progressive Loading ile)
      */
@@ -65,7 +77,7 @@ public class DataController {
         summary = "Get Cache Status with Progressive Loading Info",
         description = "Returns cache status including progressive background loading progress"
     )
-    @GetMapping(value = "/cache/status", produces = "application/json")
+    @GetMapping(value = "/cache/status", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getCacheStatus() {
         Map<String, Object> status = new HashMap<>();
         
@@ -81,6 +93,9 @@ public class DataController {
         Map<String, Object> progressiveStatus = cacheService.getProgressiveLoadingStatus();
         status.put("progressiveLoading", progressiveStatus);
         
+        // ⏱️ Initialize / index build faz süreleri
+        status.put("phaseTimingsMs", cacheService.getFazSureleri());
+        
         // Cache efficiency
         int totalCourses = cacheService.getAllDersler().size();
         int cachedCourses = (int) progressiveStatus.get("processedCourses");
@@ -94,11 +109,13 @@ public class DataController {
      */
     @Operation(
         summary = "Get All Courses with Pagination",
-        description = "Returns paginated list of all courses for better performance"
+        description = "Returns courses ordered by dersHarId. Use nextCursor for stable O(page) keyset paging; page/size offset paging is kept for older clients."
     )
-    @GetMapping(value = "/dersler", produces = "application/json")
+    @GetMapping(value = "/dersler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getAllDersler(
-            @Parameter(description = "Page number (0-based)", example = "0")
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor (preferred over page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page number (0-based, legacy offset paging; ignored when cursor is given)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size (max 100)", example = "20")
             @RequestParam(defaultValue = "20") int size) {
@@ -107,27 +124,61 @@ public class DataController {
             return ResponseEntity.accepted().build();
         }
         
-        List<Ders> allDersler = cacheService.getAllDersler();
+        // Keyset pagination: dersHarId sırasıyla, imleçteki son anahtardan devam
+        int pageSize = Math.max(1, Math.min(size, 100)); // Max 100
+        SayfaImleci imlec = cursor != null && !cursor.isEmpty() ? SayfaImleci.decode(cursor) : null;
+        KeysetSayfa<Ders> sayfa;
+        if (imlec != null) {
+            sayfa = cacheService.getDersSayfasi(imlec.getSonAnahtar(), pageSize);
+        } else if (page > 0) {
+            sayfa = cacheService.getDersSayfasiOffset((long) page * pageSize, pageSize);
+        } else {
+            sayfa = cacheService.getDersSayfasi(null, pageSize);
+        }
         
-        // Pagination uygula
-        int totalElements = allDersler.size();
-        int pageSize = Math.min(size, 100); // Max 100
-        int startIndex = page * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, totalElements);
+        Map<String, Object> response = sayfaYaniti(sayfa, imlec, page, pageSize, cacheService.getDersSayisi());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 🔍 Dersleri çok kriterli filtrele (fakülte AND bölüm AND program AND dönem AND sınıf)
+     */
+    @Operation(
+        summary = "Filter Courses by Multiple Attributes",
+        description = "Filters courses by faculty, department, program, term and class using bitmap intersections. Also returns credit/AKTS totals of the result."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Filtered courses"),
+        @ApiResponse(responseCode = "202", description = "Cache not ready yet")
+    })
+    @GetMapping(value = "/dersler/filtre", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<Map<String, Object>> filterDersler(
+            @Parameter(description = "Faculty name", example = "MÜHENDİSLİK FAKÜLTESİ")
+            @RequestParam(required = false) String fakulte,
+            @Parameter(description = "Department name")
+            @RequestParam(required = false) String bolum,
+            @Parameter(description = "Program name")
+            @RequestParam(required = false) String program,
+            @Parameter(description = "Term name (DONEM_AD)")
+            @RequestParam(required = false) String donem,
+            @Parameter(description = "Class (1-4)", example = "1")
+            @RequestParam(required = false) Integer sinif) {
         
-        List<Ders> pagedDersler = Collections.emptyList();
-        if (startIndex < totalElements) {
-            pagedDersler = allDersler.subList(startIndex, endIndex);
+        if (!cacheService.isInitialized()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("status", "CACHE_LOADING");
+            result.put("message", "Cache is still loading, please try again in a few moments");
+            return ResponseEntity.status(202).body(result);
         }
         
+        DersKatalogu katalog = cacheService.getDersKatalogu();
+        BitSet satirlar = katalog.filtrele(fakulte, bolum, program, donem, sinif);
+        
         Map<String, Object> response = new HashMap<>();
-        response.put("content", pagedDersler);
-        response.put("page", page);
-        response.put("size", pageSize);
-        response.put("totalElements", totalElements);
-        response.put("totalPages", (int) Math.ceil((double) totalElements / pageSize));
-        response.put("first", page == 0);
-        response.put("last", endIndex >= totalElements);
+        response.put("content", katalog.getDersler(satirlar));
+        response.put("totalElements", satirlar.cardinality());
+        response.put("toplamKredi", katalog.toplamKredi(satirlar));
+        response.put("toplamAKTS", katalog.toplamAkts(satirlar));
         
         return ResponseEntity.ok(response);
     }
@@ -139,7 +190,7 @@ public class DataController {
         summary = "Get All Faculties",
         description = "Returns list of all faculties"
     )
-    @GetMapping(value = "/fakulteler", produces = "application/json")
+    @GetMapping(value = "/fakulteler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Set<String>> getAllFakulteler() {
         if (!cacheService.isInitialized()) {
             return ResponseEntity.accepted().build(); // 202 - Cache henüz hazır değil
@@ -161,7 +212,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache not ready yet"),
         @ApiResponse(responseCode = "404", description = "Faculty not found or no departments")
     })
-    @GetMapping(value = "/fakulte/{fakulteAdi}/bolumler", produces = "application/json")
+    @GetMapping(value = "/fakulte/{fakulteAdi}/bolumler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getBolumlerByFakulte(
             @Parameter(description = "Faculty name", required = true, example = "MÜHENDİSLİK FAKÜLTESİ")
             @PathVariable String fakulteAdi) {
@@ -202,7 +253,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache not ready yet"),
         @ApiResponse(responseCode = "404", description = "Faculty not found")
     })
-    @GetMapping(value = "/fakulte/{fakulteAdi}/dersler", produces = "application/json")
+    @GetMapping(value = "/fakulte/{fakulteAdi}/dersler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<List<Ders>> getDerslerByFakulte(
             @Parameter(description = "Faculty name", required = true, example = "MÜHENDİSLİK FAKÜLTESİ")
             @PathVariable String fakulteAdi) {
@@ -227,7 +278,7 @@ public class DataController {
         summary = "Get Faculty Member by TC ID",
         description = "Returns faculty member information by TC identification number"
     )
-    @GetMapping(value = "/ogretim-elemani/tc/{tcKimlikNo}", produces = "application/json")
+    @GetMapping(value = "/ogretim-elemani/tc/{tcKimlikNo}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<OgretimElemani> getOgretimElemaniByTC(
             @Parameter(description = "TC identification number", required = true, example = "12345678901")
             @PathVariable String tcKimlikNo) {
@@ -252,7 +303,7 @@ public class DataController {
         summary = "Get Faculty Member by Registry Number",
         description = "Returns faculty member information by registry number"
     )
-    @GetMapping(value = "/ogretim-elemani/sicil/{sicilNo}", produces = "application/json")
+    @GetMapping(value = "/ogretim-elemani/sicil/{sicilNo}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<OgretimElemani> getOgretimElemaniBySicil(
             @Parameter(description = "Registry number", required = true, example = "12345")
             @PathVariable String sicilNo) {
@@ -277,7 +328,7 @@ public class DataController {
         summary = "Get Course Details",
         description = "Returns complete course information including instructor and enrolled students"
     )
-    @GetMapping(value = "/ders-detay/{dersHarID}", produces = "application/json")
+    @GetMapping(value = "/ders-detay/{dersHarID}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getDersDetay(
             @Parameter(description = "Course ID", required = true, example = "2838793")
             @PathVariable String dersHarID) {
@@ -315,7 +366,7 @@ public class DataController {
         summary = "Get Course Instructor (FAST - from cache)",
         description = "Returns course instructor from cache - much faster than SOAP call"
     )
-    @GetMapping(value = "/ders/{dersHarID}/ogretim-elemani-fast", produces = "application/json")
+    @GetMapping(value = "/ders/{dersHarID}/ogretim-elemani-fast", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<OgretimElemani> getOgretimElemaniByDersFast(
             @Parameter(description = "Course ID", required = true, example = "2838793")
             @PathVariable String dersHarID) {
@@ -345,7 +396,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"), 
         @ApiResponse(responseCode = "404", description = "Student not found in any course")
     })
-    @GetMapping(value = "/ogrenci/{ogrenciNo}/dersler", produces = "application/json")
+    @GetMapping(value = "/ogrenci/{ogrenciNo}/dersler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> getOgrenciDersleri(
             @Parameter(description = "Student Number", required = true, example = "20180001234")
             @PathVariable String ogrenciNo) {
@@ -401,7 +452,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "Instructor not found")
     })
-    @GetMapping(value = "/ogretim-elemani/{sicilNo}/dersler", produces = "application/json")
+    @GetMapping(value = "/ogretim-elemani/{sicilNo}/dersler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getDerslerByOgretimElemani(
             @Parameter(description = "Instructor registry number", required = true, example = "12345")
             @PathVariable String sicilNo) {
@@ -475,7 +526,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "Instructor not found")
     })
-    @GetMapping(value = "/ogretim-elemani/tc/{tcKimlikNo}/dersler", produces = "application/json")
+    @GetMapping(value = "/ogretim-elemani/tc/{tcKimlikNo}/dersler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getDerslerByOgretimElemaniTC(
             @Parameter(description = "TC identification number", required = true, example = "12345678901")
             @PathVariable String tcKimlikNo) {
@@ -551,7 +602,7 @@ public class DataController {
         @ApiResponse(responseCode = "403", description = "Instructor does not teach this course"),
         @ApiResponse(responseCode = "404", description = "Course or instructor not found")
     })
-    @GetMapping(value = "/ogretim-elemani/tc/{tcKimlikNo}/ders/{dersHarID}/ogrenciler", produces = "application/json")
+    @GetMapping(value = "/ogretim-elemani/tc/{tcKimlikNo}/ders/{dersHarID}/ogrenciler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgrencilerByOgretimElemaniVeDers(
             @Parameter(description = "Instructor TC identification number", required = true, example = "12345678901")
             @PathVariable String tcKimlikNo,
@@ -644,7 +695,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "Student not found")
     })
-    @GetMapping(value = "/ogrenci/{ogrenciNo}/detay", produces = "application/json")
+    @GetMapping(value = "/ogrenci/{ogrenciNo}/detay", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgrenciDetay(
             @Parameter(description = "Student Number", required = true, example = "20180001234")
             @PathVariable String ogrenciNo) {
@@ -656,10 +707,10 @@ public class DataController {
             return ResponseEntity.status(202).body(result);
         }
         
-        // Öğrenci derslerini bul
-        List<Ders> dersler = cacheService.getDerslerByOgrenciNo(ogrenciNo);
+        // Önceden hesaplanmış öğrenci profili
+        OgrenciProfili profil = cacheService.getOgrenciProfili(ogrenciNo);
         
-        if (dersler.isEmpty()) {
+        if (profil == null) {
             Map<String, Object> result = new HashMap<>();
             result.put("error", "Öğrenci bulunamadı");
             result.put("ogrenciNo", ogrenciNo);
@@ -667,15 +718,15 @@ public class DataController {
             return ResponseEntity.status(404).body(result);
         }
         
-        // İlk dersten öğrenci bilgilerini al (tüm derslerde aynı öğrenci bilgileri var)
-        Ogrenci ogrenciOrnek = null;
-        for (Ders ders : dersler) {
-            List<Ogrenci> ogrenciler = cacheService.getOgrencilerByDersHarId(ders.getDersHarId());
-            ogrenciOrnek = ogrenciler.stream()
-                .filter(o -> ogrenciNo.equals(o.getOgrNo()))
-                .findFirst()
-                .orElse(null);
-            if (ogrenciOrnek != null) break;
+        // Öğrenci ana kaydı (tüm derslerde aynı öğrenci bilgileri var)
+        Ogrenci ogrenciOrnek = cacheService.getOgrenciKaydi(ogrenciNo);
+        
+        List<Ders> dersler = new ArrayList<>(profil.getDersSayisi());
+        for (String dersHarId : profil.getDersHarIdleri()) {
+            Ders ders = cacheService.getDersByHarId(dersHarId);
+            if (ders != null) {
+                dersler.add(ders);
+            }
         }
         
         // Response oluştur
@@ -708,27 +759,11 @@ public class DataController {
         result.put("aktifDersler", dersler);
         result.put("toplamDersSayisi", dersler.size());
         
-        // 📊 KREDİ İSTATİSTİKLERİ
+        // 📊 KREDİ İSTATİSTİKLERİ (profilde hazır)
         Map<String, Object> krediIstatistikleri = new HashMap<>();
-        
-        // Toplam Kredi hesaplama
-        double toplamKredi = dersler.stream()
-            .filter(d -> d.getKredi() != null)
-            .mapToDouble(d -> {
-                try { return Double.parseDouble(d.getKredi()); }
-                catch (NumberFormatException e) { return 0.0; }
-            })
-            .sum();
+        double toplamKredi = profil.getToplamKredi();
+        double toplamAKTS = profil.getToplamAkts();
         krediIstatistikleri.put("toplamKredi", toplamKredi);
-        
-        // Toplam AKTS hesaplama  
-        double toplamAKTS = dersler.stream()
-            .filter(d -> d.getAkts() != null)
-            .mapToDouble(d -> {
-                try { return Double.parseDouble(d.getAkts()); }
-                catch (NumberFormatException e) { return 0.0; }
-            })
-            .sum();
         krediIstatistikleri.put("toplamAKTS", toplamAKTS);
         
         // Ortalama kredi/ders
@@ -737,45 +772,25 @@ public class DataController {
         
         result.put("krediIstatistikleri", krediIstatistikleri);
         
-        // 📈 DERS İSTATİSTİKLERİ
+        // 📈 DERS İSTATİSTİKLERİ (profilde hazır)
         Map<String, Object> dersIstatistikleri = new HashMap<>();
-        
-        // Dönem bazında ders sayısı
-        Map<String, Long> donemBazinda = dersler.stream()
-            .filter(d -> d.getDonemAd() != null)
-            .collect(Collectors.groupingBy(Ders::getDonemAd, Collectors.counting()));
-        dersIstatistikleri.put("donemBazinda", donemBazinda);
-        
-        // Fakülte bazında ders sayısı
-        Map<String, Long> fakulteBazinda = dersler.stream()
-            .filter(d -> d.getFakAd() != null)
-            .collect(Collectors.groupingBy(Ders::getFakAd, Collectors.counting()));
-        dersIstatistikleri.put("fakulteBazinda", fakulteBazinda);
-        
-        // Bölüm bazında ders sayısı
-        Map<String, Long> bolumBazinda = dersler.stream()
-            .filter(d -> d.getBolAd() != null)
-            .collect(Collectors.groupingBy(Ders::getBolAd, Collectors.counting()));
-        dersIstatistikleri.put("bolumBazinda", bolumBazinda);
-        
+        dersIstatistikleri.put("donemBazinda", profil.getDonemBazinda());
+        dersIstatistikleri.put("fakulteBazinda", profil.getFakulteBazinda());
+        dersIstatistikleri.put("bolumBazinda", profil.getBolumBazinda());
         result.put("dersIstatistikleri", dersIstatistikleri);
         
         // 👨‍🏫 ÖĞRETİM ELEMANLARI
         List<Map<String, String>> ogretimElemanlari = new ArrayList<>();
-        Set<String> uniqueOgretimElemanlari = new HashSet<>();
-        
-        for (Ders ders : dersler) {
-            if (ders.getOgretimElemaniTC() != null && !uniqueOgretimElemanlari.contains(ders.getOgretimElemaniTC())) {
-                uniqueOgretimElemanlari.add(ders.getOgretimElemaniTC());
-                OgretimElemani eleman = cacheService.getOgretimElemaniByTC(ders.getOgretimElemaniTC());
-                if (eleman != null) {
-                    Map<String, String> elemanBilgi = new HashMap<>();
-                    elemanBilgi.put("adSoyad", eleman.getAdi() + " " + eleman.getSoyadi());
-                    elemanBilgi.put("unvan", eleman.getUnvan() != null ? eleman.getUnvan() : "");
-                    elemanBilgi.put("bolum", eleman.getBolAd() != null ? eleman.getBolAd() : "");
-                    elemanBilgi.put("ePosta", eleman.getePosta() != null ? eleman.getePosta() : "");
-                    ogretimElemanlari.add(elemanBilgi);
-                }
+        
+        for (String ogretimElemaniTC : profil.getOgretimElemaniTCleri()) {
+            OgretimElemani eleman = cacheService.getOgretimElemaniByTC(ogretimElemaniTC);
+            if (eleman != null) {
+                Map<String, String> elemanBilgi = new HashMap<>();
+                elemanBilgi.put("adSoyad", eleman.getAdi() + " " + eleman.getSoyadi());
+                elemanBilgi.put("unvan", eleman.getUnvan() != null ? eleman.getUnvan() : "");
+                elemanBilgi.put("bolum", eleman.getBolAd() != null ? eleman.getBolAd() : "");
+                elemanBilgi.put("ePosta", eleman.getePosta() != null ? eleman.getePosta() : "");
+                ogretimElemanlari.add(elemanBilgi);
             }
         }
         result.put("ogretimElemanlari", ogretimElemanlari);
@@ -803,7 +818,7 @@ public class DataController {
         summary = "Get Progressive Loading Status",
         description = "Returns detailed progressive background loading status and progress"
     )
-    @GetMapping(value = "/cache/progressive-status", produces = "application/json")
+    @GetMapping(value = "/cache/progressive-status", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getProgressiveStatus() {
         Map<String, Object> status = cacheService.getProgressiveLoadingStatus();
         status.put("timestamp", LocalDateTime.now());
@@ -856,15 +871,17 @@ public class DataController {
      */
     @Operation(
         summary = "Get All Students with Pagination",
-        description = "Returns paginated list of all unique students from cached courses"
+        description = "Returns unique students from cached courses ordered by TC (or student number). Use nextCursor for stable O(page) keyset paging; page/size offset paging is kept for older clients."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Students retrieved successfully"),
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later")
     })
-    @GetMapping(value = "/ogrenciler", produces = "application/json")
+    @GetMapping(value = "/ogrenciler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getAllOgrenciler(
-            @Parameter(description = "Page number (0-based)", example = "0")
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor (preferred over page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page number (0-based, legacy offset paging; ignored when cursor is given)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size (max 100)", example = "20")
             @RequestParam(defaultValue = "20") int size) {
@@ -873,28 +890,19 @@ public class DataController {
             return ResponseEntity.accepted().build();
         }
         
-        List<Ogrenci> allOgrenciler = cacheService.getAllOgrenciler();
-        
-        // Pagination uygula
-        int totalElements = allOgrenciler.size();
-        int pageSize = Math.min(size, 100); // Max 100
-        int startIndex = page * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, totalElements);
-        
-        List<Ogrenci> pagedOgrenciler = Collections.emptyList();
-        if (startIndex < totalElements) {
-            pagedOgrenciler = allOgrenciler.subList(startIndex, endIndex);
+        // Keyset pagination: TC (yoksa öğrenci no) sırasıyla, imleçteki son anahtardan devam
+        int pageSize = Math.max(1, Math.min(size, 100)); // Max 100
+        SayfaImleci imlec = cursor != null && !cursor.isEmpty() ? SayfaImleci.decode(cursor) : null;
+        KeysetSayfa<Ogrenci> sayfa;
+        if (imlec != null) {
+            sayfa = cacheService.getOgrenciSayfasi(imlec.getSonAnahtar(), pageSize);
+        } else if (page > 0) {
+            sayfa = cacheService.getOgrenciSayfasiOffset((long) page * pageSize, pageSize);
+        } else {
+            sayfa = cacheService.getOgrenciSayfasi(null, pageSize);
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", pagedOgrenciler);
-        response.put("page", page);
-        response.put("size", pageSize);
-        response.put("totalElements", totalElements);
-        response.put("totalPages", (int) Math.ceil((double) totalElements / pageSize));
-        response.put("first", page == 0);
-        response.put("last", endIndex >= totalElements);
-        
+        Map<String, Object> response = sayfaYaniti(sayfa, imlec, page, pageSize, cacheService.getTekilOgrenciSayisi());
         return ResponseEntity.ok(response);
     }
 
@@ -903,15 +911,17 @@ public class DataController {
      */
     @Operation(
         summary = "Get All Faculty Members with Pagination",
-        description = "Returns paginated list of all faculty members"
+        description = "Returns faculty members ordered by TC (or registry number). Use nextCursor for stable O(page) keyset paging; page/size offset paging is kept for older clients."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Faculty members retrieved successfully"),
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later")
     })
-    @GetMapping(value = "/ogretim-elemanlari", produces = "application/json")
+    @GetMapping(value = "/ogretim-elemanlari", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getAllOgretimElemanlari(
-            @Parameter(description = "Page number (0-based)", example = "0")
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor (preferred over page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page number (0-based, legacy offset paging; ignored when cursor is given)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size (max 100)", example = "20")
             @RequestParam(defaultValue = "20") int size) {
@@ -920,29 +930,47 @@ public class DataController {
             return ResponseEntity.accepted().build();
         }
         
-        List<OgretimElemani> allOgretimElemanlari = cacheService.getAllOgretimElemanlari();
-        
-        // Pagination uygula
-        int totalElements = allOgretimElemanlari.size();
-        int pageSize = Math.min(size, 100); // Max 100
-        int startIndex = page * pageSize;
-        int endIndex = Math.min(startIndex + pageSize, totalElements);
-        
-        List<OgretimElemani> pagedElemanlar = Collections.emptyList();
-        if (startIndex < totalElements) {
-            pagedElemanlar = allOgretimElemanlari.subList(startIndex, endIndex);
+        // Keyset pagination: TC (yoksa sicil no) sırasıyla, imleçteki son anahtardan devam
+        int pageSize = Math.max(1, Math.min(size, 100)); // Max 100
+        SayfaImleci imlec = cursor != null && !cursor.isEmpty() ? SayfaImleci.decode(cursor) : null;
+        KeysetSayfa<OgretimElemani> sayfa;
+        if (imlec != null) {
+            sayfa = cacheService.getOgretimElemaniSayfasi(imlec.getSonAnahtar(), pageSize);
+        } else if (page > 0) {
+            sayfa = cacheService.getOgretimElemaniSayfasiOffset((long) page * pageSize, pageSize);
+        } else {
+            sayfa = cacheService.getOgretimElemaniSayfasi(null, pageSize);
         }
         
+        Map<String, Object> response = sayfaYaniti(sayfa, imlec, page, pageSize, cacheService.getOgretimElemaniSayisi());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Keyset sayfası için ortak yanıt gövdesi
+     * Eski istemciler için page/totalPages/first/last alanları korunur
+     */
+    private Map<String, Object> sayfaYaniti(KeysetSayfa<?> sayfa, SayfaImleci imlec, int page, int pageSize,
+                                            int totalElements) {
+        long version = cacheService.getSnapshotVersion();
+        
         Map<String, Object> response = new HashMap<>();
-        response.put("content", pagedElemanlar);
-        response.put("page", page);
+        response.put("content", sayfa.getIcerik());
         response.put("size", pageSize);
         response.put("totalElements", totalElements);
-        response.put("totalPages", (int) Math.ceil((double) totalElements / pageSize));
-        response.put("first", page == 0);
-        response.put("last", endIndex >= totalElements);
-        
-        return ResponseEntity.ok(response);
+        response.put("hasNext", sayfa.isDevamVar());
+        response.put("nextCursor", sayfa.isDevamVar() && sayfa.getSonAnahtar() != null
+            ? new SayfaImleci(version, sayfa.getSonAnahtar()).encode() : null);
+        response.put("snapshotVersion", version);
+        // İlk sayfadan bu yana veri değiştiyse istemci bilgilendirilir (sıra yine de kaymaz)
+        response.put("snapshotChanged", imlec != null && imlec.getSnapshotVersion() != version);
+        if (imlec == null) {
+            response.put("page", page);
+            response.put("totalPages", (int) Math.ceil((double) totalElements / pageSize));
+        }
+        response.put("first", imlec == null && page == 0);
+        response.put("last", !sayfa.isDevamVar());
+        return response;
     }
 
     /**
@@ -950,14 +978,14 @@ public class DataController {
      */
     @Operation(
         summary = "Get Students by Class",
-        description = "Returns all students in a specific class"
+        description = "Returns all students in a specific class, one master record per student (TC, else student number); course fields (dersHarId, credits) are null"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Students retrieved successfully"),
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "No students found for this class")
     })
-    @GetMapping(value = "/sinif/{sinif}/ogrenciler", produces = "application/json")
+    @GetMapping(value = "/sinif/{sinif}/ogrenciler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgrencilerBySinif(
             @Parameter(description = "Class name", required = true, example = "1")
             @PathVariable String sinif) {
@@ -1006,14 +1034,14 @@ public class DataController {
      */
     @Operation(
         summary = "Get Students by Faculty",
-        description = "Returns all students in a specific faculty"
+        description = "Returns all students in a specific faculty, one master record per student (TC, else student number); course fields (dersHarId, credits) are null"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Students retrieved successfully"),
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "No students found for this faculty")
     })
-    @GetMapping(value = "/fakulte/{fakulteAdi}/ogrenciler", produces = "application/json")
+    @GetMapping(value = "/fakulte/{fakulteAdi}/ogrenciler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgrencilerByFakulte(
             @Parameter(description = "Faculty name", required = true, example = "MÜHENDİSLİK FAKÜLTESİ")
             @PathVariable String fakulteAdi) {
@@ -1068,14 +1096,14 @@ public class DataController {
      */
     @Operation(
         summary = "Get Students by Department",
-        description = "Returns all students in a specific department"
+        description = "Returns all students in a specific department, one master record per student (TC, else student number); course fields (dersHarId, credits) are null"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Students retrieved successfully"),
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "No students found for this department")
     })
-    @GetMapping(value = "/bolum/{bolumAdi}/ogrenciler", produces = "application/json")
+    @GetMapping(value = "/bolum/{bolumAdi}/ogrenciler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgrencilerByBolum(
             @Parameter(description = "Department name", required = true, example = "BİLGİSAYAR MÜHENDİSLİĞİ")
             @PathVariable String bolumAdi) {
@@ -1127,6 +1155,78 @@ public class DataController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 🌊 Sınıf bazında öğrencileri NDJSON olarak akıt (?format=ndjson)
+     */
+    @Operation(
+        summary = "Stream Students by Class (NDJSON)",
+        description = "Writes one student JSON object per line straight from the enrollment store, "
+            + "without building the full list in memory. Intended for large exports."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Student stream started"),
+        @ApiResponse(responseCode = "202", description = "Cache still loading, try again later")
+    })
+    @GetMapping(value = "/sinif/{sinif}/ogrenciler", params = NdjsonYazici.FORMAT_PARAM)
+    public ResponseEntity<?> streamOgrencilerBySinif(
+            @Parameter(description = "Class name", required = true, example = "1")
+            @PathVariable String sinif) {
+        return ogrenciAkisi(yaz -> cacheService.forEachOgrenciBySinif(sinif, yaz::accept));
+    }
+
+    /**
+     * 🌊 Fakülte bazında öğrencileri NDJSON olarak akıt (?format=ndjson)
+     */
+    @Operation(
+        summary = "Stream Students by Faculty (NDJSON)",
+        description = "Writes one student JSON object per line straight from the enrollment store, "
+            + "without building the full list in memory. Intended for large exports."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Student stream started"),
+        @ApiResponse(responseCode = "202", description = "Cache still loading, try again later")
+    })
+    @GetMapping(value = "/fakulte/{fakulteAdi}/ogrenciler", params = NdjsonYazici.FORMAT_PARAM)
+    public ResponseEntity<?> streamOgrencilerByFakulte(
+            @Parameter(description = "Faculty name", required = true, example = "MÜHENDİSLİK FAKÜLTESİ")
+            @PathVariable String fakulteAdi) {
+        return ogrenciAkisi(yaz -> cacheService.forEachOgrenciByFakulte(fakulteAdi, yaz::accept));
+    }
+
+    /**
+     * 🌊 Bölüm bazında öğrencileri NDJSON olarak akıt (?format=ndjson)
+     */
+    @Operation(
+        summary = "Stream Students by Department (NDJSON)",
+        description = "Writes one student JSON object per line straight from the enrollment store, "
+            + "without building the full list in memory. Intended for large exports."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Student stream started"),
+        @ApiResponse(responseCode = "202", description = "Cache still loading, try again later")
+    })
+    @GetMapping(value = "/bolum/{bolumAdi}/ogrenciler", params = NdjsonYazici.FORMAT_PARAM)
+    public ResponseEntity<?> streamOgrencilerByBolum(
+            @Parameter(description = "Department name", required = true, example = "BİLGİSAYAR MÜHENDİSLİĞİ")
+            @PathVariable String bolumAdi) {
+        return ogrenciAkisi(yaz -> cacheService.forEachOgrenciByBolum(bolumAdi, yaz::accept));
+    }
+
+    /**
+     * Cache hazırsa verilen gezici ile NDJSON akışı başlatır, değilse standart 202 yanıtı döner
+     */
+    private ResponseEntity<?> ogrenciAkisi(Consumer<Consumer<Object>> kaynak) {
+        if (!cacheService.isInitialized()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("status", "CACHE_LOADING");
+            result.put("message", "Cache is still loading, please try again in a few moments");
+            return ResponseEntity.status(202).body(result);
+        }
+        return ResponseEntity.ok()
+            .contentType(NdjsonYazici.MEDIA_TYPE)
+            .body(NdjsonYazici.akis(objectMapper, kaynak));
+    }
+
     /**
      * 👨‍🏫 Ünvan bazında öğretim elemanlarını listele
      */
@@ -1139,7 +1239,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "No faculty members found for this title")
     })
-    @GetMapping(value = "/unvan/{unvan}/ogretim-elemanlari", produces = "application/json")
+    @GetMapping(value = "/unvan/{unvan}/ogretim-elemanlari", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgretimElemanlariByUnvan(
             @Parameter(description = "Academic title", required = true, example = "Prof. Dr.")
             @PathVariable String unvan) {
@@ -1195,7 +1295,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "No faculty members found for this department")
     })
-    @GetMapping(value = "/bolum/{bolumAdi}/ogretim-elemanlari", produces = "application/json")
+    @GetMapping(value = "/bolum/{bolumAdi}/ogretim-elemanlari", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgretimElemanlariByBolum(
             @Parameter(description = "Department name", required = true, example = "BİLGİSAYAR MÜHENDİSLİĞİ")
             @PathVariable String bolumAdi) {
@@ -1253,7 +1353,7 @@ public class DataController {
         @ApiResponse(responseCode = "202", description = "Cache still loading, try again later"),
         @ApiResponse(responseCode = "404", description = "No faculty members found for this faculty")
     })
-    @GetMapping(value = "/fakulte/{fakulteAdi}/ogretim-elemanlari", produces = "application/json")
+    @GetMapping(value = "/fakulte/{fakulteAdi}/ogretim-elemanlari", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> getOgretimElemanlariByFakulte(
             @Parameter(description = "Faculty name", required = true, example = "MÜHENDİSLİK FAKÜLTESİ")
             @PathVariable String fakulteAdi) {
@@ -1304,7 +1404,7 @@ public class DataController {
         summary = "Get All Classes",
         description = "Returns list of all unique class names"
     )
-    @GetMapping(value = "/siniflar", produces = "application/json")
+    @GetMapping(value = "/siniflar", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Set<String>> getAllSiniflar() {
         if (!cacheService.isInitialized()) {
             return ResponseEntity.accepted().build();
@@ -1321,7 +1421,7 @@ public class DataController {
         summary = "Get All Academic Titles",
         description = "Returns list of all unique academic titles"
     )
-    @GetMapping(value = "/unvanlar", produces = "application/json")
+    @GetMapping(value = "/unvanlar", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Set<String>> getAllUnvanlar() {
         if (!cacheService.isInitialized()) {
             return ResponseEntity.accepted().build();
@@ -1338,7 +1438,7 @@ public class DataController {
         summary = "Get All Departments",
         description = "Returns list of all unique department names"
     )
-    @GetMapping(value = "/bolumler", produces = "application/json")
+    @GetMapping(value = "/bolumler", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Set<String>> getAllBolumler() {
         if (!cacheService.isInitialized()) {
             return ResponseEntity.accepted().build();
@@ -1360,7 +1460,7 @@ public class DataController {
         @ApiResponse(responseCode = "401", description = "Authentication failed"),
         @ApiResponse(responseCode = "500", description = "Service error")
     })
-    @PostMapping(value = "/auth/akademik-personel", produces = "application/json")
+    @PostMapping(value = "/auth/akademik-personel", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> akademikPersonelSifreKontrol(
             @Parameter(description = "Registry Number (Sicil No)", required = true, example = "12345")
             @RequestParam String sicilNo,
@@ -1426,7 +1526,7 @@ public class DataController {
         @ApiResponse(responseCode = "401", description = "Authentication failed"),
         @ApiResponse(responseCode = "500", description = "Service error")
     })
-    @PostMapping(value = "/auth/ogrenci", produces = "application/json")
+    @PostMapping(value = "/auth/ogrenci", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.APPLICATION_CBOR_VALUE, ApiMediaTypes.APPLICATION_SMILE_VALUE})
     public ResponseEntity<Map<String, Object>> ogrenciGirisKontrol(
             @Parameter(description = "Student Number", required = true, example = "20180001234")
             @RequestParam String ogrenciNo,
@@ -1452,24 +1552,17 @@ public class DataController {
                 
                 // Öğrenci detaylarını ekle (cache'ten)
                 if (cacheService.isInitialized()) {
-                    List<Ders> dersler = cacheService.getDerslerByOgrenciNo(ogrenciNo);
-                    if (!dersler.isEmpty()) {
-                        // İlk dersten öğrenci bilgilerini al
-                        for (Ders ders : dersler) {
-                            List<Ogrenci> ogrenciler = cacheService.getOgrencilerByDersHarId(ders.getDersHarId());
-                            Ogrenci ogrenci = ogrenciler.stream()
-                                .filter(o -> ogrenciNo.equals(o.getOgrNo()))
-                                .findFirst()
-                                .orElse(null);
-                            if (ogrenci != null) {
-                                result.put("adSoyad", ogrenci.getAdi() + " " + ogrenci.getSoyadi());
-                                result.put("fakulte", ogrenci.getFakulte());
-                                result.put("bolum", ogrenci.getBolum());
-                                result.put("program", ogrenci.getProgram());
-                                result.put("sinif", ogrenci.getSinif());
-                                break;
-                            }
-                        }
+                    // Ana kayıttan O(1); yoksa profil üzerinden (gerekirse lazy) dersler çözülür
+                    Ogrenci ogrenci = cacheService.getOgrenciKaydi(ogrenciNo);
+                    if (ogrenci == null && cacheService.getOgrenciProfili(ogrenciNo) != null) {
+                        ogrenci = cacheService.getOgrenciKaydi(ogrenciNo);
+                    }
+                    if (ogrenci != null) {
+                        result.put("adSoyad", ogrenci.getAdi() + " " + ogrenci.getSoyadi());
+                        result.put("fakulte", ogrenci.getFakulte());
+                        result.put("bolum", ogrenci.getBolum());
+                        result.put("program", ogrenci.getProgram());
+                        result.put("sinif", ogrenci.getSinif());
                     }
                 }
                 
@@ -0,0 +1,100 @@
+package com.prolizwebservices.controller;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.prolizwebservices.service.DegisiklikAkisiService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Cache değişiklik akışı (Server-Sent Events)
+ *
+ * progressive-status / kadro listelerini periyodik sorgulamak yerine istemciler bu akışa abone olur.
+ */
+@RestController
+@RequestMapping("/api/data/degisiklikler")
+@CrossOrigin(
+    origins = {"*"},
+    methods = {RequestMethod.GET, RequestMethod.OPTIONS},
+    allowedHeaders = "*",
+    allowCredentials = "false",
+    maxAge = 3600
+)
+@Tag(name = "C-Data Services", description = "Cached data services with advanced filtering and search capabilities")
+public class DegisiklikAkisiController {
+
+    private final DegisiklikAkisiService akisService;
+
+    @Autowired
+    public DegisiklikAkisiController(DegisiklikAkisiService akisService) {
+        this.akisService = akisService;
+    }
+
+    /**
+     * 📡 Değişiklik akışına abone ol
+     */
+    @Operation(
+        summary = "Subscribe to Cache Change Feed (SSE)",
+        description = "Server-Sent Events stream. Events: 'snapshot' (snapshot version changed, coalesced), "
+            + "'ilerleme' (initial/progressive load progress, same body as /cache/progressive-status) and "
+            + "'ders-kayit' (per-course enrollment delta: eklenenler / cikanlar student numbers). "
+            + "Filter course deltas by dersHarId and/or instructor TC; without filters all courses are sent. "
+            + "A client that falls more than sse.subscriber-queue-capacity events behind is disconnected; "
+            + "on reconnect it starts again from a 'snapshot' event."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "503", description = "Subscriber limit reached (retry after the Retry-After seconds)")
+    })
+    @GetMapping(value = "/akis", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> abone(
+            @Parameter(description = "Course IDs to follow (repeatable)", example = "2838793")
+            @RequestParam(required = false) List<String> dersHarId,
+            @Parameter(description = "Instructor TC numbers to follow (repeatable)")
+            @RequestParam(required = false) List<String> ogretimElemaniTC,
+            @Parameter(description = "Also send load progress events", example = "true")
+            @RequestParam(defaultValue = "true") boolean ilerleme) {
+
+        SseEmitter emitter = akisService.abone(kume(dersHarId), kume(ogretimElemaniTC), ilerleme);
+        if (emitter == null) {
+            // Gövde tipi SseEmitter olmalı (ResponseEntity<?> emitter'ı JSON'a çevirmeye çalışır); 503 gövdesiz döner
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static Set<String> kume(List<String> degerler) {
+        if (degerler == null || degerler.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> kume = new HashSet<>();
+        for (String deger : degerler) {
+            if (deger != null && !deger.trim().isEmpty()) {
+                kume.add(deger.trim());
+            }
+        }
+        return kume;
+    }
+}
@@ -16,11 +16,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.prolizwebservices.client.GauExtWebServiceClient;
 import com.prolizwebservices.exception.ValidationException;
 import com.prolizwebservices.model.OgrenciIstatistik;
 import com.prolizwebservices.model.AktifOgrenci;
+import com.prolizwebservices.model.Danisman;
+import com.prolizwebservices.service.AktifOgrenciStore;
+import com.prolizwebservices.util.NdjsonYazici;
 import com.prolizwebservices.util.XmlParser;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -43,11 +49,16 @@ public class GauExtController {
 
     private final GauExtWebServiceClient webServiceClient;
     private final XmlParser xmlParser;
+    private final AktifOgrenciStore aktifOgrenciStore;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public GauExtController(GauExtWebServiceClient webServiceClient, XmlParser xmlParser) {
+    public GauExtController(GauExtWebServiceClient webServiceClient, XmlParser xmlParser,
+                            AktifOgrenciStore aktifOgrenciStore, ObjectMapper objectMapper) {
         this.webServiceClient = webServiceClient;
         this.xmlParser = xmlParser;
+        this.aktifOgrenciStore = aktifOgrenciStore;
+        this.objectMapper = objectMapper;
     }
     
     // 1. Student Statistics
@@ -77,7 +88,8 @@ public class GauExtController {
     // 2. Active Student List
     @Operation(
         summary = "Get Active Student List",
-        description = "Retrieves detailed information about active students. Can filter by student number or TC identity number."
+        description = "Retrieves detailed information about active students. Can filter by student number or TC identity number, "
+            + "and by faculty, department and class (Turkish case-insensitive exact match, served from the store indexes)."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Student list retrieved successfully"),
@@ -89,11 +101,34 @@ public class GauExtController {
             @RequestParam(required = false) String ogrenciNo,
             @Parameter(description = "TC identity number (optional)", example = "12345678901")
             @RequestParam(required = false) String tcKimlik,
+            @Parameter(description = "Faculty name (optional)", example = "Mühendislik Fakültesi")
+            @RequestParam(required = false) String fakulte,
+            @Parameter(description = "Department name (optional)", example = "Bilgisayar Mühendisliği")
+            @RequestParam(required = false) String bolum,
+            @Parameter(description = "Class (optional)", example = "2")
+            @RequestParam(required = false) String sinif,
             @Parameter(description = "Maximum number of students to return (default: 50, max: 100)", example = "50")
             @RequestParam(defaultValue = "50") int limit) {
         
-        String xmlResult = webServiceClient.getAktifOgrenciListesi(ogrenciNo, tcKimlik);
-        List<AktifOgrenci> allOgrenciler = xmlParser.parseAktifOgrenciler(xmlResult);
+        // Yerel index'li depodan (ayrı SOAP çağrısı / cache key yok)
+        List<AktifOgrenci> allOgrenciler;
+        if (StringUtils.hasText(ogrenciNo) || StringUtils.hasText(tcKimlik)) {
+            AktifOgrenci ogrenci = StringUtils.hasText(ogrenciNo)
+                ? aktifOgrenciStore.getByOgrenciNo(ogrenciNo)
+                : aktifOgrenciStore.getByTcKimlik(tcKimlik);
+            // İkisi birlikte verildiyse ikisi de eşleşmeli
+            if (ogrenci != null && StringUtils.hasText(ogrenciNo) && StringUtils.hasText(tcKimlik)
+                    && !tcKimlik.trim().equals(ogrenci.getTcKimlikNo())) {
+                ogrenci = null;
+            }
+            if (ogrenci != null && !AktifOgrenciStore.eslesir(ogrenci, fakulte, bolum, sinif)) {
+                ogrenci = null;
+            }
+            allOgrenciler = ogrenci != null ? List.of(ogrenci) : List.of();
+        } else {
+            // Fakülte / bölüm / sınıf index'lerinden (filtre yoksa tüm liste)
+            allOgrenciler = aktifOgrenciStore.filtrele(fakulte, bolum, sinif);
+        }
         
         // Limit uygula (Swagger UI performansı için)
         List<AktifOgrenci> limitedOgrenciler = allOgrenciler.stream()
@@ -106,7 +141,10 @@ public class GauExtController {
         response.put("gosterilenOgrenci", limitedOgrenciler.size());
         response.put("filtreler", Map.of(
             "ogrenciNo", ogrenciNo != null ? ogrenciNo : "",
-            "tcKimlik", tcKimlik != null ? tcKimlik : ""
+            "tcKimlik", tcKimlik != null ? tcKimlik : "",
+            "fakulte", fakulte != null ? fakulte : "",
+            "bolum", bolum != null ? bolum : "",
+            "sinif", sinif != null ? sinif : ""
         ));
         response.put("timestamp", java.time.LocalDateTime.now());
         response.put("message", limitedOgrenciler.size() > 0 ? 
@@ -192,7 +230,8 @@ public class GauExtController {
     // 5. Get Students by Advisor (Danışman bazlı öğrenci listesi)
     @Operation(
         summary = "Get Students by Advisor",
-        description = "Retrieves list of students for a specific advisor from cached data. Filters by advisor name and surname."
+        description = "Retrieves list of students for a specific advisor from cached data. Filters by advisor name and surname: "
+            + "each value matches the start of a name word (Turkish case-insensitive), served from the advisor name indexes."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Student list retrieved successfully"),
@@ -208,81 +247,30 @@ public class GauExtController {
             @Parameter(description = "Full name search (optional)", example = "Mehmet Kaya")
             @RequestParam(required = false) String danismanAdSoyad) {
         
-        // En az bir parametre gerekli
-        if (!StringUtils.hasText(danismanAd) && !StringUtils.hasText(danismanSoyad) && !StringUtils.hasText(danismanAdSoyad)) {
-            throw new ValidationException(
-                "At least one parameter (danismanAd, danismanSoyad, or danismanAdSoyad) is required",
-                "danismanAd/danismanSoyad/danismanAdSoyad",
-                null
-            );
-        }
-        
-        // Tüm aktif öğrencileri çek
-        String xmlResult = webServiceClient.getAktifOgrenciListesi(null, null);
-        List<AktifOgrenci> allOgrenciler = xmlParser.parseAktifOgrenciler(xmlResult);
+        validateDanismanParametreleri(danismanAd, danismanSoyad, danismanAdSoyad);
         
-        // Danışman filtreleme
-        List<AktifOgrenci> filteredOgrenciler = allOgrenciler.stream()
-            .filter(ogrenci -> {
-                // Tam ad araması varsa
-                if (StringUtils.hasText(danismanAdSoyad)) {
-                    String fullName = (ogrenci.getDanismanAd() + " " + ogrenci.getDanismanSoyad()).trim().toLowerCase();
-                    return fullName.contains(danismanAdSoyad.toLowerCase());
-                }
-                
-                // Ad ve/veya soyad araması
-                boolean adMatch = true;
-                boolean soyadMatch = true;
-                
-                if (StringUtils.hasText(danismanAd)) {
-                    adMatch = ogrenci.getDanismanAd() != null && 
-                             ogrenci.getDanismanAd().toLowerCase().contains(danismanAd.toLowerCase());
-                }
-                
-                if (StringUtils.hasText(danismanSoyad)) {
-                    soyadMatch = ogrenci.getDanismanSoyad() != null && 
-                                ogrenci.getDanismanSoyad().toLowerCase().contains(danismanSoyad.toLowerCase());
-                }
-                
-                return adMatch && soyadMatch;
-            })
-            .collect(Collectors.toList());
-        
-        // Danışman bilgilerini grupla (benzersiz danışmanlar)
-        Map<String, Map<String, Object>> danismanlar = new HashMap<>();
-        for (AktifOgrenci ogrenci : filteredOgrenciler) {
-            String danismanKey = (ogrenci.getDanismanAd() + " " + ogrenci.getDanismanSoyad()).trim();
-            if (!danismanKey.isEmpty()) {
-                danismanlar.putIfAbsent(danismanKey, Map.of(
-                    "danismanAd", ogrenci.getDanismanAd() != null ? ogrenci.getDanismanAd() : "",
-                    "danismanSoyad", ogrenci.getDanismanSoyad() != null ? ogrenci.getDanismanSoyad() : "",
-                    "danismanUnvan", ogrenci.getDanismanUnvan() != null ? ogrenci.getDanismanUnvan() : ""
-                ));
-            }
-        }
-        
-        // İstatistikler
-        Map<String, Long> fakulteIstatistik = filteredOgrenciler.stream()
-            .filter(o -> o.getFakulteAd() != null)
-            .collect(Collectors.groupingBy(AktifOgrenci::getFakulteAd, Collectors.counting()));
-            
-        Map<String, Long> bolumIstatistik = filteredOgrenciler.stream()
-            .filter(o -> o.getBolumAd() != null)
-            .collect(Collectors.groupingBy(AktifOgrenci::getBolumAd, Collectors.counting()));
-            
-        Map<String, Long> sinifIstatistik = filteredOgrenciler.stream()
-            .filter(o -> o.getSinif() != null)
-            .collect(Collectors.groupingBy(AktifOgrenci::getSinif, Collectors.counting()));
+        // Danışman filtreleme - katlanmış isim index'lerinde önek araması (danışman listesi taranmaz)
+        AktifOgrenciStore.DanismanSonucu sonuc = aktifOgrenciStore.danismanAra(danismanAd, danismanSoyad, danismanAdSoyad);
+        List<AktifOgrenci> filteredOgrenciler = sonuc.getOgrenciler();
         
         Map<String, Object> response = new HashMap<>();
         response.put("ogrenciler", filteredOgrenciler);
         response.put("toplamOgrenci", filteredOgrenciler.size());
-        response.put("danismanlar", danismanlar.values());
+        // Benzersiz danışmanlar (mevcut yanıt formatı korunur)
+        List<Map<String, Object>> danismanlar = sonuc.getDanismanlar().stream()
+            .map(danisman -> Map.<String, Object>of(
+                "danismanAd", danisman.getAd() != null ? danisman.getAd() : "",
+                "danismanSoyad", danisman.getSoyad() != null ? danisman.getSoyad() : "",
+                "danismanUnvan", danisman.getUnvan() != null ? danisman.getUnvan() : "",
+                "ogrenciSayisi", danisman.getOgrenciSayisi()
+            ))
+            .collect(Collectors.toList());
+        response.put("danismanlar", danismanlar);
         response.put("danismanSayisi", danismanlar.size());
         response.put("istatistikler", Map.of(
-            "fakulte", fakulteIstatistik,
-            "bolum", bolumIstatistik,
-            "sinif", sinifIstatistik
+            "fakulte", sonuc.getFakulteDagilimi(),
+            "bolum", sonuc.getBolumDagilimi(),
+            "sinif", sonuc.getSinifDagilimi()
         ));
         response.put("filtreler", Map.of(
             "danismanAd", danismanAd != null ? danismanAd : "",
@@ -296,6 +284,72 @@ public class GauExtController {
         return ResponseEntity.ok(response);
     }
 
+    // 5b. Get Students by Advisor - NDJSON stream
+    @Operation(
+        summary = "Stream Students by Advisor (NDJSON)",
+        description = "Same filter as the advisor student list, but writes one student JSON object per line "
+            + "(?format=ndjson) directly from the advisor index without building the result list."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Student stream started"),
+        @ApiResponse(responseCode = "400", description = "Invalid input parameters")
+    })
+    @GetMapping(value = "/ogrenci/danisman-ogrencileri", params = NdjsonYazici.FORMAT_PARAM)
+    public ResponseEntity<StreamingResponseBody> streamDanismanOgrencileri(
+            @Parameter(description = "Advisor name (optional)", example = "Mehmet")
+            @RequestParam(required = false) String danismanAd,
+            @Parameter(description = "Advisor surname (optional)", example = "Kaya")
+            @RequestParam(required = false) String danismanSoyad,
+            @Parameter(description = "Full name search (optional)", example = "Mehmet Kaya")
+            @RequestParam(required = false) String danismanAdSoyad) {
+        
+        validateDanismanParametreleri(danismanAd, danismanSoyad, danismanAdSoyad);
+        
+        return ResponseEntity.ok()
+            .contentType(NdjsonYazici.MEDIA_TYPE)
+            .body(NdjsonYazici.akis(objectMapper,
+                yaz -> aktifOgrenciStore.forEachDanismanOgrencisi(danismanAd, danismanSoyad, danismanAdSoyad, yaz::accept)));
+    }
+
+    // 6. Advisor prefix search
+    @Operation(
+        summary = "Search Advisors by Name Prefix",
+        description = "Returns advisors whose full name or any name word starts with the given text (Turkish case-insensitive), with student counts and faculty/department/class distributions."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Advisors found"),
+        @ApiResponse(responseCode = "400", description = "Invalid input parameters")
+    })
+    @GetMapping("/danisman/ara")
+    public ResponseEntity<Map<String, Object>> danismanAra(
+            @Parameter(description = "Name or surname prefix", required = true, example = "Meh")
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of advisors (default: 20, max: 100)", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        validateNotEmpty(q, "q");
+        
+        List<Danisman> danismanlar = aktifOgrenciStore.danismanOnekAra(q, Math.max(1, Math.min(limit, 100)));
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("danismanlar", danismanlar);
+        response.put("toplam", danismanlar.size());
+        response.put("arama", q);
+        response.put("timestamp", java.time.LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    private void validateDanismanParametreleri(String danismanAd, String danismanSoyad, String danismanAdSoyad) {
+        if (!StringUtils.hasText(danismanAd) && !StringUtils.hasText(danismanSoyad) && !StringUtils.hasText(danismanAdSoyad)) {
+            throw new ValidationException(
+                "At least one parameter (danismanAd, danismanSoyad, or danismanAdSoyad) is required",
+                "danismanAd/danismanSoyad/danismanAdSoyad",
+                null
+            );
+        }
+    }
+
     // Validation helper method
     private void validateNotEmpty(String value, String fieldName) {
         if (!StringUtils.hasText(value)) {
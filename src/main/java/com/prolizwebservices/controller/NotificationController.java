@@ -1,8 +1,12 @@
 package com.prolizwebservices.controller;
 
 import com.prolizwebservices.entity.NotificationHistory;
+import com.prolizwebservices.entity.ScheduledNotification;
 import com.prolizwebservices.model.notification.*;
+import com.prolizwebservices.service.NotificationOutboxService;
 import com.prolizwebservices.service.NotificationService;
+import com.prolizwebservices.service.NotificationTargetResolver;
+import com.prolizwebservices.service.ScheduledNotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,10 +16,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Controller for Push Notification Management
@@ -35,6 +42,8 @@ import java.util.Map;
 public class NotificationController {
     
     private final NotificationService notificationService;
+    private final NotificationOutboxService outboxService;
+    private final ScheduledNotificationService scheduledNotificationService;
     
     /**
      * Register a device token
@@ -58,7 +67,7 @@ public class NotificationController {
             response.put("success", true);
             response.put("message", "Token registered successfully");
             
-            log.info("Token registered for user: {} ({})", request.getUserId(), request.getUserType());
+            log.debug("Token registered for user: {} ({})", request.getUserId(), request.getUserType());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -72,6 +81,34 @@ public class NotificationController {
         }
     }
     
+    /**
+     * Register many device tokens
+     */
+    @Operation(
+        summary = "Register Device Tokens (Batch)",
+        description = "Registers up to 1000 device tokens in one call. Registrations are coalesced per token and "
+            + "written with a single batch upsert; invalid entries are skipped and reported."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tokens accepted (see accepted/rejected counts)"),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch")
+    })
+    @PostMapping("/register-tokens")
+    public ResponseEntity<Map<String, Object>> registerTokens(
+            @RequestBody List<TokenRegistrationRequest> requests) {
+        
+        if (requests == null || requests.isEmpty() || requests.size() > 1000) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Batch must contain 1 to 1000 registrations");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        Map<String, Object> response = notificationService.registerTokens(requests);
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Unregister a device token
      */
@@ -188,27 +225,21 @@ public class NotificationController {
      */
     @Operation(
         summary = "Send Bulk Notification",
-        description = "Sends notification to all students enrolled in a lesson"
+        description = "Queues a notification to all students enrolled in a lesson. Returns immediately with a job id; "
+            + "poll GET /api/notifications/jobs/{jobId} for sent/failed counts."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Notification sent successfully"),
+        @ApiResponse(responseCode = "202", description = "Notification job queued"),
         @ApiResponse(responseCode = "400", description = "Invalid request")
     })
     @PostMapping("/send-bulk")
-    public ResponseEntity<SendNotificationResponse> sendBulkNotification(
+    public ResponseEntity<NotificationJobStatus> sendBulkNotification(
             @RequestBody SendNotificationRequest request) {
         
-        try {
-            log.info("Sending bulk notification for lesson: {} by academic: {}", 
-                request.getLessonId(), request.getAcademicId());
-            
-            SendNotificationResponse response = notificationService.sendBulkNotification(request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error sending bulk notification", e);
-            return ResponseEntity.badRequest()
-                .body(new SendNotificationResponse(false, 0, 0, "Error: " + e.getMessage()));
-        }
+        log.info("Queueing bulk notification for lesson: {} by academic: {}", 
+            request.getLessonId(), request.getAcademicId());
+        
+        return accepted(outboxService.enqueue(request, NotificationHistory.RecipientType.ALL));
     }
     
     /**
@@ -216,23 +247,20 @@ public class NotificationController {
      */
     @Operation(
         summary = "Send Class Notification",
-        description = "Sends notification to students in a specific class"
+        description = "Queues a notification to students in a specific class. Returns immediately with a job id."
     )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Notification job queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
     @PostMapping("/send-class")
-    public ResponseEntity<SendNotificationResponse> sendClassNotification(
+    public ResponseEntity<NotificationJobStatus> sendClassNotification(
             @RequestBody SendNotificationRequest request) {
         
-        try {
-            log.info("Sending class notification for lesson: {}, class: {} by academic: {}", 
-                request.getLessonId(), request.getClassId(), request.getAcademicId());
-            
-            SendNotificationResponse response = notificationService.sendClassNotification(request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error sending class notification", e);
-            return ResponseEntity.badRequest()
-                .body(new SendNotificationResponse(false, 0, 0, "Error: " + e.getMessage()));
-        }
+        log.info("Queueing class notification for lesson: {}, class: {} by academic: {}", 
+            request.getLessonId(), request.getClassId(), request.getAcademicId());
+        
+        return accepted(outboxService.enqueue(request, NotificationHistory.RecipientType.CLASS));
     }
     
     /**
@@ -240,24 +268,195 @@ public class NotificationController {
      */
     @Operation(
         summary = "Send Individual Notification",
-        description = "Sends notification to selected individual students"
+        description = "Queues a notification to selected individual students. Returns immediately with a job id."
     )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Notification job queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
     @PostMapping("/send-individual")
-    public ResponseEntity<SendNotificationResponse> sendIndividualNotification(
+    public ResponseEntity<NotificationJobStatus> sendIndividualNotification(
+            @RequestBody SendNotificationRequest request) {
+        
+        log.info("Queueing individual notification to {} students by academic: {}", 
+            request.getStudentIds() != null ? request.getStudentIds().size() : 0, 
+            request.getAcademicId());
+        
+        return accepted(outboxService.enqueue(request, NotificationHistory.RecipientType.INDIVIDUAL));
+    }
+    
+    /**
+     * Send one notification across many lessons
+     */
+    @Operation(
+        summary = "Send Targeted Notification",
+        description = "Queues a notification to students of all lessons matching lessonIds, faculty, department and "
+            + "instructorId (Sicil No); given criteria are combined with AND, classId filters students by class. "
+            + "Students enrolled in several matching lessons receive it once."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Notification job queued"),
+        @ApiResponse(responseCode = "400", description = "No lesson criteria given")
+    })
+    @PostMapping("/send-targeted")
+    public ResponseEntity<NotificationJobStatus> sendTargetedNotification(
             @RequestBody SendNotificationRequest request) {
         
+        log.info("Queueing targeted notification (faculty: {}, department: {}, instructor: {}, {} lessons) by academic: {}", 
+            request.getFaculty(), request.getDepartment(), request.getInstructorId(),
+            request.getLessonIds() != null ? request.getLessonIds().size() : 0, request.getAcademicId());
+        
+        return accepted(outboxService.enqueue(request, NotificationHistory.RecipientType.TARGETED));
+    }
+    
+    /**
+     * Preview a targeted notification
+     */
+    @Operation(
+        summary = "Preview Targeted Notification",
+        description = "Returns matching lesson count, unique student count and how many of them have a device token. "
+            + "Nothing is sent."
+    )
+    @PostMapping("/targets/preview")
+    public ResponseEntity<Map<String, Object>> previewTarget(
+            @RequestBody SendNotificationRequest request) {
+        
+        if (!NotificationTargetResolver.hasLessonCriteria(request)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "At least one of lessonIds, faculty, department or instructorId is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(notificationService.previewTarget(request));
+    }
+    
+    /**
+     * Get status of a queued notification job
+     */
+    @Operation(
+        summary = "Get Notification Job Status",
+        description = "Returns the status of a queued send (PENDING, PROCESSING, COMPLETED, FAILED) with sent/failed counts"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job found"),
+        @ApiResponse(responseCode = "404", description = "Unknown or purged job id")
+    })
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<NotificationJobStatus> getJobStatus(
+            @Parameter(description = "Job id returned by a send endpoint", required = true)
+            @PathVariable String jobId) {
+        
+        NotificationJobStatus status = outboxService.getJobStatus(jobId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Get notification queue statistics
+     */
+    @Operation(
+        summary = "Get Notification Queue Statistics",
+        description = "Returns outbox job counts per status, busy worker count and scheduled notification counts"
+    )
+    @GetMapping("/jobs/stats")
+    public ResponseEntity<Map<String, Object>> getJobStats() {
+        Map<String, Object> stats = new HashMap<>(outboxService.getStats());
+        stats.put("scheduled", scheduledNotificationService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+    
+    /**
+     * Schedule a notification for later delivery
+     */
+    @Operation(
+        summary = "Schedule Notification",
+        description = "Stores a send request (recipientType: all, class, individual or targeted) to be queued at sendAt "
+            + "(server local time, e.g. 2025-03-01T09:00:00). The returned scheduleId can be used to cancel it."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Notification scheduled"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or sendAt")
+    })
+    @PostMapping("/schedule")
+    public ResponseEntity<ScheduledNotification> scheduleNotification(
+            @RequestBody ScheduleNotificationRequest request) {
+        
+        ScheduledNotification schedule = scheduledNotificationService.schedule(request);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/api/notifications/scheduled/{scheduleId}")
+            .buildAndExpand(schedule.getScheduleId())
+            .toUri();
+        return ResponseEntity.created(location).body(schedule);
+    }
+    
+    /**
+     * Get a scheduled notification
+     */
+    @Operation(
+        summary = "Get Scheduled Notification",
+        description = "Returns a schedule with its status (SCHEDULED, QUEUED, CANCELLED, FAILED) and outbox job id once queued"
+    )
+    @GetMapping("/scheduled/{scheduleId}")
+    public ResponseEntity<ScheduledNotification> getScheduledNotification(
+            @Parameter(description = "Schedule id returned by /schedule", required = true)
+            @PathVariable String scheduleId) {
+        
+        return scheduledNotificationService.getSchedule(scheduleId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * List pending scheduled notifications of an academic
+     */
+    @Operation(
+        summary = "Get Pending Scheduled Notifications",
+        description = "Returns schedules that have not fired yet, soonest first"
+    )
+    @GetMapping("/scheduled/academic/{academicId}")
+    public ResponseEntity<List<ScheduledNotification>> getPendingSchedules(
+            @Parameter(description = "Academic registry number (Sicil No)", required = true, example = "12345")
+            @PathVariable String academicId,
+            @Parameter(description = "Maximum number of records to return (max 200)", example = "50")
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        return ResponseEntity.ok(scheduledNotificationService.getPendingSchedules(academicId, limit));
+    }
+    
+    /**
+     * Cancel a scheduled notification
+     */
+    @Operation(
+        summary = "Cancel Scheduled Notification",
+        description = "Cancels a schedule that has not been queued yet"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Schedule cancelled"),
+        @ApiResponse(responseCode = "404", description = "Unknown schedule id"),
+        @ApiResponse(responseCode = "409", description = "Already queued, cancelled or failed")
+    })
+    @DeleteMapping("/scheduled/{scheduleId}")
+    public ResponseEntity<Map<String, Object>> cancelScheduledNotification(
+            @Parameter(description = "Schedule id returned by /schedule", required = true)
+            @PathVariable String scheduleId) {
+        
+        Map<String, Object> response = new HashMap<>();
+        boolean cancelled;
         try {
-            log.info("Sending individual notification to {} students by academic: {}", 
-                request.getStudentIds() != null ? request.getStudentIds().size() : 0, 
-                request.getAcademicId());
-            
-            SendNotificationResponse response = notificationService.sendIndividualNotification(request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error sending individual notification", e);
-            return ResponseEntity.badRequest()
-                .body(new SendNotificationResponse(false, 0, 0, "Error: " + e.getMessage()));
+            cancelled = scheduledNotificationService.cancel(scheduleId);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
         }
+        response.put("success", cancelled);
+        response.put("message", cancelled ? "Scheduled notification cancelled" : "Notification was already queued or cancelled");
+        return cancelled ? ResponseEntity.ok(response) : ResponseEntity.status(409).body(response);
+    }
+    
+    private static ResponseEntity<NotificationJobStatus> accepted(NotificationJobStatus status) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/api/notifications/jobs/{jobId}")
+            .buildAndExpand(status.getJobId())
+            .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
     }
     
     /**
@@ -271,13 +470,59 @@ public class NotificationController {
     public ResponseEntity<List<NotificationHistory>> getNotificationHistory(
             @Parameter(description = "Academic registry number (Sicil No)", required = true, example = "12345")
             @PathVariable String academicId,
-            @Parameter(description = "Maximum number of records to return", example = "50")
+            @Parameter(description = "Maximum number of records to return (max 500)", example = "50")
             @RequestParam(defaultValue = "50") int limit) {
         
         List<NotificationHistory> history = notificationService.getNotificationHistory(academicId, limit);
         return ResponseEntity.ok(history);
     }
     
+    /**
+     * Get a page of notification history (keyset)
+     */
+    @Operation(
+        summary = "Get Notification History Page",
+        description = "Returns notification history newest first. Pass nextCursor from the previous page to continue; "
+            + "every page costs the same index range scan regardless of how much history exists."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page returned"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/history/{academicId}/page")
+    public ResponseEntity<Map<String, Object>> getNotificationHistoryPage(
+            @Parameter(description = "Academic registry number (Sicil No)", required = true, example = "12345")
+            @PathVariable String academicId,
+            @Parameter(description = "Only notifications for this lesson (DERS_HAR_ID)")
+            @RequestParam(required = false) String lessonId,
+            @Parameter(description = "Opaque cursor from the previous page's nextCursor")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        
+        return ResponseEntity.ok(notificationService.getNotificationHistoryPage(academicId, lessonId, cursor, size));
+    }
+    
+    /**
+     * Get daily notification statistics
+     */
+    @Operation(
+        summary = "Get Daily Notification Statistics",
+        description = "Returns per-day notification, recipient, sent, failed, delivered and undelivered totals "
+            + "for the last N days (max 366), aggregated in the database"
+    )
+    @GetMapping("/history/{academicId}/stats")
+    public ResponseEntity<List<Map<String, Object>>> getDailyHistoryStats(
+            @Parameter(description = "Academic registry number (Sicil No)", required = true, example = "12345")
+            @PathVariable String academicId,
+            @Parameter(description = "Only notifications for this lesson (DERS_HAR_ID)")
+            @RequestParam(required = false) String lessonId,
+            @Parameter(description = "Number of days including today", example = "30")
+            @RequestParam(defaultValue = "30") int days) {
+        
+        return ResponseEntity.ok(notificationService.getDailyHistoryStats(academicId, lessonId, days));
+    }
+    
     /**
      * Clear student list cache
      */
@@ -311,7 +556,7 @@ public class NotificationController {
      */
     @Operation(
         summary = "Get Cache Statistics",
-        description = "Returns statistics about the student list cache"
+        description = "Returns size, hit/miss/eviction statistics of the student list cache and token registry counts"
     )
     @GetMapping("/cache/stats")
     public ResponseEntity<Map<String, Object>> getCacheStats() {
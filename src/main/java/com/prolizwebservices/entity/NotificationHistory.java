@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "notification_history", indexes = {
-    @Index(name = "idx_academic", columnList = "academic_id"),
+    // History pages and daily stats: academic_id = ? ORDER BY created_at DESC, id DESC
+    @Index(name = "idx_history_academic_created", columnList = "academic_id,created_at,id"),
+    @Index(name = "idx_history_academic_lesson_created", columnList = "academic_id,lesson_id,created_at,id"),
     @Index(name = "idx_lesson", columnList = "lesson_id")
 })
 @Data
@@ -48,6 +50,14 @@ public class NotificationHistory {
     @Column(name = "failed_count")
     private Integer failedCount;
     
+    /** Receipts reported delivered to Apple/Google (filled by the receipt poller) */
+    @Column(name = "delivered_count")
+    private Integer deliveredCount;
+    
+    /** Receipts reported as errors (DeviceNotRegistered, MessageTooBig, ...) */
+    @Column(name = "undelivered_count")
+    private Integer undeliveredCount;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -57,6 +67,6 @@ public class NotificationHistory {
     }
     
     public enum RecipientType {
-        ALL, CLASS, INDIVIDUAL
+        ALL, CLASS, INDIVIDUAL, TARGETED
     }
 }
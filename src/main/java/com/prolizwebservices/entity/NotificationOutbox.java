@@ -0,0 +1,85 @@
+package com.prolizwebservices.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Notification Outbox Entity
+ * Durable queue of notification send jobs; API enqueues, background workers claim and dispatch
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+    @Index(name = "idx_outbox_claim", columnList = "status,next_attempt_at"),
+    @Index(name = "idx_outbox_job", columnList = "job_id", unique = true)
+})
+@Data
+public class NotificationOutbox {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+    
+    @Column(name = "academic_id", length = 50)
+    private String academicId;
+    
+    @Column(name = "lesson_id", length = 50)
+    private String lessonId;
+    
+    @Column(name = "recipient_type", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private NotificationHistory.RecipientType recipientType;
+    
+    /** Original SendNotificationRequest as JSON */
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+    
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+    
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+    
+    @Column(name = "sent_count")
+    private Integer sentCount;
+    
+    @Column(name = "failed_count")
+    private Integer failedCount;
+    
+    @Column(name = "result_message", length = 500)
+    private String resultMessage;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+    
+    public enum Status {
+        PENDING, PROCESSING, COMPLETED, FAILED
+    }
+}
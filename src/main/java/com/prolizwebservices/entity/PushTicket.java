@@ -0,0 +1,39 @@
+package com.prolizwebservices.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Push Ticket Entity
+ * Expo ticket waiting for its receipt; the row is removed once the receipt is processed
+ */
+@Entity
+@Table(name = "push_tickets", indexes = {
+    @Index(name = "idx_ticket_created", columnList = "created_at"),
+    @Index(name = "idx_ticket_history", columnList = "history_id")
+})
+@Data
+public class PushTicket {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "ticket_id", nullable = false, length = 64)
+    private String ticketId;
+    
+    @Column(nullable = false, length = 255)
+    private String token;
+    
+    @Column(name = "history_id")
+    private Long historyId;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
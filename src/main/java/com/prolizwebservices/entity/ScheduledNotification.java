@@ -0,0 +1,74 @@
+package com.prolizwebservices.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Scheduled Notification Entity
+ * A send request to be handed to the notification outbox at send_at
+ */
+@Entity
+@Table(name = "scheduled_notifications", indexes = {
+    @Index(name = "idx_scheduled_due", columnList = "status,send_at"),
+    @Index(name = "idx_scheduled_academic", columnList = "academic_id,send_at"),
+    @Index(name = "idx_scheduled_id", columnList = "schedule_id", unique = true)
+})
+@Data
+public class ScheduledNotification {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "schedule_id", nullable = false, length = 36)
+    private String scheduleId;
+    
+    @Column(name = "academic_id", length = 50)
+    private String academicId;
+    
+    @Column(name = "lesson_id", length = 50)
+    private String lessonId;
+    
+    @Column(length = 255)
+    private String title;
+    
+    @Column(name = "recipient_type", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private NotificationHistory.RecipientType recipientType;
+    
+    /** SendNotificationRequest as JSON */
+    @JsonIgnore
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+    
+    @Column(name = "send_at", nullable = false)
+    private LocalDateTime sendAt;
+    
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    
+    /** Outbox job created when the schedule fired */
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "queued_at")
+    private LocalDateTime queuedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public enum Status {
+        SCHEDULED, QUEUED, CANCELLED, FAILED
+    }
+}
@@ -0,0 +1,18 @@
+package com.prolizwebservices.event;
+
+import java.util.Map;
+
+/**
+ * Initial / progressive yükleme batch'i tamamlandığında yayınlanan olay
+ * İçerik /api/data/cache/progressive-status yanıtıyla aynıdır.
+ */
+public class CacheIlerlemeDegisti {
+
+    private final Map<String, Object> durum;
+
+    public CacheIlerlemeDegisti(Map<String, Object> durum) {
+        this.durum = durum;
+    }
+
+    public Map<String, Object> getDurum() { return durum; }
+}
@@ -0,0 +1,41 @@
+package com.prolizwebservices.event;
+
+import java.util.List;
+
+/**
+ * Bir dersin öğrenci listesi cache'e yazıldığında yayınlanan olay
+ *
+ * Sadece önceki listeye göre farkı (eklenen / çıkan öğrenci numaraları) taşır;
+ * abone istemciler yerel kadro listesini tekrar çekmeden güncelleyebilir.
+ */
+public class DersKayitDegisti {
+
+    private final String dersHarId;
+    private final String ogretimElemaniTC;
+    private final List<String> eklenenler;
+    private final List<String> cikanlar;
+    private final int toplamOgrenci;
+    private final long snapshotVersion;
+
+    public DersKayitDegisti(String dersHarId, String ogretimElemaniTC, List<String> eklenenler,
+                            List<String> cikanlar, int toplamOgrenci, long snapshotVersion) {
+        this.dersHarId = dersHarId;
+        this.ogretimElemaniTC = ogretimElemaniTC;
+        this.eklenenler = eklenenler;
+        this.cikanlar = cikanlar;
+        this.toplamOgrenci = toplamOgrenci;
+        this.snapshotVersion = snapshotVersion;
+    }
+
+    public String getDersHarId() { return dersHarId; }
+
+    public String getOgretimElemaniTC() { return ogretimElemaniTC; }
+
+    public List<String> getEklenenler() { return eklenenler; }
+
+    public List<String> getCikanlar() { return cikanlar; }
+
+    public int getToplamOgrenci() { return toplamOgrenci; }
+
+    public long getSnapshotVersion() { return snapshotVersion; }
+}
@@ -0,0 +1,18 @@
+package com.prolizwebservices.event;
+
+import java.util.Collection;
+
+/**
+ * Published after device tokens are deleted (e.g. DeviceNotRegistered receipts)
+ * Listeners drop anything derived from the token table (hasToken flags, target lists).
+ */
+public class NotificationTokensRemoved {
+
+    private final Collection<String> tokens;
+
+    public NotificationTokensRemoved(Collection<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    public Collection<String> getTokens() { return tokens; }
+}
@@ -0,0 +1,18 @@
+package com.prolizwebservices.event;
+
+import java.util.Collection;
+
+/**
+ * Published by the token registry when students gain their first or lose their last device token
+ * Listeners refresh anything that carries a per-student hasToken flag.
+ */
+public class StudentTokenStatusChanged {
+
+    private final Collection<String> studentIds;
+
+    public StudentTokenStatusChanged(Collection<String> studentIds) {
+        this.studentIds = studentIds;
+    }
+
+    public Collection<String> getStudentIds() { return studentIds; }
+}
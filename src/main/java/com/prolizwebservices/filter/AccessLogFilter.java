@@ -0,0 +1,69 @@
+package com.prolizwebservices.filter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Örneklemeli, yapılandırılmış (key=value) erişim logu
+ *
+ * Her istek loglanmaz: sadece örneklenen istekler (logging.access.sample-rate), yavaş istekler ve
+ * 5xx yanıtlar yazılır. Log satırı sadece yazılacaksa oluşturulur. Query string kişisel veri
+ * (TC, öğrenci no) içerebileceği için loglanmaz.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("com.prolizwebservices.access");
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowMs;
+
+    public AccessLogFilter(@Value("${logging.access.enabled:true}") boolean enabled,
+                           @Value("${logging.access.sample-rate:0.01}") double sampleRate,
+                           @Value("${logging.access.slow-ms:1000}") long slowMs) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowMs = slowMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !accessLog.isInfoEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            int status = response.getStatus();
+            boolean yavas = durationMs >= slowMs;
+            boolean hata = status >= 500;
+
+            if (yavas || hata || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                accessLog.info("method={} path={} status={} durationMs={} async={} sampled={}",
+                    request.getMethod(), request.getRequestURI(), status, durationMs,
+                    request.isAsyncStarted(), !(yavas || hata));
+            }
+        }
+    }
+}
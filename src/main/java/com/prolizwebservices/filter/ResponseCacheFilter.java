@@ -0,0 +1,220 @@
+package com.prolizwebservices.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.prolizwebservices.service.DataCacheService;
+import com.prolizwebservices.util.NdjsonYazici;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * /api/data/* GET yanıtları için response cache + ETag filtresi
+ *
+ * DataCacheService'teki veri sadece progressive batch / refresh ile değişir.
+ * Yanıtlar (endpoint + parametreler + Accept + snapshot versiyonu) anahtarıyla
+ * serialize edilmiş ve gzip'lenmiş byte'lar olarak saklanır.
+ * ETag snapshot versiyonundan türetilir; If-None-Match eşleşirse 304 döner.
+ * Gzip'li gövde ayrı bir temsil olduğundan kendi ETag'ini ("<v>-<hash>-gz") taşır.
+ *
+ * ETag'ler weak'tir (W/): progressive batch sırasında yazılan dersler versiyonu batch sonunda
+ * tek seferde artırdığından, bir batch süresince aynı tag farklı gövdelere karşılık gelebilir.
+ * "If-None-Match: *" sadece bu anahtar için cache'te hazır bir 200 yanıtı varsa 304 döner;
+ * aksi halde controller çalışır (404 / 202 dönebilecek istekler için yanlış 304 verilmez).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final String CACHED_PATH_PREFIX = "/api/data/";
+    private static final String SSE_PATH_PREFIX = "/api/data/degisiklikler/";
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final DataCacheService dataCacheService;
+    private final Cache<String, CachedResponse> responseCache;
+    private final boolean enabled;
+
+    public ResponseCacheFilter(DataCacheService dataCacheService,
+                               @Value("${cache.response.enabled:true}") boolean enabled,
+                               @Value("${cache.response.max-size-mb:64}") long maxSizeMb,
+                               @Value("${cache.response.ttl-minutes:30}") long ttlMinutes) {
+        this.dataCacheService = dataCacheService;
+        this.enabled = enabled;
+        this.responseCache = Caffeine.newBuilder()
+            .maximumWeight(maxSizeMb * 1024 * 1024)
+            .weigher((String key, CachedResponse value) -> value.weight())
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .build();
+    }
+
+    /**
+     * Serialize edilmiş yanıt (ham + gzip)
+     */
+    private static final class CachedResponse {
+        final byte[] raw;
+        final byte[] gzip;
+        final String contentType;
+
+        CachedResponse(byte[] raw, byte[] gzip, String contentType) {
+            this.raw = raw;
+            this.gzip = gzip;
+            this.contentType = contentType;
+        }
+
+        int weight() {
+            return raw.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // progressive-status her yanıtta anlık timestamp döner, cache'lenmez
+        // NDJSON / SSE akışları tamponlanırsa streaming'in anlamı kalmaz
+        return !path.startsWith(CACHED_PATH_PREFIX) || path.endsWith("/cache/progressive-status")
+            || path.startsWith(SSE_PATH_PREFIX) || NdjsonYazici.istendi(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        long version = dataCacheService.getSnapshotVersion();
+        String representation = request.getRequestURI()
+            + (request.getQueryString() != null ? "?" + request.getQueryString() : "")
+            + "|" + nullToEmpty(request.getHeader(HttpHeaders.ACCEPT));
+        String etagGovde = version + "-" + Integer.toHexString(representation.hashCode());
+        String etag = "W/\"" + etagGovde + "\"";
+        String gzipEtag = "W/\"" + etagGovde + "-gz\"";
+        String cacheKey = version + "|" + representation;
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // 1. Koşullu istek: istemcideki kopya hâlâ geçerli
+        // Gzip'li kopyanın tag'i sadece gzip kabul eden istemci için geçerlidir
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        String eslesen = etagMatches(ifNoneMatch, etag) ? etag
+            : acceptsGzip(request) && etagMatches(ifNoneMatch, gzipEtag) ? gzipEtag : null;
+        CachedResponse cached = responseCache.getIfPresent(cacheKey);
+        if (eslesen == null && cached != null && herhangiBiri(ifNoneMatch)) {
+            // "*": sadece gerçekten var olan (cache'lenmiş 200) temsil için
+            eslesen = cached.gzip != null && acceptsGzip(request) ? gzipEtag : etag;
+        }
+        if (eslesen != null) {
+            response.setHeader(HttpHeaders.ETAG, eslesen);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 2. Cache'te hazır yanıt varsa doğrudan yaz
+        if (cached != null) {
+            write(request, response, cached, etag, gzipEtag);
+            return;
+        }
+
+        // 3. Controller'ı çalıştır, yanıtı yakala
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        // Sadece başarılı ve işlem sırasında versiyonu değişmemiş yanıtlar cache'lenir
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                || wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                || dataCacheService.getSnapshotVersion() != version) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] raw = wrapper.getContentAsByteArray();
+        CachedResponse yeni = new CachedResponse(raw, raw.length >= GZIP_MIN_BYTES ? gzip(raw) : null,
+            wrapper.getContentType());
+        responseCache.put(cacheKey, yeni);
+
+        write(request, response, yeni, etag, gzipEtag);
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached,
+                       String etag, String gzipEtag) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (cached.contentType != null) {
+            response.setContentType(cached.contentType);
+        }
+
+        byte[] body = cached.raw;
+        if (cached.gzip != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setHeader(HttpHeaders.ETAG, gzipEtag);
+            body = cached.gzip;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+
+    /**
+     * If-None-Match zayıf karşılaştırma ile (W/ önekleri yok sayılır)
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String beklenen = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (opaqueTag(candidate.trim()).equals(beklenen)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean herhangiBiri(String ifNoneMatch) {
+        return ifNoneMatch != null && ifNoneMatch.trim().equals("*");
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            logger.debug("Gzip sıkıştırma hatası: {}", e.getMessage());
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -29,12 +29,13 @@ public class SimpleCorsFilter implements Filter {
         HttpServletResponse response = (HttpServletResponse) res;
         HttpServletRequest request = (HttpServletRequest) req;
 
-        String origin = request.getHeader("Origin");
         String requestMethod = request.getMethod();
-        String requestURI = request.getRequestURI();
 
-        logger.info("CORS Filter - Method: {}, Origin: {}, Path: {}",
-                    requestMethod, origin, requestURI);
+        // İstek başına loglama sadece debug seviyesinde (erişim logu AccessLogFilter'da, örneklemeli)
+        if (logger.isDebugEnabled()) {
+            logger.debug("CORS Filter - Method: {}, Origin: {}, Path: {}",
+                        requestMethod, request.getHeader("Origin"), request.getRequestURI());
+        }
 
         // CORS header'larını ekle - MUTLAKA bu sırayla
         response.addHeader("Access-Control-Allow-Origin", "http://193.140.136.26:8084 http://193.140.136.26 https://193.140.136.26:8084 https://193.140.136.26 *");
@@ -43,21 +44,17 @@ public class SimpleCorsFilter implements Filter {
         response.addHeader("Access-Control-Expose-Headers", "Content-Type, Content-Length, Authorization, X-Total-Count");
         response.addHeader("Access-Control-Max-Age", "3600");
 
-        logger.info("CORS Headers added for: {}", requestURI);
-
         // OPTIONS isteği için hemen yanıt dön
         if ("OPTIONS".equalsIgnoreCase(requestMethod)) {
             response.setStatus(HttpServletResponse.SC_OK);
             response.setContentType("text/plain");
             response.setContentLength(0);
-            logger.info("CORS Preflight handled - Returning 200 OK for: {}", requestURI);
+            logger.debug("CORS Preflight handled - Returning 200 OK");
             return;
         }
 
         // Diğer istekleri devam ettir
         chain.doFilter(req, res);
-
-        logger.info("CORS Filter completed for: {}", requestURI);
     }
 
     @Override
@@ -0,0 +1,25 @@
+package com.prolizwebservices.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Toplu sorgu isteği: tek HTTP çağrısında birden fazla id çözülür
+ */
+@Schema(description = "Toplu (batch) sorgu isteği")
+public class BatchLookupRequest {
+
+    @Schema(description = "Çözülecek id listesi (ders: dersHarId, öğretim elemanı: TC, öğrenci: öğrenci no)",
+            example = "[\"2838793\", \"2838794\"]")
+    private List<String> ids;
+
+    public BatchLookupRequest() {}
+
+    public BatchLookupRequest(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getIds() { return ids; }
+    public void setIds(List<String> ids) { this.ids = ids; }
+}
@@ -0,0 +1,89 @@
+package com.prolizwebservices.model;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.prolizwebservices.util.TurkceMetin;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Aktif öğrenci verisinden türetilen normalize danışman kaydı
+ *
+ * Danışman kimliği unvan + ad + soyad'dır (Türkçe küçük harfe katlanmış).
+ * Öğrenciler, yüklendikleri snapshot'taki sıra numaraları (posting list) ile tutulur;
+ * fakülte/bölüm/sınıf dağılımları yükleme sırasında bir kez hesaplanır.
+ */
+@Schema(description = "Danışman (advisor) özeti")
+public class Danisman {
+
+    @Schema(description = "Danışman unvanı", example = "Dr. Öğr. Üyesi")
+    private final String unvan;
+
+    @Schema(description = "Danışman adı", example = "Mehmet")
+    private final String ad;
+
+    @Schema(description = "Danışman soyadı", example = "Kaya")
+    private final String soyad;
+
+    private final String anahtar;
+    private final String aramaAdSoyad;
+    private final int[] ogrenciIdleri;
+    private final Map<String, Long> fakulteDagilimi;
+    private final Map<String, Long> bolumDagilimi;
+    private final Map<String, Long> sinifDagilimi;
+
+    public Danisman(String unvan, String ad, String soyad, int[] ogrenciIdleri,
+                    Map<String, Long> fakulteDagilimi, Map<String, Long> bolumDagilimi,
+                    Map<String, Long> sinifDagilimi) {
+        this.unvan = unvan;
+        this.ad = ad;
+        this.soyad = soyad;
+        this.anahtar = anahtarOlustur(unvan, ad, soyad);
+        this.aramaAdSoyad = TurkceMetin.katla(nullToEmpty(ad) + " " + nullToEmpty(soyad));
+        this.ogrenciIdleri = ogrenciIdleri;
+        this.fakulteDagilimi = fakulteDagilimi;
+        this.bolumDagilimi = bolumDagilimi;
+        this.sinifDagilimi = sinifDagilimi;
+    }
+
+    /**
+     * unvan|ad|soyad üçlüsünün katlanmış kimlik anahtarı
+     */
+    public static String anahtarOlustur(String unvan, String ad, String soyad) {
+        return TurkceMetin.katla(unvan) + "|" + TurkceMetin.katla(ad) + "|" + TurkceMetin.katla(soyad);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    public String getUnvan() { return unvan; }
+
+    public String getAd() { return ad; }
+
+    public String getSoyad() { return soyad; }
+
+    public String getAdSoyad() {
+        return (nullToEmpty(ad) + " " + nullToEmpty(soyad)).trim();
+    }
+
+    public int getOgrenciSayisi() { return ogrenciIdleri.length; }
+
+    public Map<String, Long> getFakulteDagilimi() { return fakulteDagilimi; }
+
+    public Map<String, Long> getBolumDagilimi() { return bolumDagilimi; }
+
+    public Map<String, Long> getSinifDagilimi() { return sinifDagilimi; }
+
+    @JsonIgnore
+    public String getAnahtar() { return anahtar; }
+
+    /** Katlanmış "ad soyad" (arama için) */
+    @JsonIgnore
+    public String getAramaAdSoyad() { return aramaAdSoyad; }
+
+    /** Snapshot içindeki öğrenci sıra numaraları */
+    @JsonIgnore
+    public int[] getOgrenciIdleri() { return ogrenciIdleri; }
+}
@@ -0,0 +1,112 @@
+package com.prolizwebservices.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Öğrenci bazında önceden hesaplanmış ders özetleri
+ *
+ * Ders listesi her değiştiğinde (ders öğrencileri yüklendiğinde) yeniden oluşturulur,
+ * /ogrenci/{no}/detay isteği sırasında hiçbir hesaplama yapılmaz.
+ * Immutable - oluşturulduktan sonra değişmez.
+ */
+public class OgrenciProfili {
+
+    private final String ogrNo;
+    private final List<String> dersHarIdleri;
+    private final double toplamKredi;
+    private final double toplamAkts;
+    private final Map<String, Long> donemBazinda;
+    private final Map<String, Long> fakulteBazinda;
+    private final Map<String, Long> bolumBazinda;
+    private final List<String> ogretimElemaniTCleri;
+
+    private OgrenciProfili(String ogrNo, List<String> dersHarIdleri, double toplamKredi, double toplamAkts,
+                           Map<String, Long> donemBazinda, Map<String, Long> fakulteBazinda,
+                           Map<String, Long> bolumBazinda, List<String> ogretimElemaniTCleri) {
+        this.ogrNo = ogrNo;
+        this.dersHarIdleri = dersHarIdleri;
+        this.toplamKredi = toplamKredi;
+        this.toplamAkts = toplamAkts;
+        this.donemBazinda = donemBazinda;
+        this.fakulteBazinda = fakulteBazinda;
+        this.bolumBazinda = bolumBazinda;
+        this.ogretimElemaniTCleri = ogretimElemaniTCleri;
+    }
+
+    /**
+     * Öğrencinin ders listesinden profili oluşturur (aynı ders birden fazla gelirse bir kez sayılır)
+     *
+     * @param toplamKredi katalogdan hesaplanmış kredi toplamı
+     * @param toplamAkts  katalogdan hesaplanmış AKTS toplamı
+     */
+    public static OgrenciProfili olustur(String ogrNo, List<Ders> dersler, double toplamKredi, double toplamAkts) {
+        Set<String> dersHarIdleri = new LinkedHashSet<>();
+        Set<String> ogretimElemaniTCleri = new LinkedHashSet<>();
+        Map<String, Long> donemBazinda = new TreeMap<>();
+        Map<String, Long> fakulteBazinda = new TreeMap<>();
+        Map<String, Long> bolumBazinda = new TreeMap<>();
+
+        for (Ders ders : dersler) {
+            if (!dersHarIdleri.add(ders.getDersHarId())) {
+                continue;
+            }
+            if (ders.getDonemAd() != null) {
+                donemBazinda.merge(ders.getDonemAd(), 1L, Long::sum);
+            }
+            if (ders.getFakAd() != null) {
+                fakulteBazinda.merge(ders.getFakAd(), 1L, Long::sum);
+            }
+            if (ders.getBolAd() != null) {
+                bolumBazinda.merge(ders.getBolAd(), 1L, Long::sum);
+            }
+            if (ders.getOgretimElemaniTC() != null) {
+                ogretimElemaniTCleri.add(ders.getOgretimElemaniTC());
+            }
+        }
+
+        return new OgrenciProfili(
+            ogrNo,
+            List.copyOf(dersHarIdleri),
+            toplamKredi,
+            toplamAkts,
+            Collections.unmodifiableMap(new LinkedHashMap<>(donemBazinda)),
+            Collections.unmodifiableMap(new LinkedHashMap<>(fakulteBazinda)),
+            Collections.unmodifiableMap(new LinkedHashMap<>(bolumBazinda)),
+            List.copyOf(ogretimElemaniTCleri)
+        );
+    }
+
+    public String getOgrNo() { return ogrNo; }
+
+    public List<String> getDersHarIdleri() { return dersHarIdleri; }
+
+    public int getDersSayisi() { return dersHarIdleri.size(); }
+
+    public double getToplamKredi() { return toplamKredi; }
+
+    public double getToplamAkts() { return toplamAkts; }
+
+    public Map<String, Long> getDonemBazinda() { return donemBazinda; }
+
+    public Map<String, Long> getFakulteBazinda() { return fakulteBazinda; }
+
+    public Map<String, Long> getBolumBazinda() { return bolumBazinda; }
+
+    public List<String> getOgretimElemaniTCleri() { return ogretimElemaniTCleri; }
+
+    @Override
+    public String toString() {
+        return "OgrenciProfili{" +
+                "ogrNo='" + ogrNo + '\'' +
+                ", dersSayisi=" + dersHarIdleri.size() +
+                ", toplamKredi=" + toplamKredi +
+                ", toplamAkts=" + toplamAkts +
+                '}';
+    }
+}
@@ -0,0 +1,22 @@
+package com.prolizwebservices.model.notification;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Status of an asynchronous notification send job (outbox entry)
+ */
+@Data
+public class NotificationJobStatus {
+    private String jobId;
+    private String status; // PENDING, PROCESSING, COMPLETED, FAILED
+    private String recipientType;
+    private String lessonId;
+    private int attempts;
+    private Integer sentCount;
+    private Integer failedCount;
+    private String message;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
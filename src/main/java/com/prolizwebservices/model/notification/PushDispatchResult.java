@@ -0,0 +1,20 @@
+package com.prolizwebservices.model.notification;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated result of a chunked Expo push dispatch
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PushDispatchResult {
+    private int sentCount;
+    private int failedCount;
+    private int chunkCount;
+    private List<PushTicketResult> tickets;
+}
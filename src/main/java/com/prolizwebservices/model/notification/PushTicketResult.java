@@ -0,0 +1,21 @@
+package com.prolizwebservices.model.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-message result (push ticket) returned by Expo for a single token
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PushTicketResult {
+    private String token;
+    private boolean ok;
+    /** Expo ticket id (only for ok tickets, used later to fetch the receipt) */
+    private String ticketId;
+    /** Expo error code, e.g. DeviceNotRegistered, MessageRateExceeded, HTTP_500 */
+    private String error;
+    private String message;
+}
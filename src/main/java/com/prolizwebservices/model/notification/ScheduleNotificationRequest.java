@@ -0,0 +1,15 @@
+package com.prolizwebservices.model.notification;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import java.time.LocalDateTime;
+
+/**
+ * Request model for scheduling a notification
+ * Same fields as SendNotificationRequest; recipientType selects the send mode (all, class, individual, targeted)
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ScheduleNotificationRequest extends SendNotificationRequest {
+    private LocalDateTime sendAt; // server local time
+}
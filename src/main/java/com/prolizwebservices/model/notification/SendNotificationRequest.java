@@ -12,9 +12,15 @@ public class SendNotificationRequest {
     private String title;
     private String body;
     private Map<String, Object> data;
-    private String recipientType; // all, class, individual
+    private String recipientType; // all, class, individual, targeted
     private String lessonId;
     private String classId;
     private List<String> studentIds;
     private String academicId;
+    
+    // Targeted sends: every given criterion narrows the lesson set, classId filters students
+    private List<String> lessonIds;
+    private String faculty;
+    private String department;
+    private String instructorId; // Sicil No
 }
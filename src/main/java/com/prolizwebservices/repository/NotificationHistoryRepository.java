@@ -4,8 +4,13 @@ import com.prolizwebservices.entity.NotificationHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,4 +24,55 @@ public interface NotificationHistoryRepository extends JpaRepository<Notificatio
     Page<NotificationHistory> findByAcademicIdOrderByCreatedAtDesc(String academicId, Pageable pageable);
     
     List<NotificationHistory> findByLessonIdOrderByCreatedAtDesc(String lessonId);
+    
+    // Keyset paging on (academic_id, [lesson_id,] created_at, id) - first page, then rows after the cursor
+    
+    List<NotificationHistory> findByAcademicIdOrderByCreatedAtDescIdDesc(String academicId, Pageable pageable);
+    
+    List<NotificationHistory> findByAcademicIdAndLessonIdOrderByCreatedAtDescIdDesc(
+        String academicId, String lessonId, Pageable pageable);
+    
+    @Query("SELECT h FROM NotificationHistory h WHERE h.academicId = :academicId " +
+           "AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.id < :id)) " +
+           "ORDER BY h.createdAt DESC, h.id DESC")
+    List<NotificationHistory> findPageAfter(@Param("academicId") String academicId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+    
+    @Query("SELECT h FROM NotificationHistory h WHERE h.academicId = :academicId AND h.lessonId = :lessonId " +
+           "AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.id < :id)) " +
+           "ORDER BY h.createdAt DESC, h.id DESC")
+    List<NotificationHistory> findLessonPageAfter(@Param("academicId") String academicId,
+                                                  @Param("lessonId") String lessonId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+    
+    /**
+     * Per-day totals since a date: [day, notifications, recipients, sent, failed, delivered, undelivered]
+     */
+    @Query(value = "SELECT CAST(created_at AS DATE) AS stat_day, COUNT(*), " +
+           "SUM(recipient_count), SUM(sent_count), SUM(failed_count), SUM(delivered_count), SUM(undelivered_count) " +
+           "FROM notification_history WHERE academic_id = :academicId AND created_at >= :since " +
+           "GROUP BY CAST(created_at AS DATE) ORDER BY stat_day", nativeQuery = true)
+    List<Object[]> dailyStats(@Param("academicId") String academicId, @Param("since") LocalDateTime since);
+    
+    @Query(value = "SELECT CAST(created_at AS DATE) AS stat_day, COUNT(*), " +
+           "SUM(recipient_count), SUM(sent_count), SUM(failed_count), SUM(delivered_count), SUM(undelivered_count) " +
+           "FROM notification_history WHERE academic_id = :academicId AND lesson_id = :lessonId AND created_at >= :since " +
+           "GROUP BY CAST(created_at AS DATE) ORDER BY stat_day", nativeQuery = true)
+    List<Object[]> dailyLessonStats(@Param("academicId") String academicId, @Param("lessonId") String lessonId,
+                                    @Param("since") LocalDateTime since);
+    
+    /**
+     * Add receipt outcomes to a history row
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationHistory h SET " +
+           "h.deliveredCount = COALESCE(h.deliveredCount, 0) + :delivered, " +
+           "h.undeliveredCount = COALESCE(h.undeliveredCount, 0) + :undelivered " +
+           "WHERE h.id = :id")
+    int addDeliveryCounts(@Param("id") Long id, @Param("delivered") int delivered, @Param("undelivered") int undelivered);
 }
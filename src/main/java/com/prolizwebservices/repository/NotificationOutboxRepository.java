@@ -0,0 +1,81 @@
+package com.prolizwebservices.repository;
+
+import com.prolizwebservices.entity.NotificationOutbox;
+import com.prolizwebservices.entity.NotificationOutbox.Status;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for NotificationOutbox entity
+ */
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    
+    Optional<NotificationOutbox> findByJobId(String jobId);
+    
+    /**
+     * Lock due jobs for claiming. Lock timeout -2 is rendered by Hibernate as
+     * SELECT ... FOR UPDATE SKIP LOCKED (MariaDB 10.6+, MySQL 8, PostgreSQL),
+     * so concurrent workers and instances never claim the same row.
+     * Must be called inside a transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = :status AND o.nextAttemptAt <= :now ORDER BY o.id")
+    List<NotificationOutbox> findClaimable(@Param("status") Status status,
+                                           @Param("now") LocalDateTime now,
+                                           Pageable pageable);
+    
+    /**
+     * Lock one job row for a conditional update (caller checks the lease)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.id = :id")
+    Optional<NotificationOutbox> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Extend the lease of a job still held by the given claim
+     *
+     * @return 0 if the lease was lost (released as stale and possibly re-claimed)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.lockedAt = :now " +
+           "WHERE o.id = :id AND o.status = :processing AND o.lockedBy = :lockedBy")
+    int renewLease(@Param("id") Long id,
+                   @Param("lockedBy") String lockedBy,
+                   @Param("processing") Status processing,
+                   @Param("now") LocalDateTime now);
+    
+    /**
+     * Return jobs left in PROCESSING by a crashed worker to the queue
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutbox o SET o.status = :pending, o.lockedBy = null, o.lockedAt = null " +
+           "WHERE o.status = :processing AND o.lockedAt < :cutoff")
+    int releaseStale(@Param("pending") Status pending,
+                     @Param("processing") Status processing,
+                     @Param("cutoff") LocalDateTime cutoff);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status IN :statuses AND o.completedAt < :cutoff")
+    int deleteFinishedBefore(@Param("statuses") Collection<Status> statuses, @Param("cutoff") LocalDateTime cutoff);
+    
+    long countByStatus(Status status);
+}
@@ -3,8 +3,13 @@ package com.prolizwebservices.repository;
 import com.prolizwebservices.entity.NotificationToken;
 import com.prolizwebservices.entity.NotificationToken.UserType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,5 +33,19 @@ public interface NotificationTokenRepository extends JpaRepository<NotificationT
     
     void deleteByToken(String token);
     
+    /**
+     * Bulk delete (single statement) for tokens reported invalid by Expo
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationToken t WHERE t.token IN :tokens")
+    int deleteByTokenIn(@Param("tokens") Collection<String> tokens);
+    
     List<NotificationToken> findByUserType(UserType userType);
+    
+    /**
+     * All tokens as (userId, userType, token) rows - used to (re)load the in-memory token registry
+     */
+    @Query("SELECT t.userId, t.userType, t.token FROM NotificationToken t")
+    List<Object[]> findAllTokenRows();
 }
@@ -0,0 +1,21 @@
+package com.prolizwebservices.repository;
+
+import com.prolizwebservices.entity.PushTicket;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for PushTicket entity
+ */
+@Repository
+public interface PushTicketRepository extends JpaRepository<PushTicket, Long> {
+    
+    /**
+     * Next page (by id) of tickets old enough for Expo to have a receipt
+     */
+    List<PushTicket> findByCreatedAtBeforeAndIdGreaterThanOrderByIdAsc(LocalDateTime cutoff, Long afterId, Pageable pageable);
+}
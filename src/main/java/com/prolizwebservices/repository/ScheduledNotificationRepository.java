@@ -0,0 +1,57 @@
+package com.prolizwebservices.repository;
+
+import com.prolizwebservices.entity.ScheduledNotification;
+import com.prolizwebservices.entity.ScheduledNotification.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for ScheduledNotification entity
+ */
+@Repository
+public interface ScheduledNotificationRepository extends JpaRepository<ScheduledNotification, Long> {
+    
+    Optional<ScheduledNotification> findByScheduleId(String scheduleId);
+    
+    List<ScheduledNotification> findByAcademicIdAndStatusOrderBySendAtAsc(String academicId, Status status, Pageable pageable);
+    
+    /**
+     * (id, sendAt) of schedules due before the horizon - only keys are loaded into the timing wheel
+     */
+    @Query("SELECT s.id, s.sendAt FROM ScheduledNotification s WHERE s.status = :status AND s.sendAt < :horizon")
+    List<Object[]> findDueKeys(@Param("status") Status status, @Param("horizon") LocalDateTime horizon);
+    
+    /**
+     * Conditional transition; 0 means another instance fired or the schedule was cancelled
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScheduledNotification s SET s.status = :queued, s.jobId = :jobId, s.queuedAt = :now " +
+           "WHERE s.id = :id AND s.status = :scheduled")
+    int markQueued(@Param("id") Long id, @Param("jobId") String jobId, @Param("now") LocalDateTime now,
+                   @Param("scheduled") Status scheduled, @Param("queued") Status queued);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScheduledNotification s SET s.status = :target, s.lastError = :error " +
+           "WHERE s.id = :id AND s.status = :scheduled")
+    int markFinished(@Param("id") Long id, @Param("error") String error,
+                     @Param("scheduled") Status scheduled, @Param("target") Status target);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ScheduledNotification s WHERE s.status IN :statuses AND s.sendAt < :cutoff")
+    int deleteFinishedBefore(@Param("statuses") Collection<Status> statuses, @Param("cutoff") LocalDateTime cutoff);
+    
+    long countByStatus(Status status);
+}
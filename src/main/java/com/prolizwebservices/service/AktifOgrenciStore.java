@@ -0,0 +1,427 @@
+package com.prolizwebservices.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.prolizwebservices.client.GauExtWebServiceClient;
+import com.prolizwebservices.model.AktifOgrenci;
+import com.prolizwebservices.model.Danisman;
+import com.prolizwebservices.util.TurkceMetin;
+import com.prolizwebservices.util.XmlParser;
+
+/**
+ * AktifOgrenciListesiGetir veri seti için yerel, index'li depo
+ *
+ * Tüm aktif öğrenci listesi yenileme başına bir kez çekilip parse edilir
+ * (~48 alan/öğrenci) ve öğrenci no, TC, danışman, fakülte, bölüm, sınıf
+ * bazında index'lenir. Endpoint'ler her istekte SOAP yanıtını yeniden
+ * parse etmek yerine bu index'lerden cevap verir.
+ *
+ * Danışmanlar normalize edilir (unvan+ad+soyad, Türkçe katlama) ve öğrenci
+ * posting list'i + hazır fakülte/bölüm/sınıf dağılımları ile tutulur. Ad, soyad ve
+ * tam ad aramaları katlanmış isim kelimeleriyle anahtarlanan sıralı map'lerde önek
+ * aramasıdır (subMap), danışman listesi taranmaz.
+ *
+ * İlk erişimde yüklenir; sonrasında periyodik olarak arka planda yenilenir.
+ * Her yükleme yeni bir immutable snapshot oluşturur ve tek atamayla yayınlar.
+ */
+@Service
+public class AktifOgrenciStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AktifOgrenciStore.class);
+
+    private final GauExtWebServiceClient webServiceClient;
+    private final XmlParser xmlParser;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public AktifOgrenciStore(GauExtWebServiceClient webServiceClient, XmlParser xmlParser) {
+        this.webServiceClient = webServiceClient;
+        this.xmlParser = xmlParser;
+    }
+
+    /**
+     * Bir yüklemenin index'lenmiş, değişmez kopyası
+     */
+    private static final class Snapshot {
+        final List<AktifOgrenci> ogrenciler;
+        final Map<String, AktifOgrenci> ogrenciNoIndex;
+        final Map<String, AktifOgrenci> tcKimlikIndex;
+        final List<Danisman> danismanlar;
+        final NavigableMap<String, List<Danisman>> danismanOnekIndex;
+        final NavigableMap<String, List<Danisman>> danismanAdIndex;
+        final NavigableMap<String, List<Danisman>> danismanSoyadIndex;
+        final Map<String, List<AktifOgrenci>> fakulteIndex;
+        final Map<String, List<AktifOgrenci>> bolumIndex;
+        final Map<String, List<AktifOgrenci>> sinifIndex;
+        final LocalDateTime yuklenmeZamani;
+        final long yuklemeSuresiMs;
+
+        Snapshot(List<AktifOgrenci> ogrenciler, long yuklemeSuresiMs) {
+            this.ogrenciler = Collections.unmodifiableList(ogrenciler);
+            this.ogrenciNoIndex = tekilIndex(ogrenciler, AktifOgrenci::getOgrenciNo);
+            this.tcKimlikIndex = tekilIndex(ogrenciler, AktifOgrenci::getTcKimlikNo);
+            this.danismanlar = danismanlariOlustur(ogrenciler);
+            this.danismanOnekIndex = kelimeIndexOlustur(danismanlar, Danisman::getAramaAdSoyad);
+            this.danismanAdIndex = kelimeIndexOlustur(danismanlar, d -> TurkceMetin.katla(d.getAd()));
+            this.danismanSoyadIndex = kelimeIndexOlustur(danismanlar, d -> TurkceMetin.katla(d.getSoyad()));
+            this.fakulteIndex = grupIndex(ogrenciler, o -> anahtar(o.getFakulteAd()));
+            this.bolumIndex = grupIndex(ogrenciler, o -> anahtar(o.getBolumAd()));
+            this.sinifIndex = grupIndex(ogrenciler, o -> anahtar(o.getSinif()));
+            this.yuklenmeZamani = LocalDateTime.now();
+            this.yuklemeSuresiMs = yuklemeSuresiMs;
+        }
+    }
+
+    // ============================================
+    // Yükleme / Yenileme
+    // ============================================
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = yukle();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Veri setini SOAP'tan (HybridCache üzerinden) çeker, parse eder ve index'ler
+     */
+    private Snapshot yukle() {
+        long start = System.nanoTime();
+        String xmlResult = webServiceClient.getAktifOgrenciListesi(null, null);
+        List<AktifOgrenci> ogrenciler = xmlParser.parseAktifOgrenciler(xmlResult);
+
+        Snapshot yeni = new Snapshot(new ArrayList<>(ogrenciler),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        snapshot = yeni;
+
+        logger.info("✅ Aktif öğrenci deposu yüklendi: {} öğrenci, {} danışman, {} ms",
+            yeni.ogrenciler.size(), yeni.danismanlar.size(), yeni.yuklemeSuresiMs);
+        return yeni;
+    }
+
+    /**
+     * Daha önce yüklendiyse veri setini arka planda yeniler
+     * (hata durumunda mevcut snapshot kullanılmaya devam eder)
+     */
+    @Scheduled(fixedRateString = "${cache.aktif-ogrenci.refresh-minutes:60}",
+               initialDelayString = "${cache.aktif-ogrenci.refresh-minutes:60}",
+               timeUnit = TimeUnit.MINUTES)
+    public void yenile() {
+        if (snapshot == null) {
+            return; // Hiç kullanılmadı, ilk erişimde yüklenecek
+        }
+        try {
+            yukle();
+        } catch (Exception e) {
+            logger.warn("Aktif öğrenci deposu yenilenemedi, eski veri kullanılıyor: {}", e.getMessage());
+        }
+    }
+
+    // ============================================
+    // Sorgular
+    // ============================================
+
+    public List<AktifOgrenci> getAll() {
+        return snapshot().ogrenciler;
+    }
+
+    public AktifOgrenci getByOgrenciNo(String ogrenciNo) {
+        return ogrenciNo != null ? snapshot().ogrenciNoIndex.get(ogrenciNo.trim()) : null;
+    }
+
+    public AktifOgrenci getByTcKimlik(String tcKimlikNo) {
+        return tcKimlikNo != null ? snapshot().tcKimlikIndex.get(tcKimlikNo.trim()) : null;
+    }
+
+    /**
+     * Fakülte / bölüm / sınıf filtrelerine uyan öğrenciler (Türkçe büyük/küçük harf duyarsız, tam eşleşme)
+     * Boş filtreler yok sayılır; en küçük index listesinden başlanır, diğer filtreler o liste üzerinde uygulanır
+     */
+    public List<AktifOgrenci> filtrele(String fakulteAd, String bolumAd, String sinif) {
+        Snapshot current = snapshot();
+        List<AktifOgrenci> aday = current.ogrenciler;
+        boolean filtreVar = false;
+        for (List<AktifOgrenci> liste : Arrays.asList(
+                indexListesi(current.fakulteIndex, fakulteAd),
+                indexListesi(current.bolumIndex, bolumAd),
+                indexListesi(current.sinifIndex, sinif))) {
+            if (liste != null && (!filtreVar || liste.size() < aday.size())) {
+                aday = liste;
+                filtreVar = true;
+            }
+        }
+        if (!filtreVar) {
+            return aday;
+        }
+
+        List<AktifOgrenci> sonuc = new ArrayList<>();
+        for (AktifOgrenci ogrenci : aday) {
+            if (eslesir(ogrenci, fakulteAd, bolumAd, sinif)) {
+                sonuc.add(ogrenci);
+            }
+        }
+        return sonuc;
+    }
+
+    /**
+     * Öğrenci verilen fakülte / bölüm / sınıf filtrelerine uyuyor mu (boş filtre her zaman uyar)
+     */
+    public static boolean eslesir(AktifOgrenci ogrenci, String fakulteAd, String bolumAd, String sinif) {
+        return alanEslesir(ogrenci.getFakulteAd(), fakulteAd)
+            && alanEslesir(ogrenci.getBolumAd(), bolumAd)
+            && alanEslesir(ogrenci.getSinif(), sinif);
+    }
+
+    /**
+     * Ad / soyad / tam ad aramasına uyan danışmanları ve öğrencilerini döndürür
+     * Her parametre isim kelimelerinden birinin önekiyle eşleşir (Türkçe büyük/küçük harf duyarsız);
+     * tam ad verilirse ad ve soyad yok sayılır, ad ve soyad birlikte verilirse ikisi de eşleşmeli.
+     * Dağılımlar önceden hesaplanmış danışman histogramlarının toplamıdır (aynı snapshot üzerinden)
+     */
+    public DanismanSonucu danismanAra(String ad, String soyad, String adSoyad) {
+        Snapshot current = snapshot();
+        DanismanSonucu sonuc = new DanismanSonucu();
+        for (Danisman danisman : eslesenDanismanlar(current, ad, soyad, adSoyad)) {
+            sonuc.danismanlar.add(danisman);
+            for (int id : danisman.getOgrenciIdleri()) {
+                sonuc.ogrenciler.add(current.ogrenciler.get(id));
+            }
+            danisman.getFakulteDagilimi().forEach((k, v) -> sonuc.fakulteDagilimi.merge(k, v, Long::sum));
+            danisman.getBolumDagilimi().forEach((k, v) -> sonuc.bolumDagilimi.merge(k, v, Long::sum));
+            danisman.getSinifDagilimi().forEach((k, v) -> sonuc.sinifDagilimi.merge(k, v, Long::sum));
+        }
+        return sonuc;
+    }
+
+    /**
+     * Eşleşen danışmanların öğrencilerini liste oluşturmadan sırayla iletir (streaming export için)
+     */
+    public void forEachDanismanOgrencisi(String ad, String soyad, String adSoyad, Consumer<AktifOgrenci> consumer) {
+        Snapshot current = snapshot();
+        for (Danisman danisman : eslesenDanismanlar(current, ad, soyad, adSoyad)) {
+            for (int id : danisman.getOgrenciIdleri()) {
+                consumer.accept(current.ogrenciler.get(id));
+            }
+        }
+    }
+
+    /**
+     * Ad soyad veya isim kelimelerinden biriyle başlayan danışmanları arar (Türkçe büyük/küçük harf duyarsız)
+     */
+    public List<Danisman> danismanOnekAra(String onek, int limit) {
+        String anahtar = TurkceMetin.katla(onek);
+        Set<Danisman> sonuc = new LinkedHashSet<>();
+        if (anahtar.isEmpty()) {
+            return new ArrayList<>();
+        }
+        for (List<Danisman> grup : snapshot().danismanOnekIndex.subMap(anahtar, true, anahtar + Character.MAX_VALUE, true).values()) {
+            for (Danisman danisman : grup) {
+                sonuc.add(danisman);
+                if (sonuc.size() >= limit) {
+                    return new ArrayList<>(sonuc);
+                }
+            }
+        }
+        return new ArrayList<>(sonuc);
+    }
+
+    /**
+     * Danışman sorgusu sonucu: eşleşen danışmanlar, öğrencileri ve birleşik dağılımlar
+     */
+    public static final class DanismanSonucu {
+        private final List<Danisman> danismanlar = new ArrayList<>();
+        private final List<AktifOgrenci> ogrenciler = new ArrayList<>();
+        private final Map<String, Long> fakulteDagilimi = new HashMap<>();
+        private final Map<String, Long> bolumDagilimi = new HashMap<>();
+        private final Map<String, Long> sinifDagilimi = new HashMap<>();
+
+        public List<Danisman> getDanismanlar() { return danismanlar; }
+
+        public List<AktifOgrenci> getOgrenciler() { return ogrenciler; }
+
+        public Map<String, Long> getFakulteDagilimi() { return fakulteDagilimi; }
+
+        public Map<String, Long> getBolumDagilimi() { return bolumDagilimi; }
+
+        public Map<String, Long> getSinifDagilimi() { return sinifDagilimi; }
+    }
+
+    /**
+     * Depo istatistikleri (monitoring için)
+     */
+    public Map<String, Object> getIstatistikler() {
+        Map<String, Object> stats = new HashMap<>();
+        Snapshot current = snapshot;
+        stats.put("loaded", current != null);
+        if (current != null) {
+            stats.put("ogrenciSayisi", current.ogrenciler.size());
+            stats.put("danismanSayisi", current.danismanlar.size());
+            stats.put("fakulteSayisi", current.fakulteIndex.size());
+            stats.put("bolumSayisi", current.bolumIndex.size());
+            stats.put("yuklenmeZamani", current.yuklenmeZamani);
+            stats.put("yuklemeSuresiMs", current.yuklemeSuresiMs);
+        }
+        return stats;
+    }
+
+    // ============================================
+    // Yardımcılar
+    // ============================================
+
+    /**
+     * Öğrencileri unvan+ad+soyad kimliğine göre gruplayıp danışman kayıtlarını oluşturur
+     */
+    private static List<Danisman> danismanlariOlustur(List<AktifOgrenci> ogrenciler) {
+        Map<String, List<Integer>> gruplar = new LinkedHashMap<>();
+        for (int i = 0; i < ogrenciler.size(); i++) {
+            AktifOgrenci ogrenci = ogrenciler.get(i);
+            if (ogrenci.getDanismanAd() == null && ogrenci.getDanismanSoyad() == null) {
+                continue;
+            }
+            String key = Danisman.anahtarOlustur(ogrenci.getDanismanUnvan(), ogrenci.getDanismanAd(), ogrenci.getDanismanSoyad());
+            gruplar.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        List<Danisman> danismanlar = new ArrayList<>(gruplar.size());
+        for (List<Integer> grup : gruplar.values()) {
+            int[] ids = grup.stream().mapToInt(Integer::intValue).toArray();
+            Map<String, Long> fakulte = new HashMap<>();
+            Map<String, Long> bolum = new HashMap<>();
+            Map<String, Long> sinif = new HashMap<>();
+            for (int id : ids) {
+                AktifOgrenci ogrenci = ogrenciler.get(id);
+                if (ogrenci.getFakulteAd() != null) fakulte.merge(ogrenci.getFakulteAd(), 1L, Long::sum);
+                if (ogrenci.getBolumAd() != null) bolum.merge(ogrenci.getBolumAd(), 1L, Long::sum);
+                if (ogrenci.getSinif() != null) sinif.merge(ogrenci.getSinif(), 1L, Long::sum);
+            }
+            AktifOgrenci ilk = ogrenciler.get(ids[0]);
+            danismanlar.add(new Danisman(ilk.getDanismanUnvan(), ilk.getDanismanAd(), ilk.getDanismanSoyad(), ids,
+                Collections.unmodifiableMap(fakulte), Collections.unmodifiableMap(bolum), Collections.unmodifiableMap(sinif)));
+        }
+        return Collections.unmodifiableList(danismanlar);
+    }
+
+    /**
+     * Katlanmış ismin her kelimesinden başlayan son ekleriyle sıralı önek index'i
+     * ("ali mehmet kaya" -> "ali mehmet kaya", "mehmet kaya", "kaya")
+     */
+    private static NavigableMap<String, List<Danisman>> kelimeIndexOlustur(List<Danisman> danismanlar,
+                                                                         Function<Danisman, String> katlanmisIsim) {
+        NavigableMap<String, List<Danisman>> index = new TreeMap<>();
+        for (Danisman danisman : danismanlar) {
+            String isim = katlanmisIsim.apply(danisman).trim();
+            int bas = 0;
+            while (bas < isim.length()) {
+                index.computeIfAbsent(isim.substring(bas), k -> new ArrayList<>()).add(danisman);
+                int bosluk = isim.indexOf(' ', bas);
+                if (bosluk < 0) {
+                    break;
+                }
+                bas = bosluk + 1;
+            }
+        }
+        return Collections.unmodifiableNavigableMap(index);
+    }
+
+    /**
+     * Ad / soyad / tam ad önek aramalarının kesişimi (parametre verilmezse boş)
+     */
+    private static Collection<Danisman> eslesenDanismanlar(Snapshot current, String ad, String soyad, String adSoyad) {
+        if (!TurkceMetin.katla(adSoyad).isEmpty()) {
+            return onekEslesenler(current.danismanOnekIndex, adSoyad);
+        }
+        Set<Danisman> sonuc = null;
+        if (!TurkceMetin.katla(ad).isEmpty()) {
+            sonuc = onekEslesenler(current.danismanAdIndex, ad);
+        }
+        if (!TurkceMetin.katla(soyad).isEmpty()) {
+            Set<Danisman> soyadEslesen = onekEslesenler(current.danismanSoyadIndex, soyad);
+            if (sonuc == null) {
+                sonuc = soyadEslesen;
+            } else {
+                sonuc.retainAll(soyadEslesen);
+            }
+        }
+        return sonuc != null ? sonuc : Collections.emptySet();
+    }
+
+    private static Set<Danisman> onekEslesenler(NavigableMap<String, List<Danisman>> index, String onek) {
+        String anahtar = TurkceMetin.katla(onek);
+        Set<Danisman> sonuc = new LinkedHashSet<>();
+        for (List<Danisman> grup : index.subMap(anahtar, true, anahtar + Character.MAX_VALUE, true).values()) {
+            sonuc.addAll(grup);
+        }
+        return sonuc;
+    }
+
+    private static String anahtar(String value) {
+        return TurkceMetin.katla(value);
+    }
+
+    /**
+     * Filtre boşsa null (filtre yok), aksi halde index'teki liste (eşleşme yoksa boş)
+     */
+    private static List<AktifOgrenci> indexListesi(Map<String, List<AktifOgrenci>> index, String deger) {
+        String key = anahtar(deger);
+        return key.isEmpty() ? null : index.getOrDefault(key, Collections.emptyList());
+    }
+
+    private static boolean alanEslesir(String alan, String filtre) {
+        String key = anahtar(filtre);
+        return key.isEmpty() || key.equals(anahtar(alan));
+    }
+
+    private static Map<String, AktifOgrenci> tekilIndex(List<AktifOgrenci> ogrenciler,
+                                                        Function<AktifOgrenci, String> anahtar) {
+        Map<String, AktifOgrenci> index = new HashMap<>(Math.max(16, ogrenciler.size() * 4 / 3 + 1));
+        for (AktifOgrenci ogrenci : ogrenciler) {
+            String key = anahtar.apply(ogrenci);
+            if (key != null && !key.isBlank()) {
+                index.putIfAbsent(key.trim(), ogrenci);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, List<AktifOgrenci>> grupIndex(List<AktifOgrenci> ogrenciler,
+                                                             Function<AktifOgrenci, String> anahtar) {
+        Map<String, List<AktifOgrenci>> index = new HashMap<>();
+        for (AktifOgrenci ogrenci : ogrenciler) {
+            String key = anahtar.apply(ogrenci);
+            if (key != null && !key.isEmpty()) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(ogrenci);
+            }
+        }
+        index.replaceAll((k, liste) -> Collections.unmodifiableList(liste));
+        return Collections.unmodifiableMap(index);
+    }
+}
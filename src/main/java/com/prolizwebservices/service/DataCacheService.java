@@ -2,17 +2,29 @@ package com.prolizwebservices.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -20,15 +32,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.prolizwebservices.client.OgrenciWebServiceClient;
+import com.prolizwebservices.event.CacheIlerlemeDegisti;
+import com.prolizwebservices.event.DersKayitDegisti;
 import com.prolizwebservices.model.Ders;
 import com.prolizwebservices.model.Ogrenci;
+import com.prolizwebservices.model.OgrenciProfili;
 import com.prolizwebservices.model.OgretimElemani;
 import com.prolizwebservices.util.XmlParser;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 
 /**
@@ -52,10 +70,29 @@ public class DataCacheService {
     @Autowired(required = false)
     private ParallelDataLoader parallelDataLoader;
     
+    @Autowired
+    @Qualifier("indexBuildPool")
+    private ForkJoinPool indexBuildPool;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // 📊 Index lookup timer'ları (cache.index.lookups, index etiketi ile)
+    private Timer dersIndexTimer;
+    private Timer ogretimElemaniIndexTimer;
+    private Timer dersOgrencileriIndexTimer;
+    private Timer ogrenciDersleriIndexTimer;
+    private Timer ogrenciDersleriLazyTimer;
+    private Timer ogrenciProfiliIndexTimer;
+    
     // 🚀 NEW: Progressive Loading Configuration
     @Value("${cache.preload.initial-courses:100}")
     private int initialCoursesToLoad;
     
+    // false: başlangıçta SOAP'tan yükleme yapılmaz (benchmark gibi SOAP'sız çalıştırmalar için)
+    @Value("${cache.preload.enabled:true}")
+    private boolean preloadEnabled;
+    
     @Value("${cache.progressive.enabled:true}")
     private boolean progressiveLoadingEnabled;
     
@@ -76,31 +113,84 @@ public class DataCacheService {
     // Cache data structures
     private final List<Ders> allDersler = Collections.synchronizedList(new ArrayList<>());
     private final List<OgretimElemani> allOgretimElemanlari = Collections.synchronizedList(new ArrayList<>());
-    private final Map<String, List<Ogrenci>> dersOgrencileriMap = new ConcurrentHashMap<>();
+    // Ders-öğrenci kayıtları: sözlük kodlu, öğrenci başına tek ana kayıt
+    private final EnrollmentStore kayitDeposu = new EnrollmentStore();
 
-    // Index'ler - hızlı arama için
-    private final Map<String, Ders> dersHarIdIndex = new ConcurrentHashMap<>();
-    private final Map<String, List<Ders>> fakulteDerslerIndex = new ConcurrentHashMap<>();
-    private final Map<String, List<Ders>> programDerslerIndex = new ConcurrentHashMap<>();
-    private final Map<String, OgretimElemani> tcKimlikIndex = new ConcurrentHashMap<>();
-    private final Map<String, OgretimElemani> sicilNoIndex = new ConcurrentHashMap<>();
-    private final Map<String, List<OgretimElemani>> fakulteOgretimElemaniIndex = new ConcurrentHashMap<>();
+    // Index'ler - hızlı arama için (paralel oluşturulup tek atamayla yayınlanır)
+    private volatile Map<String, Ders> dersHarIdIndex = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Ders>> fakulteDerslerIndex = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Ders>> programDerslerIndex = new ConcurrentHashMap<>();
+    private volatile Map<String, OgretimElemani> tcKimlikIndex = new ConcurrentHashMap<>();
+    private volatile Map<String, OgretimElemani> sicilNoIndex = new ConcurrentHashMap<>();
+    private volatile Map<String, List<OgretimElemani>> fakulteOgretimElemaniIndex = new ConcurrentHashMap<>();
+    
+    // 📄 Keyset sayfalama için anahtar sıralı index'ler (dersHarId / TC, yoksa sicil)
+    private volatile NavigableMap<String, Ders> dersSiraliIndex = Collections.emptyNavigableMap();
+    private volatile NavigableMap<String, OgretimElemani> ogretimElemaniSiraliIndex = Collections.emptyNavigableMap();
+    
+    // 📊 Kolon bazlı ders kataloğu (sayısal kolonlar + BitSet filtreleri)
+    private volatile DersKatalogu dersKatalogu = DersKatalogu.bos();
     
     // 🚀 PERFORMANCE: Öğrenci bazlı ders index'i (çok hızlı arama için)
-    private final Map<String, List<Ders>> ogrenciDerslerIndex = new ConcurrentHashMap<>();
+    // Değerler immutable listelerdir; güncellemeler anahtar bazında copy-on-write (merge) ile yapılır,
+    // okuyucular kilitsiz ve her zaman tutarlı bir liste görür. Tam yeniden oluşturmada map topluca değiştirilir.
+    private volatile Map<String, List<Ders>> ogrenciDerslerIndex = new ConcurrentHashMap<>();
+    
+    // Tam yeniden oluşturma sürerken yapılan artımlı güncellemeler; yeni map yayınlanmadan önce ona uygulanır.
+    // Yazarlar read lock (birbirlerini beklemez), yayın write lock alır: yayın anında yarıda kalan yazma olmaz.
+    private volatile Queue<Map.Entry<String, List<Ders>>> bekleyenIndexGuncellemeleri;
+    private final ReentrantReadWriteLock indexYayinKilidi = new ReentrantReadWriteLock();
+    
+    // 🎓 Öğrenci profilleri: ders listesi değiştikçe güncellenen hazır özetler (detay/login için)
+    private final Map<String, OgrenciProfili> ogrenciProfilleri = new ConcurrentHashMap<>();
+
+    // ⏱️ Son initialize / index build fazlarının süreleri (ms)
+    private final Map<String, Long> fazSureleri = new ConcurrentHashMap<>();
 
     private LocalDateTime lastUpdateTime;
     private volatile boolean isInitialized = false;
+    
+    // 🔖 Veri snapshot versiyonu: cache'teki veri her değiştiğinde artar (response cache / ETag için)
+    private final AtomicLong snapshotVersion = new AtomicLong();
+
+    @Autowired
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.dersIndexTimer = indexTimer(meterRegistry, "ders", "hit");
+        this.ogretimElemaniIndexTimer = indexTimer(meterRegistry, "ogretim-elemani", "hit");
+        this.dersOgrencileriIndexTimer = indexTimer(meterRegistry, "ders-ogrencileri", "hit");
+        this.ogrenciDersleriIndexTimer = indexTimer(meterRegistry, "ogrenci-dersleri", "hit");
+        this.ogrenciDersleriLazyTimer = indexTimer(meterRegistry, "ogrenci-dersleri", "lazy");
+        this.ogrenciProfiliIndexTimer = indexTimer(meterRegistry, "ogrenci-profili", "hit");
+    }
+
+    private static Timer indexTimer(MeterRegistry meterRegistry, String index, String yol) {
+        return Timer.builder("cache.index.lookups")
+            .description("In-memory index lookup süresi")
+            .tag("index", index)
+            .tag("path", yol)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Uygulama başlarken cache'i initialize et (cache.preload.enabled=false ise atlanır)
+     */
+    @PostConstruct
+    void baslangicYuklemesi() {
+        if (!preloadEnabled) {
+            logger.info("⏭️ Başlangıç cache yüklemesi kapalı (cache.preload.enabled=false)");
+            return;
+        }
+        initializeCache();
+    }
 
     /**
-     * Uygulama başlarken cache'i initialize et
+     * Cache'i SOAP'tan yükler
      * 
      * DOĞRU SIRALAMA (Bağımlılık Zinciri):
      * 1. UzaktanEgitimDersleri (DERS_HAR_ID üretir)
      * 2. DersiVerenOgretimElamaniGetir (OGRETIM_ELEMANI_TC kullanır)
      * 3. UzaktanEgitimDersiAlanOgrencileri (DERS_HAR_ID kullanır)
      */
-    @PostConstruct
     public void initializeCache() {
         logger.info("🚀 DataCache initialize ediliyor (Bağımlılık Zinciri Sırasıyla)...");
         
@@ -108,8 +198,9 @@ public class DataCacheService {
             // ============================================
             // STEP 1: UzaktanEgitimDersleri
             // ============================================
+            long initStart = System.nanoTime();
             logger.info("📋 STEP 1/4: Dersler yükleniyor (UzaktanEgitimDersleri)...");
-            loadDersler();
+            olc("init.dersler", this::loadDersler);
             logger.info("✅ STEP 1/4: {} ders yüklendi", allDersler.size());
             
             // ============================================
@@ -122,37 +213,40 @@ public class DataCacheService {
                     .filter(tc -> tc != null && !tc.trim().isEmpty())
                     .distinct()
                     .count());
-            loadOgretimElemanlari();
+            olc("init.ogretimElemanlari", this::loadOgretimElemanlari);
             logger.info("✅ STEP 2/4: {} öğretim elemanı yüklendi", allOgretimElemanlari.size());
             
             // ============================================
             // STEP 3: Index'leri Oluştur
             // ============================================
             logger.info("🔍 STEP 3/4: Index'ler oluşturuluyor...");
-            buildIndexes();
-            logger.info("✅ STEP 3/4: Index'ler oluşturuldu");
+            olc("init.indexler", this::buildIndexes);
+            logger.info("✅ STEP 3/4: Index'ler oluşturuldu ({} ms)", fazSureleri.get("init.indexler"));
             
             // ============================================
             // STEP 4: UzaktanEgitimDersiAlanOgrencileri
             // ============================================
             logger.info("👥 STEP 4/4: Ders öğrencileri yükleniyor (UzaktanEgitimDersiAlanOgrencileri)...");
             logger.info("   → İlk {} ders için öğrenciler yüklenecek (DERS_HAR_ID kullanılarak)", initialCoursesToLoad);
-            loadSelectedDersOgrencileri();
-            logger.info("✅ STEP 4/4: {} ders için öğrenciler yüklendi", dersOgrencileriMap.size());
+            olc("init.dersOgrencileri", this::loadSelectedDersOgrencileri);
+            logger.info("✅ STEP 4/4: {} ders için öğrenciler yüklendi", kayitDeposu.dersSayisi());
             
             // ============================================
             // Tamamlandı
             // ============================================
             lastUpdateTime = LocalDateTime.now();
             isInitialized = true;
+            versiyonArtir();
             
             logger.info("🎉 DataCache initialize tamamlandı!");
             logger.info("   📊 Özet:");
             logger.info("      - Dersler: {}", allDersler.size());
             logger.info("      - Öğretim Elemanları: {}", allOgretimElemanlari.size());
-            logger.info("      - Ders-Öğrenci İlişkileri: {}", dersOgrencileriMap.size());
-            logger.info("      - Toplam Öğrenci: {}", 
-                dersOgrencileriMap.values().stream().mapToInt(List::size).sum());
+            logger.info("      - Ders-Öğrenci İlişkileri: {}", kayitDeposu.dersSayisi());
+            logger.info("      - Toplam Kayıt: {}", kayitDeposu.kayitSayisi());
+            logger.info("      - Benzersiz Öğrenci: {}", kayitDeposu.ogrenciSayisi());
+            fazSureleri.put("init.toplam", (System.nanoTime() - initStart) / 1_000_000);
+            logger.info("   ⏱️ Faz süreleri (ms): {}", getFazSureleri());
                 
         } catch (Exception e) {
             logger.error("❌ DataCache initialize hatası: {}", e.getMessage(), e);
@@ -344,7 +438,7 @@ public class DataCacheService {
                             Ders ders = (Ders) result.get("ders");
                             
                             if (!ogrenciler.isEmpty()) {
-                                dersOgrencileriMap.put(ders.getDersHarId(), ogrenciler);
+                                depoyaYaz(ders, ogrenciler);
                                 batchLoaded++;
                             }
                         } else {
@@ -361,6 +455,8 @@ public class DataCacheService {
                 
                 logger.info("✅ Initial Batch {}/{}: +{} ders, {} hata (Toplam: {}/{})", 
                     batchIndex + 1, totalBatches, batchLoaded, batchErrors, totalLoaded, initialDersler.size());
+                totalCoursesProcessed = totalLoaded;
+                eventPublisher.publishEvent(new CacheIlerlemeDegisti(getProgressiveLoadingStatus()));
                 
                 // Startup için konservatif rate limiting (batch'ler arası)
                 if (batchIndex < totalBatches - 1) {
@@ -388,7 +484,7 @@ public class DataCacheService {
             nextBatchStartIndex = initialCoursesToLoad;
             
             logger.info("✅ INITIAL LOADING tamamlandı: {} ders, {} hata", loadedCount, errorCount);
-            logger.info("💾 Cache durumu: {} ders-öğrenci mapping", dersOgrencileriMap.size());
+            logger.info("💾 Cache durumu: {} ders-öğrenci mapping", kayitDeposu.dersSayisi());
             
             if (progressiveLoadingEnabled && nextBatchStartIndex < allDersler.size()) {
                 logger.info("🔄 PROGRESSIVE LOADING aktif: Kalan {} ders arka planda yüklenecek", 
@@ -405,82 +501,346 @@ public class DataCacheService {
 
     /**
      * Hızlı arama için index'leri oluştur
+     * Her index bağımsız bir fork-join task'ında oluşturulur, hepsi bitince yayınlanır
      */
     private void buildIndexes() {
-        logger.info("Index'ler oluşturuluyor...");
+        logger.info("Index'ler oluşturuluyor (paralel, {} thread)...", indexBuildPool.getParallelism());
+        long start = System.nanoTime();
+        
+        List<Ders> dersler = new ArrayList<>(allDersler);
+        List<OgretimElemani> elemanlar = new ArrayList<>(allOgretimElemanlari);
         
         // Ders index'leri
-        dersHarIdIndex.clear();
-        fakulteDerslerIndex.clear();
-        programDerslerIndex.clear();
+        ForkJoinTask<Map<String, Ders>> dersHarIdTask = indexBuildPool.submit(() ->
+            olc("index.dersHarId", () -> tekilIndex(dersler, Ders::getDersHarId)));
+        ForkJoinTask<Map<String, List<Ders>>> fakulteDersTask = indexBuildPool.submit(() ->
+            olc("index.fakulteDersler", () -> grupIndex(dersler, Ders::getFakAd)));
+        ForkJoinTask<Map<String, List<Ders>>> programDersTask = indexBuildPool.submit(() ->
+            olc("index.programDersler", () -> grupIndex(dersler, Ders::getProgAd)));
+        ForkJoinTask<NavigableMap<String, Ders>> dersSiraliTask = indexBuildPool.submit(() ->
+            olc("index.dersSirali", () -> siraliIndex(dersler, Ders::getDersHarId)));
         
-        for (Ders ders : allDersler) {
-            // DersHarId index
-            dersHarIdIndex.put(ders.getDersHarId(), ders);
-            
-            // Fakülte index
-            if (ders.getFakAd() != null) {
-                fakulteDerslerIndex.computeIfAbsent(ders.getFakAd(), k -> new ArrayList<>()).add(ders);
+        // Kolon bazlı katalog
+        ForkJoinTask<DersKatalogu> katalogTask = indexBuildPool.submit(() ->
+            olc("index.dersKatalogu", () -> DersKatalogu.olustur(dersler)));
+        
+        // Öğretim elemanı index'leri
+        ForkJoinTask<Map<String, OgretimElemani>> tcTask = indexBuildPool.submit(() ->
+            olc("index.tcKimlik", () -> tekilIndex(elemanlar, OgretimElemani::getTcKimlikNo)));
+        ForkJoinTask<Map<String, OgretimElemani>> sicilTask = indexBuildPool.submit(() ->
+            olc("index.sicilNo", () -> tekilIndex(elemanlar, OgretimElemani::getSicilNo)));
+        ForkJoinTask<Map<String, List<OgretimElemani>>> fakulteElemanTask = indexBuildPool.submit(() ->
+            olc("index.fakulteOgretimElemani", () -> grupIndex(elemanlar, OgretimElemani::getFakAd)));
+        ForkJoinTask<NavigableMap<String, OgretimElemani>> elemanSiraliTask = indexBuildPool.submit(() ->
+            olc("index.ogretimElemaniSirali", () -> siraliIndex(elemanlar,
+                eleman -> eleman.getTcKimlikNo() != null ? eleman.getTcKimlikNo() : eleman.getSicilNo())));
+        
+        dersHarIdIndex = dersHarIdTask.join();
+        fakulteDerslerIndex = fakulteDersTask.join();
+        programDerslerIndex = programDersTask.join();
+        dersKatalogu = katalogTask.join();
+        tcKimlikIndex = tcTask.join();
+        sicilNoIndex = sicilTask.join();
+        fakulteOgretimElemaniIndex = fakulteElemanTask.join();
+        dersSiraliIndex = dersSiraliTask.join();
+        ogretimElemaniSiraliIndex = elemanSiraliTask.join();
+        
+        // 🚀 Öğrenci-Ders index'ini oluştur (ders index'ine bağımlı, partition bazlı paralel)
+        buildOgrenciDerslerIndex();
+        
+        fazSureleri.put("index.toplam", (System.nanoTime() - start) / 1_000_000);
+        logger.info("Index'ler oluşturuldu - Öğrenci index: {} entry, {} ms", 
+            ogrenciDerslerIndex.size(), fazSureleri.get("index.toplam"));
+    }
+    
+    private static <T> Map<String, T> tekilIndex(List<T> items, Function<T, String> anahtar) {
+        Map<String, T> index = new ConcurrentHashMap<>(Math.max(16, items.size() * 4 / 3 + 1));
+        for (T item : items) {
+            String key = anahtar.apply(item);
+            if (key != null) {
+                index.put(key, item);
             }
-            
-            // Program index
-            if (ders.getProgAd() != null) {
-                programDerslerIndex.computeIfAbsent(ders.getProgAd(), k -> new ArrayList<>()).add(ders);
+        }
+        return index;
+    }
+    
+    /**
+     * Toplu yeniden oluşturulan veriler için immutable sıralı index (tek atamayla yayınlanır)
+     */
+    private static <T> NavigableMap<String, T> siraliIndex(List<T> items, Function<T, String> anahtar) {
+        TreeMap<String, T> index = new TreeMap<>();
+        for (T item : items) {
+            String key = anahtar.apply(item);
+            if (key != null) {
+                index.putIfAbsent(key, item);
             }
         }
-        
-        // Öğretim elemanı index'leri
-        tcKimlikIndex.clear();
-        sicilNoIndex.clear();
-        fakulteOgretimElemaniIndex.clear();
-        
-        for (OgretimElemani eleman : allOgretimElemanlari) {
-            // TC Kimlik index
-            if (eleman.getTcKimlikNo() != null) {
-                tcKimlikIndex.put(eleman.getTcKimlikNo(), eleman);
+        return Collections.unmodifiableNavigableMap(index);
+    }
+    
+    private static <T> Map<String, List<T>> grupIndex(List<T> items, Function<T, String> anahtar) {
+        Map<String, List<T>> index = new ConcurrentHashMap<>();
+        for (T item : items) {
+            String key = anahtar.apply(item);
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
             }
-            
-            // Sicil No index
-            if (eleman.getSicilNo() != null) {
-                sicilNoIndex.put(eleman.getSicilNo(), eleman);
+        }
+        return index;
+    }
+    
+    /**
+     * Cache'teki ders-öğrenci verilerinden öğrenci-ders index'ini oluşturur
+     * Dersler dersHarId hash'ine göre partition'lara bölünür, her partition ayrı task'ta işlenir,
+     * kısmi sonuçlar birleştirilip tek atamayla yayınlanır
+     */
+    private synchronized void buildOgrenciDerslerIndex() {
+        logger.info("🚀 Öğrenci-Ders index'i oluşturuluyor...");
+        long start = System.nanoTime();
+        
+        // Depo okunmadan önce açılır: bundan sonraki artımlı güncellemeler yeni map'e de uygulanır
+        bekleyenIndexGuncellemeleri = new ConcurrentLinkedQueue<>();
+        
+        int partitionSayisi = indexBuildPool.getParallelism();
+        Map<String, List<Ders>> yeniIndex;
+        try {
+            yeniIndex = partitionlariIndexle(partitionSayisi);
+        } catch (RuntimeException e) {
+            bekleyenIndexGuncellemeleri = null; // Eski index yerinde kalır, güncellemeleri zaten ona yazıldı
+            throw e;
+        }
+        
+        Map<String, List<Ders>> yayinlanacak = new ConcurrentHashMap<>(Math.max(16, yeniIndex.size() * 4 / 3 + 1));
+        yeniIndex.forEach((ogrNo, dersler) -> yayinlanacak.put(ogrNo, List.copyOf(dersler)));
+        indexYayinKilidi.writeLock().lock();
+        try {
+            int uygulanan = 0;
+            for (Map.Entry<String, List<Ders>> guncelleme : bekleyenIndexGuncellemeleri) {
+                yayinlanacak.merge(guncelleme.getKey(), guncelleme.getValue(), DataCacheService::derslerBirlesik);
+                uygulanan++;
             }
-            
-            // Fakülte index
-            if (eleman.getFakAd() != null) {
-                fakulteOgretimElemaniIndex.computeIfAbsent(eleman.getFakAd(), k -> new ArrayList<>()).add(eleman);
+            bekleyenIndexGuncellemeleri = null;
+            ogrenciDerslerIndex = yayinlanacak;
+            if (uygulanan > 0) {
+                logger.info("🔁 Index oluşturulurken gelen {} güncelleme yeni index'e uygulandı", uygulanan);
             }
+        } finally {
+            indexYayinKilidi.writeLock().unlock();
         }
+        versiyonArtir();
+        fazSureleri.put("index.ogrenciDersler", (System.nanoTime() - start) / 1_000_000);
         
-        // 🚀 Öğrenci-Ders index'ini oluştur (cache'teki verilerle)
-        ogrenciDerslerIndex.clear();
-        buildOgrenciDerslerIndex();
+        // Profilleri index'ten yeniden hesapla (paralel), artık index'te olmayanları at
+        olc("index.ogrenciProfilleri", () -> {
+            indexBuildPool.submit(() -> yayinlanacak.keySet().parallelStream().forEach(this::profilGuncelle)).join();
+            ogrenciProfilleri.keySet().retainAll(yayinlanacak.keySet());
+        });
         
-        logger.info("Index'ler oluşturuldu - Öğrenci index: {} entry", ogrenciDerslerIndex.size());
+        logger.info("✅ Öğrenci-Ders index'i tamamlandı - {} öğrenci, {} profil ({} partition, {} ms)", 
+            ogrenciDerslerIndex.size(), ogrenciProfilleri.size(), partitionSayisi,
+            fazSureleri.get("index.ogrenciDersler") + fazSureleri.get("index.ogrenciProfilleri"));
     }
     
     /**
-     * Cache'teki ders-öğrenci verilerinden öğrenci-ders index'ini oluşturur
+     * Dersleri dersHarId hash'ine göre partition'lara bölüp paralel indexler ve sonuçları birleştirir
      */
-    private void buildOgrenciDerslerIndex() {
-        logger.info("🚀 Öğrenci-Ders index'i oluşturuluyor...");
+    private Map<String, List<Ders>> partitionlariIndexle(int partitionSayisi) {
+        List<List<String>> partitionlar = new ArrayList<>(partitionSayisi);
+        for (int i = 0; i < partitionSayisi; i++) {
+            partitionlar.add(new ArrayList<>());
+        }
+        for (String dersHarId : kayitDeposu.getDersHarIdleri()) {
+            partitionlar.get((dersHarId.hashCode() & 0x7fffffff) % partitionSayisi).add(dersHarId);
+        }
         
-        for (Map.Entry<String, List<Ogrenci>> entry : dersOgrencileriMap.entrySet()) {
-            String dersHarId = entry.getKey();
-            List<Ogrenci> ogrenciler = entry.getValue();
-            
+        Map<String, Ders> dersIndex = dersHarIdIndex;
+        List<ForkJoinTask<Map<String, List<Ders>>>> tasks = new ArrayList<>(partitionSayisi);
+        for (List<String> partition : partitionlar) {
+            tasks.add(indexBuildPool.submit(() -> partitionIndexle(partition, dersIndex)));
+        }
+        
+        // Kısmi index'leri birleştir
+        Map<String, List<Ders>> yeniIndex = new HashMap<>();
+        for (ForkJoinTask<Map<String, List<Ders>>> task : tasks) {
+            task.join().forEach((ogrNo, dersler) ->
+                yeniIndex.merge(ogrNo, dersler, (a, b) -> {
+                    a.addAll(b);
+                    return a;
+                }));
+        }
+        return yeniIndex;
+    }
+    
+    /**
+     * Bir partition'daki derslerin öğrencilerinden kısmi öğrenci-ders index'i oluşturur
+     */
+    private Map<String, List<Ders>> partitionIndexle(List<String> dersHarIdleri, Map<String, Ders> dersIndex) {
+        Map<String, List<Ders>> kismiIndex = new HashMap<>();
+        for (String dersHarId : dersHarIdleri) {
             // Bu derse ait Ders objesini bul
-            Ders ders = dersHarIdIndex.get(dersHarId);
+            Ders ders = dersIndex.get(dersHarId);
             if (ders == null) continue;
             
+            List<Ogrenci> ogrenciler = kayitDeposu.getOgrenciler(dersHarId);
+            if (ogrenciler == null) continue;
+            
             // Her öğrenci için index'e ekle
             for (Ogrenci ogrenci : ogrenciler) {
                 if (ogrenci.getOgrNo() != null) {
-                    ogrenciDerslerIndex.computeIfAbsent(ogrenci.getOgrNo(), k -> new ArrayList<>()).add(ders);
+                    kismiIndex.computeIfAbsent(ogrenci.getOgrNo(), k -> new ArrayList<>()).add(ders);
                 }
             }
         }
+        return kismiIndex;
+    }
+    
+    /**
+     * Fazın süresini ölçüp kaydeder
+     */
+    private <T> T olc(String faz, Supplier<T> is) {
+        long start = System.nanoTime();
+        try {
+            return is.get();
+        } finally {
+            fazSureleri.put(faz, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    private void olc(String faz, Runnable is) {
+        olc(faz, () -> {
+            is.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Cache'teki verinin güncel snapshot versiyonu
+     * Aynı versiyon için aynı istek her zaman aynı yanıtı üretir
+     */
+    public long getSnapshotVersion() {
+        return snapshotVersion.get();
+    }
+    
+    private void versiyonArtir() {
+        snapshotVersion.incrementAndGet();
+    }
+    
+    /**
+     * Son initialize / index build faz süreleri (ms)
+     */
+    public Map<String, Long> getFazSureleri() {
+        return new TreeMap<>(fazSureleri);
+    }
+    
+    /**
+     * Öğrencinin profilini index'teki güncel ders listesinden yeniden hesaplar
+     */
+    private OgrenciProfili profilGuncelle(String ogrNo) {
+        // compute aynı anahtar için sıralı çalışır: sonraki hesaplama index'in daha güncel halini okur
+        return ogrenciProfilleri.compute(ogrNo, (k, eski) -> {
+            List<Ders> dersler = ogrenciDerslerIndex.get(k);
+            if (dersler == null || dersler.isEmpty()) {
+                return null;
+            }
+            DersKatalogu katalog = dersKatalogu;
+            return OgrenciProfili.olustur(k, dersler, katalog.toplamKredi(dersler), katalog.toplamAkts(dersler));
+        });
+    }
+    
+    /**
+     * Dersin öğrenci listesini depoya yazar ve öğrenci-ders index'ini günceller
+     * Kilit gerektirmez, farklı dersler paralel işlenebilir
+     * Index depodan önce güncellenir: ders listesi okunabilir olduğunda öğrencinin dersleri
+     * index'te bulunur (token değişikliğinde ilgili ders önbellekleri kaçırılmaz)
+     */
+    private void kaydetDersOgrencileri(Ders ders, List<Ogrenci> ogrenciler) {
+        for (Ogrenci ogrenci : ogrenciler) {
+            if (ogrenci.getOgrNo() != null) {
+                indexeDersEkle(ogrenci.getOgrNo(), ders);
+            }
+        }
         
-        logger.info("✅ Öğrenci-Ders index'i tamamlandı - {} öğrenci", ogrenciDerslerIndex.size());
+        depoyaYaz(ders, ogrenciler);
+    }
+    
+    /**
+     * Dersin öğrenci listesini depoya yazar ve önceki listeye göre
+     * farkı (eklenen / çıkan öğrenciler) DersKayitDegisti olayı olarak yayınlar
+     * Versiyonu artırmaz: çağıran taraf (batch / initialize / fallback) yazım bitince bir kez artırır
+     */
+    private void depoyaYaz(Ders ders, List<Ogrenci> ogrenciler) {
+        Set<String> onceki = kayitDeposu.getOgrNolari(ders.getDersHarId());
+        kayitDeposu.putDersOgrencileri(ders.getDersHarId(), ogrenciler);
+        
+        Set<String> yeni = new HashSet<>();
+        List<String> eklenenler = new ArrayList<>();
+        for (Ogrenci ogrenci : ogrenciler) {
+            String ogrNo = ogrenci.getOgrNo();
+            if (ogrNo != null && yeni.add(ogrNo) && (onceki == null || !onceki.contains(ogrNo))) {
+                eklenenler.add(ogrNo);
+            }
+        }
+        List<String> cikanlar = new ArrayList<>();
+        if (onceki != null) {
+            for (String ogrNo : onceki) {
+                if (!yeni.contains(ogrNo)) {
+                    cikanlar.add(ogrNo);
+                }
+            }
+        }
+        
+        if (!eklenenler.isEmpty() || !cikanlar.isEmpty()) {
+            eventPublisher.publishEvent(new DersKayitDegisti(ders.getDersHarId(), ders.getOgretimElemaniTC(),
+                eklenenler, cikanlar, yeni.size(), getSnapshotVersion()));
+        }
+    }
+    
+    /**
+     * Öğrencinin ders listesine dersi ekler (anahtar bazında atomik copy-on-write)
+     */
+    private void indexeDersEkle(String ogrNo, Ders ders) {
+        indexeEkle(ogrNo, List.of(ders));
+        profilGuncelle(ogrNo);
+    }
+    
+    /**
+     * Dersleri öğrencinin listesiyle birleştirir; tam yeniden oluşturma sürüyorsa güncellemeyi
+     * yeni index'e uygulanmak üzere de kaydeder (yayın sırasında kaybolmaz)
+     */
+    private void indexeEkle(String ogrNo, List<Ders> dersler) {
+        indexYayinKilidi.readLock().lock();
+        try {
+            ogrenciDerslerIndex.merge(ogrNo, dersler, DataCacheService::derslerBirlesik);
+            Queue<Map.Entry<String, List<Ders>>> bekleyenler = bekleyenIndexGuncellemeleri;
+            if (bekleyenler != null) {
+                bekleyenler.add(Map.entry(ogrNo, dersler));
+            }
+        } finally {
+            indexYayinKilidi.readLock().unlock();
+        }
+    }
+    
+    private static List<Ders> derslerBirlesik(List<Ders> mevcut, List<Ders> eklenecek) {
+        List<Ders> sonuc = mevcut;
+        for (Ders ders : eklenecek) {
+            sonuc = dersEklenmis(sonuc, ders);
+        }
+        return sonuc;
+    }
+    
+    private static List<Ders> dersEklenmis(List<Ders> mevcut, Ders ders) {
+        if (mevcut == null || mevcut.isEmpty()) {
+            return List.of(ders);
+        }
+        for (Ders d : mevcut) {
+            if (Objects.equals(d.getDersHarId(), ders.getDersHarId())) {
+                return mevcut; // Zaten var
+            }
+        }
+        List<Ders> yeni = new ArrayList<>(mevcut.size() + 1);
+        yeni.addAll(mevcut);
+        yeni.add(ders);
+        return Collections.unmodifiableList(yeni);
     }
 
     // Getter metodları - Controller'lar bunları kullanacak
@@ -497,20 +857,82 @@ public class DataCacheService {
         return new ArrayList<>(allOgretimElemanlari);
     }
 
+    /**
+     * Dersleri dersHarId sırasıyla keyset sayfalı okur (O(sayfa boyutu))
+     *
+     * @param sonrakiAnahtar önceki sayfanın son dersHarId'si (hariç), ilk sayfa için null
+     */
+    public KeysetSayfa<Ders> getDersSayfasi(String sonrakiAnahtar, int limit) {
+        return KeysetSayfa.oku(dersSiraliIndex, sonrakiAnahtar, limit, Function.identity());
+    }
+
+    public KeysetSayfa<Ders> getDersSayfasiOffset(long offset, int limit) {
+        return KeysetSayfa.okuOffset(dersSiraliIndex, offset, limit, Function.identity());
+    }
+
+    public int getDersSayisi() {
+        return dersSiraliIndex.size();
+    }
+
+    /**
+     * Öğretim elemanlarını TC (yoksa sicil) sırasıyla keyset sayfalı okur
+     */
+    public KeysetSayfa<OgretimElemani> getOgretimElemaniSayfasi(String sonrakiAnahtar, int limit) {
+        return KeysetSayfa.oku(ogretimElemaniSiraliIndex, sonrakiAnahtar, limit, Function.identity());
+    }
+
+    public KeysetSayfa<OgretimElemani> getOgretimElemaniSayfasiOffset(long offset, int limit) {
+        return KeysetSayfa.okuOffset(ogretimElemaniSiraliIndex, offset, limit, Function.identity());
+    }
+
+    public int getOgretimElemaniSayisi() {
+        return ogretimElemaniSiraliIndex.size();
+    }
+
+    /**
+     * Tekil öğrencileri TC (yoksa öğrenci no) sırasıyla keyset sayfalı okur;
+     * progressive loading sırasında eklenen öğrenciler önceki sayfaları kaydırmaz
+     */
+    public KeysetSayfa<Ogrenci> getOgrenciSayfasi(String sonrakiAnahtar, int limit) {
+        return kayitDeposu.ogrenciSayfasi(sonrakiAnahtar, limit);
+    }
+
+    public KeysetSayfa<Ogrenci> getOgrenciSayfasiOffset(long offset, int limit) {
+        return kayitDeposu.ogrenciSayfasiOffset(offset, limit);
+    }
+
+    public int getTekilOgrenciSayisi() {
+        return kayitDeposu.tekilOgrenciSayisi();
+    }
+
     public Ders getDersByHarId(String dersHarId) {
-        return dersHarIdIndex.get(dersHarId);
+        long baslangic = System.nanoTime();
+        try {
+            return dersHarIdIndex.get(dersHarId);
+        } finally {
+            dersIndexTimer.record(System.nanoTime() - baslangic, TimeUnit.NANOSECONDS);
+        }
     }
 
     public List<Ders> getDerslerByFakulte(String fakulteAdi) {
         return fakulteDerslerIndex.getOrDefault(fakulteAdi, new ArrayList<>());
     }
 
+    public DersKatalogu getDersKatalogu() {
+        return dersKatalogu;
+    }
+
     public List<Ders> getDerslerByProgram(String programAdi) {
         return programDerslerIndex.getOrDefault(programAdi, new ArrayList<>());
     }
 
     public OgretimElemani getOgretimElemaniByTC(String tcKimlikNo) {
-        return tcKimlikIndex.get(tcKimlikNo);
+        long baslangic = System.nanoTime();
+        try {
+            return tcKimlikIndex.get(tcKimlikNo);
+        } finally {
+            ogretimElemaniIndexTimer.record(System.nanoTime() - baslangic, TimeUnit.NANOSECONDS);
+        }
     }
 
     public OgretimElemani getOgretimElemaniBySicil(String sicilNo) {
@@ -543,85 +965,65 @@ public class DataCacheService {
      * Tüm öğrencileri getirir (cache'teki tüm derslerden)
      */
     public List<Ogrenci> getAllOgrenciler() {
-        // Tüm derslerdeki öğrencileri topla ve benzersiz yap (TC Kimlik No bazında)
-        Map<String, Ogrenci> uniqueOgrenciler = new HashMap<>();
-        
-        for (List<Ogrenci> ogrenciler : dersOgrencileriMap.values()) {
-            for (Ogrenci ogrenci : ogrenciler) {
-                if (ogrenci.getTcKimlikNo() != null && !ogrenci.getTcKimlikNo().isEmpty()) {
-                    // TC Kimlik No'ya göre benzersiz tut
-                    uniqueOgrenciler.putIfAbsent(ogrenci.getTcKimlikNo(), ogrenci);
-                } else if (ogrenci.getOgrNo() != null && !ogrenci.getOgrNo().isEmpty()) {
-                    // TC yoksa öğrenci numarasına göre benzersiz tut
-                    uniqueOgrenciler.putIfAbsent(ogrenci.getOgrNo(), ogrenci);
-                }
-            }
-        }
-        
-        return new ArrayList<>(uniqueOgrenciler.values());
+        // Depo TC (yoksa öğrenci no) bazında tekil öğrencileri sıralı index'te tutar
+        List<Ogrenci> ogrenciler = new ArrayList<>(kayitDeposu.tekilOgrenciSayisi());
+        kayitDeposu.forEachTekilOgrenci(ogrenciler::add);
+        return ogrenciler;
     }
 
     /**
      * Sınıf bazında öğrencileri getirir
+     * Öğrenci başına tek ana kayıt döner (TC, yoksa öğrenci no bazında tekil); ders alanları
+     * (dersHarId, ders kredi / AKTS) null'dır
      */
     public List<Ogrenci> getOgrencilerBySinif(String sinif) {
-        // Tüm derslerdeki öğrencileri topla ve sınıfa göre filtrele
-        Map<String, Ogrenci> uniqueOgrenciler = new HashMap<>();
-        
-        for (List<Ogrenci> ogrenciler : dersOgrencileriMap.values()) {
-            for (Ogrenci ogrenci : ogrenciler) {
-                if (ogrenci.getSinif() != null && ogrenci.getSinif().equalsIgnoreCase(sinif)) {
-                    String key = ogrenci.getTcKimlikNo() != null ? ogrenci.getTcKimlikNo() : ogrenci.getOgrNo();
-                    if (key != null) {
-                        uniqueOgrenciler.putIfAbsent(key, ogrenci);
-                    }
-                }
-            }
-        }
-        
-        return new ArrayList<>(uniqueOgrenciler.values());
+        List<Ogrenci> ogrenciler = new ArrayList<>();
+        forEachOgrenciBySinif(sinif, ogrenciler::add);
+        return ogrenciler;
     }
 
     /**
      * Fakülte bazında öğrencileri getirir
+     * Öğrenci başına tek ana kayıt döner; ders alanları null'dır
      */
     public List<Ogrenci> getOgrencilerByFakulte(String fakulteAdi) {
-        // Tüm derslerdeki öğrencileri topla ve fakülteye göre filtrele
-        Map<String, Ogrenci> uniqueOgrenciler = new HashMap<>();
-        
-        for (List<Ogrenci> ogrenciler : dersOgrencileriMap.values()) {
-            for (Ogrenci ogrenci : ogrenciler) {
-                if (ogrenci.getFakulte() != null && ogrenci.getFakulte().equalsIgnoreCase(fakulteAdi)) {
-                    String key = ogrenci.getTcKimlikNo() != null ? ogrenci.getTcKimlikNo() : ogrenci.getOgrNo();
-                    if (key != null) {
-                        uniqueOgrenciler.putIfAbsent(key, ogrenci);
-                    }
-                }
-            }
-        }
-        
-        return new ArrayList<>(uniqueOgrenciler.values());
+        List<Ogrenci> ogrenciler = new ArrayList<>();
+        forEachOgrenciByFakulte(fakulteAdi, ogrenciler::add);
+        return ogrenciler;
     }
 
     /**
      * Bölüm bazında öğrencileri getirir
+     * Öğrenci başına tek ana kayıt döner; ders alanları null'dır
      */
     public List<Ogrenci> getOgrencilerByBolum(String bolumAdi) {
-        // Tüm derslerdeki öğrencileri topla ve bölüme göre filtrele
-        Map<String, Ogrenci> uniqueOgrenciler = new HashMap<>();
-        
-        for (List<Ogrenci> ogrenciler : dersOgrencileriMap.values()) {
-            for (Ogrenci ogrenci : ogrenciler) {
-                if (ogrenci.getBolum() != null && ogrenci.getBolum().equalsIgnoreCase(bolumAdi)) {
-                    String key = ogrenci.getTcKimlikNo() != null ? ogrenci.getTcKimlikNo() : ogrenci.getOgrNo();
-                    if (key != null) {
-                        uniqueOgrenciler.putIfAbsent(key, ogrenci);
-                    }
-                }
-            }
-        }
-        
-        return new ArrayList<>(uniqueOgrenciler.values());
+        List<Ogrenci> ogrenciler = new ArrayList<>();
+        forEachOgrenciByBolum(bolumAdi, ogrenciler::add);
+        return ogrenciler;
+    }
+
+    /**
+     * Sınıftaki öğrencileri liste oluşturmadan sırayla iletir (streaming export için)
+     * Filtre depodaki sözlük kodlu sınıf kolonunda çalışır
+     */
+    public void forEachOgrenciBySinif(String sinif, Consumer<Ogrenci> consumer) {
+        kayitDeposu.forEachTekilOgrenciBySinif(sinif, consumer);
+    }
+
+    /**
+     * Fakültedeki öğrencileri liste oluşturmadan sırayla iletir (streaming export için)
+     * Filtre depodaki sözlük kodlu fakülte kolonunda çalışır
+     */
+    public void forEachOgrenciByFakulte(String fakulteAdi, Consumer<Ogrenci> consumer) {
+        kayitDeposu.forEachTekilOgrenciByFakulte(fakulteAdi, consumer);
+    }
+
+    /**
+     * Bölümdeki öğrencileri liste oluşturmadan sırayla iletir (streaming export için)
+     * Filtre depodaki sözlük kodlu bölüm kolonunda çalışır
+     */
+    public void forEachOgrenciByBolum(String bolumAdi, Consumer<Ogrenci> consumer) {
+        kayitDeposu.forEachTekilOgrenciByBolum(bolumAdi, consumer);
     }
 
     /**
@@ -672,18 +1074,22 @@ public class DataCacheService {
      */
     public Set<String> getAllSiniflar() {
         Set<String> siniflar = new HashSet<>();
-        for (List<Ogrenci> ogrenciler : dersOgrencileriMap.values()) {
-            for (Ogrenci ogrenci : ogrenciler) {
-                if (ogrenci.getSinif() != null && !ogrenci.getSinif().isEmpty()) {
-                    siniflar.add(ogrenci.getSinif());
-                }
+        kayitDeposu.forEachOgrenci(ogrenci -> {
+            if (ogrenci.getSinif() != null && !ogrenci.getSinif().isEmpty()) {
+                siniflar.add(ogrenci.getSinif());
             }
-        }
+        });
         return siniflar;
     }
 
     public List<Ogrenci> getOgrencilerByDersHarId(String dersHarId) {
-        return dersOgrencileriMap.getOrDefault(dersHarId, new ArrayList<>());
+        long baslangic = System.nanoTime();
+        try {
+            List<Ogrenci> ogrenciler = kayitDeposu.getOgrenciler(dersHarId);
+            return ogrenciler != null ? ogrenciler : new ArrayList<>();
+        } finally {
+            dersOgrencileriIndexTimer.record(System.nanoTime() - baslangic, TimeUnit.NANOSECONDS);
+        }
     }
 
     public Set<String> getAllFakulteler() {
@@ -740,15 +1146,74 @@ public class DataCacheService {
         logger.debug("🚀 Öğrenci {} için FAST ders araması başlıyor...", ogrenciNo);
         
         // 1. Index'ten kontrol et (Süper hızlı!)
-        if (ogrenciDerslerIndex.containsKey(ogrenciNo)) {
-            List<Ders> dersler = ogrenciDerslerIndex.get(ogrenciNo);
-            logger.info("✅ Index'ten bulundu - Öğrenci: {}, Ders sayısı: {}", ogrenciNo, dersler.size());
-            return new ArrayList<>(dersler); // Defensive copy
+        long baslangic = System.nanoTime();
+        List<Ders> dersler = ogrenciDerslerIndex.get(ogrenciNo);
+        if (dersler != null) {
+            logger.debug("✅ Index'ten bulundu - Öğrenci: {}, Ders sayısı: {}", ogrenciNo, dersler.size());
+            List<Ders> kopya = new ArrayList<>(dersler); // Defensive copy
+            ogrenciDersleriIndexTimer.record(System.nanoTime() - baslangic, TimeUnit.NANOSECONDS);
+            return kopya;
         }
         
         // 2. Index'te yoksa lazy load yap
-        logger.info("🔄 Index'te yok, lazy loading başlatılıyor: {}", ogrenciNo);
-        return getDerslerByOgrenciNoLazy(ogrenciNo);
+        logger.debug("🔄 Index'te yok, lazy loading başlatılıyor: {}", ogrenciNo);
+        try {
+            return getDerslerByOgrenciNoLazy(ogrenciNo);
+        } finally {
+            ogrenciDersleriLazyTimer.record(System.nanoTime() - baslangic, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Öğrencinin derslerini sadece index'ten döndürür (lazy SOAP taraması yapmaz, yoksa null)
+     * Toplu sorgularda tek bir eksik öğrencinin tüm dersleri taramasını önler
+     */
+    public List<Ders> getIndekslenmisDersler(String ogrenciNo) {
+        long baslangic = System.nanoTime();
+        try {
+            return ogrenciNo != null ? ogrenciDerslerIndex.get(ogrenciNo) : null;
+        } finally {
+            ogrenciDersleriIndexTimer.record(System.nanoTime() - baslangic, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 🎓 Öğrencinin önceden hesaplanmış profilini döndürür
+     * Profil yoksa ders listesi (gerekirse lazy) çözülür ve profil oluşturulur
+     */
+    public OgrenciProfili getOgrenciProfili(String ogrenciNo) {
+        if (!isInitialized() || ogrenciNo == null) {
+            return null;
+        }
+        
+        long baslangic = System.nanoTime();
+        OgrenciProfili profil = ogrenciProfilleri.get(ogrenciNo);
+        if (profil != null) {
+            ogrenciProfiliIndexTimer.record(System.nanoTime() - baslangic, TimeUnit.NANOSECONDS);
+            return profil;
+        }
+        
+        if (getDerslerByOgrenciNo(ogrenciNo).isEmpty()) {
+            return null;
+        }
+        return profilGuncelle(ogrenciNo);
+    }
+    
+    /**
+     * Derslerin öğrenci listelerinin birleşimi (tekil öğrenci numaraları)
+     * Toplu bildirim hedeflemesi için; Ogrenci objesi oluşturmadan depo id'leri üzerinde çalışır
+     *
+     * @param sinif null değilse sadece bu sınıftaki öğrenciler
+     */
+    public List<String> getOgrNolariByDersler(Collection<String> dersHarIdleri, String sinif) {
+        return kayitDeposu.getOgrNolari(kayitDeposu.ogrenciKumesi(dersHarIdleri, sinif));
+    }
+    
+    /**
+     * Öğrencinin kişisel/akademik ana kaydı (ders alanları boş) - O(1)
+     */
+    public Ogrenci getOgrenciKaydi(String ogrenciNo) {
+        return kayitDeposu.getOgrenci(ogrenciNo);
     }
     
     /**
@@ -762,15 +1227,16 @@ public class DataCacheService {
         int checkedCount = 0;
         int foundCount = 0;
         int soapCallCount = 0;
+        int yazilanDersSayisi = 0;
         
         // Önce cache'teki dersleri hızlı kontrol et
         for (Ders ders : allDersler) {
             checkedCount++;
             
-            if (dersOgrencileriMap.containsKey(ders.getDersHarId())) {
+            List<Ogrenci> cachedOgrenciler = kayitDeposu.getOgrenciler(ders.getDersHarId());
+            if (cachedOgrenciler != null) {
                 // Cache'ten süper hızlı kontrol
-                List<Ogrenci> ogrenciler = dersOgrencileriMap.get(ders.getDersHarId());
-                if (ogrenciler.stream().anyMatch(o -> ogrenciNo.equals(o.getOgrNo()))) {
+                if (cachedOgrenciler.stream().anyMatch(o -> ogrenciNo.equals(o.getOgrNo()))) {
                     ogrenciDersleri.add(ders);
                     foundCount++;
                 }
@@ -782,12 +1248,9 @@ public class DataCacheService {
                         String xmlResponse = webServiceClient.getUzaktanEgitimDersiAlanOgrencileri(ders.getDersHarId());
                         List<Ogrenci> ogrenciler = xmlParser.parseOgrenciler(xmlResponse, ders.getDersHarId());
                         
-                        dersOgrencileriMap.put(ders.getDersHarId(), ogrenciler);
-                        
-                        // Index'e ekle
-                        for (Ogrenci ogrenci : ogrenciler) {
-                            ogrenciDerslerIndex.computeIfAbsent(ogrenci.getOgrNo(), k -> new ArrayList<>()).add(ders);
-                        }
+                        // Depoya ve index'e ekle
+                        kaydetDersOgrencileri(ders, ogrenciler);
+                        yazilanDersSayisi++;
                         
                         if (ogrenciler.stream().anyMatch(o -> ogrenciNo.equals(o.getOgrNo()))) {
                             ogrenciDersleri.add(ders);
@@ -813,8 +1276,14 @@ public class DataCacheService {
             }
         }
         
-        // Sonuç index'e kaydet
-        ogrenciDerslerIndex.put(ogrenciNo, new ArrayList<>(ogrenciDersleri));
+        // Sonuç index'e eklenir (put değil: tarama sırasında eşzamanlı eklenen dersler korunur)
+        indexeEkle(ogrenciNo, List.copyOf(ogrenciDersleri));
+        profilGuncelle(ogrenciNo);
+        
+        // Sadece okuma yapıldıysa snapshot değişmedi; SOAP'tan ders yazıldıysa bir kez artır
+        if (yazilanDersSayisi > 0) {
+            versiyonArtir();
+        }
         
         logger.info("✅ Fallback tamamlandı: {} -> {} ders ({} SOAP çağrısı)", 
             ogrenciNo, foundCount, soapCallCount);
@@ -833,6 +1302,8 @@ public class DataCacheService {
         
         if (nextBatchStartIndex >= allDersler.size()) {
             backgroundLoadingComplete = true;
+            versiyonArtir();
+            eventPublisher.publishEvent(new CacheIlerlemeDegisti(getProgressiveLoadingStatus()));
             logger.info("🎉 PROGRESSIVE LOADING TAMAMLANDI! Toplam {} ders yüklendi", totalCoursesProcessed);
             return;
         }
@@ -848,7 +1319,7 @@ public class DataCacheService {
         
         // 🚀 PARALEL Progressive Loading: Batch'i paralel işle
         List<Ders> toProcess = batchDersler.stream()
-            .filter(ders -> !dersOgrencileriMap.containsKey(ders.getDersHarId())) // Cache'te olmayan
+            .filter(ders -> !kayitDeposu.containsDers(ders.getDersHarId())) // Cache'te olmayan
             .collect(Collectors.toList());
             
         logger.info("🚀 Progressive PARALEL: {} ders işlenecek", toProcess.size());
@@ -865,6 +1336,12 @@ public class DataCacheService {
                     String xmlResponse = webServiceClient.getUzaktanEgitimDersiAlanOgrencileri(ders.getDersHarId());
                     List<Ogrenci> ogrenciler = xmlParser.parseOgrenciler(xmlResponse, ders.getDersHarId());
                     
+                    // Sonuç worker thread'inde doğrudan uygulanır (global kilit yok, dersler paralel)
+                    if (!ogrenciler.isEmpty()) {
+                        kaydetDersOgrencileri(ders, ogrenciler);
+                        result.put("loaded", true);
+                    }
+                    
                     result.put("success", true);
                     result.put("ogrenciler", ogrenciler);
                     result.put("ders", ders);
@@ -887,26 +1364,8 @@ public class DataCacheService {
                 Map<String, Object> result = future.get(45, TimeUnit.SECONDS); // 45s timeout
                 
                 if ((Boolean) result.get("success")) {
-                    @SuppressWarnings("unchecked")
-                    List<Ogrenci> ogrenciler = (List<Ogrenci>) result.get("ogrenciler");
-                    Ders ders = (Ders) result.get("ders");
-                    String dersHarId = (String) result.get("dersHarId");
-                    
-                    if (!ogrenciler.isEmpty()) {
-                        // Thread-safe cache update
-                        dersOgrencileriMap.put(dersHarId, ogrenciler);
-                        
-                        // Öğrenci-ders index'ini güncelle (thread-safe)
-                        synchronized (ogrenciDerslerIndex) {
-                            for (Ogrenci ogrenci : ogrenciler) {
-                                if (ogrenci.getOgrNo() != null) {
-                                    ogrenciDerslerIndex.computeIfAbsent(ogrenci.getOgrNo(), k -> new ArrayList<>()).add(ders);
-                                }
-                            }
-                        }
-                        
+                    if (result.containsKey("loaded")) {
                         batchLoadedCount++;
-                        totalCoursesProcessed++;
                     }
                 } else {
                     batchErrorCount++;
@@ -918,6 +1377,8 @@ public class DataCacheService {
             }
         }
         
+        totalCoursesProcessed += batchLoadedCount;
+        
         // Progressive loading'e özel rate limiting (global seviyede)
         try {
             TimeUnit.MILLISECONDS.sleep(rateLimitMs * 2); // Biraz daha konservatif
@@ -926,15 +1387,17 @@ public class DataCacheService {
             logger.warn("Progressive loading kesildi");
         }
         
-        // Progress güncelle
+        // Progress güncelle, batch'in tüm yazımları için versiyon bir kez artar
         nextBatchStartIndex += batchSize;
+        versiyonArtir();
+        eventPublisher.publishEvent(new CacheIlerlemeDegisti(getProgressiveLoadingStatus()));
         
         logger.info("✅ Batch tamamlandı: +{} ders, {} hata. Toplam: {}/{}", 
             batchLoadedCount, batchErrorCount, totalCoursesProcessed, allDersler.size());
             
         // Cache status güncelle
         logger.debug("💾 Cache durumu: {} ders-öğrenci, {} öğrenci-ders mapping", 
-            dersOgrencileriMap.size(), ogrenciDerslerIndex.size());
+            kayitDeposu.dersSayisi(), ogrenciDerslerIndex.size());
     }
     
     /**
@@ -949,6 +1412,9 @@ public class DataCacheService {
         status.put("nextBatchIndex", nextBatchStartIndex);
         status.put("batchSize", batchSize);
         status.put("progressPercent", allDersler.isEmpty() ? 0 : (totalCoursesProcessed * 100) / allDersler.size());
+        status.put("enrollmentStore", kayitDeposu.getIstatistikler());
+        status.put("dersKatalogu", dersKatalogu.getIstatistikler());
+        status.put("ogrenciProfilleri", ogrenciProfilleri.size());
         return status;
     }
 
@@ -964,6 +1430,7 @@ public class DataCacheService {
         backgroundLoadingComplete = false;
         
         isInitialized = false;
+        versiyonArtir();
         initializeCache();
     }
 }
@@ -0,0 +1,337 @@
+package com.prolizwebservices.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.prolizwebservices.event.CacheIlerlemeDegisti;
+import com.prolizwebservices.event.DersKayitDegisti;
+
+/**
+ * Cache değişikliklerini Server-Sent Events ile abonelere iten servis
+ *
+ * Olay tipleri:
+ * - snapshot   : snapshot versiyonu değişti (en fazla sse.snapshot-interval-ms'de bir, birleştirilerek)
+ * - ilerleme   : initial / progressive yükleme batch'i tamamlandı
+ * - ders-kayit : bir dersin öğrenci listesi değişti (eklenen / çıkan öğrenci numaraları)
+ *
+ * Aboneler belirli dersleri ve/veya öğretim elemanlarını (TC) dinleyebilir; filtre verilmezse tüm
+ * ders değişiklikleri gönderilir.
+ *
+ * Her abonenin kendi sınırlı kuyruğu vardır (sse.subscriber-queue-capacity); olaylar yükleme
+ * thread'inde sadece kuyruğa eklenir, gönderimi sseTaskExecutor'da abone başına tek bir task
+ * sırayla yapar. Bir task en fazla sse.events-per-task olay gönderip yeniden kuyruğa girer, böylece
+ * uzun kuyruklu bir abone thread'leri diğerlerinin önünde tutmaz. Kuyruk taşarsa olay sessizce
+ * atılmaz, bağlantı kapatılır; istemci yeniden bağlanınca güncel snapshot olayıyla başlar.
+ *
+ * emitter.send, istemci okumadığında (TCP tamponu dolu) connector'ın yazma zaman aşımına kadar
+ * bloklar ve o sürede thread'i tutar; complete() da aynı kilidi beklediği için dışarıdan kesilemez.
+ * Bu yüzden sse.write-timeout-ms'yi aşan gönderimler takılmış sayılır: abone listeden çıkarılır
+ * (yeni olay almaz, send dönünce kapatılır) ve havuzun çekirdek thread sayısı takılan gönderim
+ * kadar artırılır. Takılan istemciler diğer abonelerin gönderim kapasitesini azaltmaz.
+ */
+@Service
+public class DegisiklikAkisiService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DegisiklikAkisiService.class);
+
+    private static final long KEEPALIVE_MS = TimeUnit.SECONDS.toMillis(15);
+
+    private final DataCacheService cacheService;
+    private final ThreadPoolTaskExecutor sseTaskExecutor;
+    private final int maxAbone;
+    private final long timeoutMs;
+    private final int aboneKuyrukKapasitesi;
+    private final int taskBasinaOlay;
+    private final long yazmaZamanAsimiNanos;
+    private final int temelThreadSayisi;
+
+    private final List<Abone> aboneler = new CopyOnWriteArrayList<>();
+    // send'i yazma zaman aşımını geçmiş, thread'i hâlâ tutan aboneler
+    private final Set<Abone> takilanlar = ConcurrentHashMap.newKeySet();
+    private volatile long sonYayinlananVersiyon = -1;
+    private volatile long sonGonderimZamani = System.currentTimeMillis();
+
+    @Autowired
+    public DegisiklikAkisiService(DataCacheService cacheService,
+                                  @Qualifier("sseTaskExecutor") ThreadPoolTaskExecutor sseTaskExecutor,
+                                  @Value("${sse.max-subscribers:500}") int maxAbone,
+                                  @Value("${sse.timeout-minutes:30}") long timeoutMinutes,
+                                  @Value("${sse.subscriber-queue-capacity:256}") int aboneKuyrukKapasitesi,
+                                  @Value("${sse.events-per-task:32}") int taskBasinaOlay,
+                                  @Value("${sse.write-timeout-ms:10000}") long yazmaZamanAsimiMs) {
+        this.cacheService = cacheService;
+        this.sseTaskExecutor = sseTaskExecutor;
+        this.maxAbone = maxAbone;
+        this.timeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.aboneKuyrukKapasitesi = aboneKuyrukKapasitesi;
+        this.taskBasinaOlay = Math.max(1, taskBasinaOlay);
+        this.yazmaZamanAsimiNanos = TimeUnit.MILLISECONDS.toNanos(yazmaZamanAsimiMs);
+        this.temelThreadSayisi = sseTaskExecutor.getCorePoolSize();
+    }
+
+    /**
+     * Kuyruktaki tek olay; ad null ise keepalive yorum satırı
+     */
+    private static final class Olay {
+        static final Olay KEEPALIVE = new Olay(null, null);
+
+        final String ad;
+        final Object veri;
+
+        Olay(String ad, Object veri) {
+            this.ad = ad;
+            this.veri = veri;
+        }
+    }
+
+    /**
+     * Tek bir SSE bağlantısı ve filtreleri
+     */
+    private static final class Abone {
+        final SseEmitter emitter;
+        final Set<String> dersHarIdleri;
+        final Set<String> ogretimElemaniTCleri;
+        final boolean ilerleme;
+        final Queue<Olay> kuyruk;
+        // Abone için çalışan / sıradaki gönderim task'ı var mı (en fazla bir tane)
+        final AtomicBoolean gonderiliyor = new AtomicBoolean();
+        // Kuyruk taştı / gönderim takıldı: gönderim task'ı bağlantıyı kapatır (send'de bekleyen thread'le yarışmadan)
+        volatile boolean kapatilacak;
+        // Süren send'in başlangıcı (System.nanoTime), gönderim yoksa 0
+        volatile long gonderimBaslangici;
+
+        Abone(SseEmitter emitter, Set<String> dersHarIdleri, Set<String> ogretimElemaniTCleri, boolean ilerleme,
+              int kuyrukKapasitesi) {
+            this.emitter = emitter;
+            this.dersHarIdleri = dersHarIdleri;
+            this.ogretimElemaniTCleri = ogretimElemaniTCleri;
+            this.ilerleme = ilerleme;
+            this.kuyruk = new ArrayBlockingQueue<>(kuyrukKapasitesi);
+        }
+
+        boolean ilgilenir(DersKayitDegisti olay) {
+            if (dersHarIdleri.isEmpty() && ogretimElemaniTCleri.isEmpty()) {
+                return true;
+            }
+            return dersHarIdleri.contains(olay.getDersHarId())
+                || (olay.getOgretimElemaniTC() != null && ogretimElemaniTCleri.contains(olay.getOgretimElemaniTC()));
+        }
+    }
+
+    /**
+     * Yeni abone oluşturur; abone sınırı doluysa null döner
+     */
+    public SseEmitter abone(Set<String> dersHarIdleri, Set<String> ogretimElemaniTCleri, boolean ilerleme) {
+        if (aboneler.size() >= maxAbone) {
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Abone abone = new Abone(emitter, dersHarIdleri, ogretimElemaniTCleri, ilerleme, aboneKuyrukKapasitesi);
+        emitter.onCompletion(() -> aboneler.remove(abone));
+        emitter.onTimeout(() -> aboneler.remove(abone));
+        emitter.onError(e -> aboneler.remove(abone));
+        aboneler.add(abone);
+
+        // İstemci mevcut durumu bağlanır bağlanmaz alır
+        kuyrugaEkle(abone, new Olay("snapshot", snapshotVerisi(cacheService.getSnapshotVersion())));
+        if (ilerleme) {
+            kuyrugaEkle(abone, new Olay("ilerleme", cacheService.getProgressiveLoadingStatus()));
+        }
+
+        logger.debug("SSE abonesi eklendi (toplam {}): {} ders, {} öğretim elemanı filtresi",
+            aboneler.size(), dersHarIdleri.size(), ogretimElemaniTCleri.size());
+        return emitter;
+    }
+
+    @EventListener
+    public void onDersKayitDegisti(DersKayitDegisti olay) {
+        if (!aboneler.isEmpty()) {
+            dagit(new Olay("ders-kayit", olay), abone -> abone.ilgilenir(olay));
+        }
+    }
+
+    @EventListener
+    public void onCacheIlerlemeDegisti(CacheIlerlemeDegisti olay) {
+        if (!aboneler.isEmpty()) {
+            dagit(new Olay("ilerleme", olay.getDurum()), abone -> abone.ilerleme);
+        }
+    }
+
+    /**
+     * Snapshot versiyonunu periyodik kontrol eder; değiştiyse tek bir olay gönderir
+     * (her versiyon artışı ayrı olay olmaz). Değişiklik yoksa bağlantıyı canlı tutmak için yorum satırı gönderir.
+     */
+    @Scheduled(fixedDelayString = "${sse.snapshot-interval-ms:1000}")
+    public void snapshotYayinla() {
+        if (aboneler.isEmpty()) {
+            return;
+        }
+        long versiyon = cacheService.getSnapshotVersion();
+        if (versiyon != sonYayinlananVersiyon) {
+            sonYayinlananVersiyon = versiyon;
+            dagit(new Olay("snapshot", snapshotVerisi(versiyon)), abone -> true);
+        } else if (System.currentTimeMillis() - sonGonderimZamani >= KEEPALIVE_MS) {
+            dagit(Olay.KEEPALIVE, abone -> true);
+        }
+    }
+
+    /**
+     * Yazma zaman aşımını geçen gönderimleri bulur; aboneyi bırakır ve takılan thread'in yerine
+     * havuza bir çekirdek thread ekler
+     */
+    @Scheduled(fixedDelayString = "${sse.write-timeout-check-ms:1000}")
+    public void takilanGonderimleriAyikla() {
+        long simdi = System.nanoTime();
+        for (Abone abone : aboneler) {
+            long baslangic = abone.gonderimBaslangici;
+            if (baslangic != 0 && simdi - baslangic > yazmaZamanAsimiNanos && takilanlar.add(abone)) {
+                logger.warn("SSE gönderimi {} ms'dir bekliyor, abone bırakılıyor",
+                    TimeUnit.NANOSECONDS.toMillis(simdi - baslangic));
+                abone.kapatilacak = true;
+                aboneler.remove(abone);
+                abone.kuyruk.clear();
+                // send bu arada döndüyse finally bloğu kaydı kaçırmış olabilir
+                if (abone.gonderimBaslangici != baslangic) {
+                    takilanlar.remove(abone);
+                }
+                havuzuAyarla();
+            }
+        }
+    }
+
+    public int getAboneSayisi() {
+        return aboneler.size();
+    }
+
+    private void dagit(Olay olay, Predicate<Abone> filtre) {
+        for (Abone abone : aboneler) {
+            if (filtre.test(abone)) {
+                kuyrugaEkle(abone, olay);
+            }
+        }
+        sonGonderimZamani = System.currentTimeMillis();
+    }
+
+    /**
+     * Olayı abonenin kuyruğuna ekler (bloklamaz) ve gerekirse gönderim task'ını başlatır
+     */
+    private void kuyrugaEkle(Abone abone, Olay olay) {
+        if (!abone.kuyruk.offer(olay)) {
+            // İstemci geride kaldı: olay atlamak yerine bağlantıyı kapat, yeniden bağlanınca eşitlenir
+            logger.warn("SSE abonesinin kuyruğu doldu ({} olay), bağlantı kapatılıyor", aboneKuyrukKapasitesi);
+            abone.kapatilacak = true;
+            aboneler.remove(abone);
+            abone.kuyruk.clear();
+        }
+        gonderimBaslat(abone);
+    }
+
+    private void gonderimBaslat(Abone abone) {
+        if (!abone.gonderiliyor.compareAndSet(false, true)) {
+            return; // Çalışan task kuyruğu zaten boşaltacak
+        }
+        try {
+            sseTaskExecutor.execute(() -> kuyruguBosalt(abone));
+        } catch (RuntimeException e) {
+            abone.gonderiliyor.set(false);
+            logger.warn("SSE gönderimi kuyruğa alınamadı, abone kapatılıyor: {}", e.getMessage());
+            kapat(abone);
+        }
+    }
+
+    /**
+     * Abonenin kuyruğundan en fazla taskBasinaOlay olayı sırayla gönderir; kalan olaylar için task
+     * yeniden kuyruğa girer. Bir abone aynı anda tek thread'de işlenir
+     */
+    private void kuyruguBosalt(Abone abone) {
+        try {
+            Olay olay;
+            int gonderilen = 0;
+            while (!abone.kapatilacak && gonderilen++ < taskBasinaOlay && (olay = abone.kuyruk.poll()) != null) {
+                if (!gonder(abone, olay)) {
+                    return;
+                }
+            }
+            if (abone.kapatilacak) {
+                kapat(abone);
+                return;
+            }
+        } finally {
+            abone.gonderiliyor.set(false);
+        }
+        // Bayrak bırakılırken eklenen olay kaçmasın
+        if (!abone.kuyruk.isEmpty() && aboneler.contains(abone)) {
+            gonderimBaslat(abone);
+        }
+    }
+
+    private boolean gonder(Abone abone, Olay olay) {
+        abone.gonderimBaslangici = System.nanoTime();
+        try {
+            if (olay.ad == null) {
+                abone.emitter.send(SseEmitter.event().comment("keepalive"));
+            } else {
+                abone.emitter.send(SseEmitter.event().name(olay.ad).data(olay.veri));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Bağlantı kapanmış; abone listeden çıkarılır
+            aboneler.remove(abone);
+            abone.kuyruk.clear();
+            logger.debug("SSE gönderimi başarısız, abone kaldırıldı: {}", e.getMessage());
+            return false;
+        } finally {
+            abone.gonderimBaslangici = 0;
+            if (takilanlar.remove(abone)) {
+                havuzuAyarla();
+            }
+        }
+    }
+
+    /**
+     * Çekirdek thread sayısı = yapılandırılan sayı + hâlâ takılı gönderimler
+     */
+    private synchronized void havuzuAyarla() {
+        sseTaskExecutor.setCorePoolSize(Math.min(temelThreadSayisi + takilanlar.size(), sseTaskExecutor.getMaxPoolSize()));
+    }
+
+    private void kapat(Abone abone) {
+        aboneler.remove(abone);
+        abone.kuyruk.clear();
+        try {
+            abone.emitter.complete();
+        } catch (RuntimeException e) {
+            logger.debug("SSE bağlantısı kapatılamadı: {}", e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> snapshotVerisi(long versiyon) {
+        Map<String, Object> veri = new HashMap<>();
+        veri.put("snapshotVersion", versiyon);
+        veri.put("timestamp", LocalDateTime.now());
+        return veri;
+    }
+}
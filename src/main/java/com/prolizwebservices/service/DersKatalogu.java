@@ -0,0 +1,278 @@
+package com.prolizwebservices.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.prolizwebservices.model.Ders;
+import com.prolizwebservices.util.StringDictionary;
+
+/**
+ * Ders kataloğunun kolon bazlı (columnar) kopyası
+ *
+ * Ders objesi 17 String alan taşır; AKTS/kredi/sınıf gibi sayısal alanlar her istekte
+ * yeniden parse ediliyordu. Katalog her cache yenilemesinde bir kez oluşturulur:
+ * - Sayısal alanlar primitive int/double kolonlarda
+ * - Fakülte/bölüm/program/dönem sözlük id'si olarak
+ * - Her kategorik değer için satır numaralarından oluşan BitSet posting list
+ *
+ * Çok kriterli filtreler (fakülte AND dönem AND sınıf) BitSet kesişimi ile çalışır.
+ * Oluşturulduktan sonra değişmez (immutable), kilitsiz okunur.
+ */
+public class DersKatalogu {
+
+    /** Sayısal alanı olmayan sınıf değeri */
+    public static final int SINIF_YOK = -1;
+
+    private final Ders[] dersler;
+    private final Map<String, Integer> satirIndex;
+
+    // Kategorik kolonlar (sözlük id)
+    private final StringDictionary fakulteler = new StringDictionary();
+    private final StringDictionary bolumler = new StringDictionary(256);
+    private final StringDictionary programlar = new StringDictionary(256);
+    private final StringDictionary donemler = new StringDictionary(16);
+    private final StringDictionary ogretimElemanlari = new StringDictionary(1024);
+    private final int[] fakulte;
+    private final int[] bolum;
+    private final int[] program;
+    private final int[] donem;
+
+    // Sayısal kolonlar
+    private final int[] sinif;
+    private final double[] akts;
+    private final double[] kredi;
+    private final double[] dersYukuTeorik;
+    private final double[] dersYukuUygulama;
+
+    // Posting list'ler (sözlük id / sınıf -> satırlar)
+    private final List<BitSet> fakultePostings = new ArrayList<>();
+    private final List<BitSet> bolumPostings = new ArrayList<>();
+    private final List<BitSet> programPostings = new ArrayList<>();
+    private final List<BitSet> donemPostings = new ArrayList<>();
+    private final List<BitSet> ogretimElemaniPostings = new ArrayList<>();
+    private final Map<Integer, BitSet> sinifPostings = new HashMap<>();
+
+    private DersKatalogu(List<Ders> kaynak) {
+        int n = kaynak.size();
+        this.dersler = kaynak.toArray(new Ders[0]);
+        this.satirIndex = new HashMap<>(n * 2);
+        this.fakulte = new int[n];
+        this.bolum = new int[n];
+        this.program = new int[n];
+        this.donem = new int[n];
+        this.sinif = new int[n];
+        this.akts = new double[n];
+        this.kredi = new double[n];
+        this.dersYukuTeorik = new double[n];
+        this.dersYukuUygulama = new double[n];
+
+        for (int row = 0; row < n; row++) {
+            Ders ders = dersler[row];
+            if (ders.getDersHarId() != null) {
+                satirIndex.put(ders.getDersHarId(), row);
+            }
+
+            fakulte[row] = encode(fakulteler, fakultePostings, ders.getFakAd(), row);
+            bolum[row] = encode(bolumler, bolumPostings, ders.getBolAd(), row);
+            program[row] = encode(programlar, programPostings, ders.getProgAd(), row);
+            donem[row] = encode(donemler, donemPostings, ders.getDonemAd(), row);
+            encode(ogretimElemanlari, ogretimElemaniPostings, ders.getOgretimElemaniTC(), row);
+
+            sinif[row] = parseInt(ders.getSinif());
+            if (sinif[row] != SINIF_YOK) {
+                sinifPostings.computeIfAbsent(sinif[row], k -> new BitSet(n)).set(row);
+            }
+
+            akts[row] = parseDouble(ders.getAkts());
+            kredi[row] = parseDouble(ders.getKredi());
+            dersYukuTeorik[row] = parseDouble(ders.getDersYukuTeorik());
+            dersYukuUygulama[row] = parseDouble(ders.getDersYukuUygulama());
+        }
+    }
+
+    /**
+     * Ders listesinden kataloğu oluşturur
+     */
+    public static DersKatalogu olustur(List<Ders> dersler) {
+        return new DersKatalogu(dersler);
+    }
+
+    public static DersKatalogu bos() {
+        return new DersKatalogu(Collections.emptyList());
+    }
+
+    private int encode(StringDictionary sozluk, List<BitSet> postings, String value, int row) {
+        int id = sozluk.encode(value);
+        if (id != StringDictionary.NULL_ID) {
+            while (postings.size() <= id) {
+                postings.add(new BitSet(dersler.length));
+            }
+            postings.get(id).set(row);
+        }
+        return id;
+    }
+
+    // ============================================
+    // Filtreleme (BitSet kesişimi)
+    // ============================================
+
+    /**
+     * Verilen kriterlere uyan satırları döndürür. null kriterler filtre dışıdır.
+     * Metin kriterleri büyük/küçük harf duyarsızdır.
+     */
+    public BitSet filtrele(String fakulteAdi, String bolumAdi, String programAdi, String donemAdi, Integer sinifNo) {
+        BitSet sonuc = new BitSet(dersler.length);
+        sonuc.set(0, dersler.length);
+
+        if (!kesistir(sonuc, fakulteler, fakultePostings, fakulteAdi)) return sonuc;
+        if (!kesistir(sonuc, bolumler, bolumPostings, bolumAdi)) return sonuc;
+        if (!kesistir(sonuc, programlar, programPostings, programAdi)) return sonuc;
+        if (!kesistir(sonuc, donemler, donemPostings, donemAdi)) return sonuc;
+
+        if (sinifNo != null) {
+            BitSet posting = sinifPostings.get(sinifNo);
+            if (posting == null) {
+                sonuc.clear();
+            } else {
+                sonuc.and(posting);
+            }
+        }
+        return sonuc;
+    }
+
+    /**
+     * Sonucu posting list ile keser; sonuç boşaldıysa false döner (erken çıkış)
+     */
+    private boolean kesistir(BitSet sonuc, StringDictionary sozluk, List<BitSet> postings, String deger) {
+        if (deger == null || deger.isEmpty()) {
+            return true;
+        }
+        int id = sozluk.lookupIgnoreCase(deger);
+        if (id == StringDictionary.NULL_ID || id >= postings.size()) {
+            sonuc.clear();
+            return false;
+        }
+        sonuc.and(postings.get(id));
+        return !sonuc.isEmpty();
+    }
+
+    /**
+     * Öğretim elemanının (TC) verdiği derslerin satırları (kopya; yoksa boş)
+     */
+    public BitSet ogretimElemaniSatirlari(String ogretimElemaniTC) {
+        int id = ogretimElemanlari.lookup(ogretimElemaniTC);
+        if (id == StringDictionary.NULL_ID || id >= ogretimElemaniPostings.size()) {
+            return new BitSet(dersler.length);
+        }
+        return (BitSet) ogretimElemaniPostings.get(id).clone();
+    }
+
+    public List<Ders> getDersler(BitSet satirlar) {
+        List<Ders> sonuc = new ArrayList<>(satirlar.cardinality());
+        for (int row = satirlar.nextSetBit(0); row >= 0; row = satirlar.nextSetBit(row + 1)) {
+            sonuc.add(dersler[row]);
+        }
+        return sonuc;
+    }
+
+    // ============================================
+    // Toplamlar (primitive kolonlar üzerinde)
+    // ============================================
+
+    public double toplamKredi(BitSet satirlar) {
+        return topla(kredi, satirlar);
+    }
+
+    public double toplamAkts(BitSet satirlar) {
+        return topla(akts, satirlar);
+    }
+
+    public double toplamKredi(Collection<Ders> dersListesi) {
+        return toplamKredi(satirlar(dersListesi));
+    }
+
+    public double toplamAkts(Collection<Ders> dersListesi) {
+        return toplamAkts(satirlar(dersListesi));
+    }
+
+    private double topla(double[] kolon, BitSet satirlar) {
+        double toplam = 0.0;
+        for (int row = satirlar.nextSetBit(0); row >= 0; row = satirlar.nextSetBit(row + 1)) {
+            toplam += kolon[row];
+        }
+        return toplam;
+    }
+
+    /**
+     * Ders listesini katalog satırlarına çevirir (katalogda olmayan dersler atlanır)
+     */
+    public BitSet satirlar(Collection<Ders> dersListesi) {
+        BitSet satirlar = new BitSet(dersler.length);
+        for (Ders ders : dersListesi) {
+            Integer row = ders.getDersHarId() != null ? satirIndex.get(ders.getDersHarId()) : null;
+            if (row != null) {
+                satirlar.set(row);
+            }
+        }
+        return satirlar;
+    }
+
+    /**
+     * Ders har id'lerini katalog satırlarına çevirir (bilinmeyen id'ler atlanır)
+     */
+    public BitSet satirlarByHarId(Collection<String> dersHarIdleri) {
+        BitSet satirlar = new BitSet(dersler.length);
+        for (String dersHarId : dersHarIdleri) {
+            Integer row = dersHarId != null ? satirIndex.get(dersHarId) : null;
+            if (row != null) {
+                satirlar.set(row);
+            }
+        }
+        return satirlar;
+    }
+
+    public int satirSayisi() {
+        return dersler.length;
+    }
+
+    /**
+     * Katalog istatistikleri (monitoring için)
+     */
+    public Map<String, Object> getIstatistikler() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("dersSayisi", dersler.length);
+        stats.put("fakulteSayisi", fakulteler.size());
+        stats.put("bolumSayisi", bolumler.size());
+        stats.put("programSayisi", programlar.size());
+        stats.put("donemSayisi", donemler.size());
+        stats.put("sinifSayisi", sinifPostings.size());
+        return stats;
+    }
+
+    private static int parseInt(String value) {
+        if (value == null || value.isBlank()) {
+            return SINIF_YOK;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return SINIF_YOK;
+        }
+    }
+
+    private static double parseDouble(String value) {
+        if (value == null || value.isBlank()) {
+            return 0.0;
+        }
+        try {
+            return Double.parseDouble(value.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
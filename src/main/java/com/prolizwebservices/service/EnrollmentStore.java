@@ -0,0 +1,486 @@
+package com.prolizwebservices.service;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import com.prolizwebservices.model.Ogrenci;
+import com.prolizwebservices.util.StringDictionary;
+
+/**
+ * Ders-öğrenci kayıtlarını kompakt şekilde tutan depo
+ *
+ * Eski yapıda her ders için her öğrenci ayrı bir Ogrenci objesi (13 String) olarak tutuluyordu.
+ * Aynı öğrenci aldığı her derste tekrar tekrar saklanıyordu.
+ *
+ * Yeni yapı:
+ * - Öğrenci ana kaydı (master): öğrenci başına tek kayıt, kategorik alanlar sözlük id'si
+ * - Ders kayıtları: ders başına int[] öğrenci id'leri + ders kredi/AKTS sözlük id'leri
+ * - Dışarıya Ogrenci listesi olarak hafif view'lar (AbstractList) ile açılır
+ *
+ * Thread-safety: Global kilit yoktur. Öğrenci id'leri ogrNo başına atomik atanır,
+ * ana kayıtlar sabit boyutlu segmentlerde tutulur (büyürken kopyalama yok),
+ * farklı dersler farklı thread'lerden paralel yazılabilir.
+ */
+public class EnrollmentStore {
+
+    // Kategorik kolon sözlükleri
+    private final StringDictionary isimler = new StringDictionary(4096);
+    private final StringDictionary fakulteler = new StringDictionary();
+    private final StringDictionary bolumler = new StringDictionary(256);
+    private final StringDictionary programlar = new StringDictionary(256);
+    private final StringDictionary siniflar = new StringDictionary(16);
+    private final StringDictionary kayitNedenleri = new StringDictionary(16);
+    private final StringDictionary ogrenimDurumlari = new StringDictionary(16);
+    private final StringDictionary dersDegerleri = new StringDictionary(32); // DERS_KREDI / DERS_AKTS
+
+    // Öğrenci ana kayıtları (id -> kayıt), segment bazlı
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS; // 4096 öğrenci / segment
+    private static final int MAX_SEGMENTS = 1024;               // ~4M öğrenci
+    private final Map<String, Integer> ogrNoIndex = new ConcurrentHashMap<>();
+    // ogrNo'su olmayan satırların index anahtarı öneki (gerçek öğrenci numarasıyla çakışmaz)
+    private static final String ANONIM_ONEK = "\u0000";
+    private final AtomicReferenceArray<AtomicReferenceArray<OgrenciKaydi>> segmentler =
+        new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final AtomicInteger sonrakiId = new AtomicInteger();
+
+    // Tekil öğrenci anahtarı (TC, yoksa ogrNo) -> id; keyset sayfalama için sıralı
+    private final ConcurrentSkipListMap<String, Integer> siraliOgrenciler = new ConcurrentSkipListMap<>();
+    private final AtomicInteger tekilOgrenciSayisi = new AtomicInteger();
+
+    // Ders bazlı kayıtlar
+    private final Map<String, DersKayitlari> dersKayitlari = new ConcurrentHashMap<>();
+
+    /**
+     * Öğrenci ana kaydı - öğrenci başına tek kopya
+     */
+    static final class OgrenciKaydi {
+        final String ogrNo;
+        final String tcKimlikNo;
+        final int adi;
+        final int soyadi;
+        final int fakulte;
+        final int bolum;
+        final int program;
+        final int sinif;
+        final int kayitNeden;
+        final int ogrenimDurum;
+
+        OgrenciKaydi(String ogrNo, String tcKimlikNo, int adi, int soyadi, int fakulte, int bolum,
+                     int program, int sinif, int kayitNeden, int ogrenimDurum) {
+            this.ogrNo = ogrNo;
+            this.tcKimlikNo = tcKimlikNo;
+            this.adi = adi;
+            this.soyadi = soyadi;
+            this.fakulte = fakulte;
+            this.bolum = bolum;
+            this.program = program;
+            this.sinif = sinif;
+            this.kayitNeden = kayitNeden;
+            this.ogrenimDurum = ogrenimDurum;
+        }
+
+        boolean sameAs(OgrenciKaydi other) {
+            return other != null
+                && Objects.equals(tcKimlikNo, other.tcKimlikNo)
+                && adi == other.adi && soyadi == other.soyadi
+                && fakulte == other.fakulte && bolum == other.bolum && program == other.program
+                && sinif == other.sinif && kayitNeden == other.kayitNeden
+                && ogrenimDurum == other.ogrenimDurum;
+        }
+    }
+
+    /**
+     * Bir derse ait kayıt satırları (kolon bazlı)
+     */
+    static final class DersKayitlari {
+        final String dersHarId;
+        final int[] ogrenciIds;
+        final int[] dersKredi;
+        final int[] dersAkts;
+
+        DersKayitlari(String dersHarId, int[] ogrenciIds, int[] dersKredi, int[] dersAkts) {
+            this.dersHarId = dersHarId;
+            this.ogrenciIds = ogrenciIds;
+            this.dersKredi = dersKredi;
+            this.dersAkts = dersAkts;
+        }
+    }
+
+    /**
+     * Bir dersin öğrenci listesini depoya yazar (varsa eskisinin yerine geçer)
+     */
+    public void putDersOgrencileri(String dersHarId, List<Ogrenci> ogrenciler) {
+        int n = ogrenciler.size();
+        int[] ogrenciIds = new int[n];
+        int[] dersKredi = new int[n];
+        int[] dersAkts = new int[n];
+
+        int i = 0;
+        for (Ogrenci ogrenci : ogrenciler) {
+            ogrenciIds[i] = registerOgrenci(ogrenci, indexAnahtari(ogrenci, dersHarId, i));
+            dersKredi[i] = dersDegerleri.encode(ogrenci.getDersKredi());
+            dersAkts[i] = dersDegerleri.encode(ogrenci.getDersAkts());
+            i++;
+        }
+
+        dersKayitlari.put(dersHarId, new DersKayitlari(dersHarId, ogrenciIds, dersKredi, dersAkts));
+    }
+
+    /**
+     * Ana kayıt anahtarı: ogrNo; ogrNo'su olmayan satırlar (eski API bunları da döndürüyordu)
+     * TC'ye, o da yoksa ders içindeki sırasına göre sentetik anahtarla anonim ana kayıt olur
+     */
+    private static String indexAnahtari(Ogrenci ogrenci, String dersHarId, int sira) {
+        if (ogrenci.getOgrNo() != null) {
+            return ogrenci.getOgrNo();
+        }
+        String tc = ogrenci.getTcKimlikNo();
+        return tc != null && !tc.isEmpty() ? ANONIM_ONEK + "tc:" + tc : ANONIM_ONEK + dersHarId + "#" + sira;
+    }
+
+    /**
+     * Öğrenciyi ana kayıtlara ekler/günceller ve id'sini döndürür
+     */
+    private int registerOgrenci(Ogrenci ogrenci, String anahtar) {
+        OgrenciKaydi kayit = new OgrenciKaydi(
+            ogrenci.getOgrNo(),
+            ogrenci.getTcKimlikNo(),
+            isimler.encode(ogrenci.getAdi()),
+            isimler.encode(ogrenci.getSoyadi()),
+            fakulteler.encode(ogrenci.getFakulte()),
+            bolumler.encode(ogrenci.getBolum()),
+            programlar.encode(ogrenci.getProgram()),
+            siniflar.encode(ogrenci.getSinif()),
+            kayitNedenleri.encode(ogrenci.getKayitNeden()),
+            ogrenimDurumlari.encode(ogrenci.getOgrenimDurum())
+        );
+
+        // Id ataması ogrNo bazında atomik; kayıt index'e girmeden slot'a yazılır
+        boolean[] yeni = {false};
+        int id = ogrNoIndex.computeIfAbsent(anahtar, k -> {
+            int yeniId = sonrakiId.getAndIncrement();
+            segment(yeniId).set(yeniId & (SEGMENT_SIZE - 1), kayit);
+            yeni[0] = true;
+            return yeniId;
+        });
+        String tekilAnahtar = tekilAnahtar(kayit);
+        if (yeni[0] && tekilAnahtar != null && siraliOgrenciler.putIfAbsent(tekilAnahtar, id) == null) {
+            tekilOgrenciSayisi.incrementAndGet();
+        }
+
+        AtomicReferenceArray<OgrenciKaydi> segment = segment(id);
+        int slot = id & (SEGMENT_SIZE - 1);
+        OgrenciKaydi mevcut = segment.get(slot);
+        // Değişmediyse aynı objeyi koru (gereksiz allocation yok)
+        if (mevcut != kayit && !kayit.sameAs(mevcut)) {
+            segment.set(slot, kayit);
+        }
+        return id;
+    }
+
+    /**
+     * Id'nin segmentini döndürür, yoksa oluşturur (CAS ile)
+     */
+    private AtomicReferenceArray<OgrenciKaydi> segment(int id) {
+        int index = id >>> SEGMENT_BITS;
+        if (index >= MAX_SEGMENTS) {
+            throw new IllegalStateException("EnrollmentStore kapasitesi aşıldı: " + id);
+        }
+        AtomicReferenceArray<OgrenciKaydi> segment = segmentler.get(index);
+        if (segment == null) {
+            segmentler.compareAndSet(index, null, new AtomicReferenceArray<>(SEGMENT_SIZE));
+            segment = segmentler.get(index);
+        }
+        return segment;
+    }
+
+    private OgrenciKaydi kayit(int id) {
+        AtomicReferenceArray<OgrenciKaydi> segment = segmentler.get(id >>> SEGMENT_BITS);
+        return segment != null ? segment.get(id & (SEGMENT_SIZE - 1)) : null;
+    }
+
+    public boolean containsDers(String dersHarId) {
+        return dersKayitlari.containsKey(dersHarId);
+    }
+
+    /**
+     * Dersin öğrencilerini hafif bir view olarak döndürür (ders yoksa null)
+     */
+    public List<Ogrenci> getOgrenciler(String dersHarId) {
+        DersKayitlari kayitlar = dersKayitlari.get(dersHarId);
+        return kayitlar != null ? new DersOgrenciView(kayitlar) : null;
+    }
+
+    /**
+     * Dersteki öğrenci numaralarını döndürür (Ogrenci objesi oluşturmadan, ders yoksa null)
+     */
+    public Set<String> getOgrNolari(String dersHarId) {
+        DersKayitlari kayitlar = dersKayitlari.get(dersHarId);
+        if (kayitlar == null) {
+            return null;
+        }
+        Set<String> ogrNolari = new HashSet<>(kayitlar.ogrenciIds.length * 4 / 3 + 1);
+        for (int id : kayitlar.ogrenciIds) {
+            OgrenciKaydi kayit = kayit(id);
+            if (kayit != null && kayit.ogrNo != null) {
+                ogrNolari.add(kayit.ogrNo);
+            }
+        }
+        return ogrNolari;
+    }
+
+    /**
+     * Derslerin öğrencilerini öğrenci id'si BitSet'i olarak birleştirir
+     * Birden çok derse kayıtlı öğrenci tek bit olur (tekilleştirme ücretsiz)
+     *
+     * @param sinif null değilse sadece bu sınıftaki öğrenciler (büyük/küçük harf duyarsız)
+     */
+    public BitSet ogrenciKumesi(Collection<String> dersHarIdleri, String sinif) {
+        BitSet kume = new BitSet(sonrakiId.get());
+        for (String dersHarId : dersHarIdleri) {
+            DersKayitlari kayitlar = dersKayitlari.get(dersHarId);
+            if (kayitlar != null) {
+                for (int id : kayitlar.ogrenciIds) {
+                    kume.set(id);
+                }
+            }
+        }
+
+        if (sinif != null) {
+            int sinifId = siniflar.lookupIgnoreCase(sinif);
+            for (int id = kume.nextSetBit(0); id >= 0; id = kume.nextSetBit(id + 1)) {
+                OgrenciKaydi kayit = kayit(id);
+                if (kayit == null || sinifId == StringDictionary.NULL_ID || kayit.sinif != sinifId) {
+                    kume.clear(id);
+                }
+            }
+        }
+        return kume;
+    }
+
+    /**
+     * Öğrenci id kümesini öğrenci numaralarına çevirir
+     */
+    public List<String> getOgrNolari(BitSet ogrenciKumesi) {
+        List<String> ogrNolari = new ArrayList<>(ogrenciKumesi.cardinality());
+        for (int id = ogrenciKumesi.nextSetBit(0); id >= 0; id = ogrenciKumesi.nextSetBit(id + 1)) {
+            OgrenciKaydi kayit = kayit(id);
+            if (kayit != null && kayit.ogrNo != null) {
+                ogrNolari.add(kayit.ogrNo);
+            }
+        }
+        return ogrNolari;
+    }
+
+    public Set<String> getDersHarIdleri() {
+        return Collections.unmodifiableSet(dersKayitlari.keySet());
+    }
+
+    /**
+     * Öğrenci numarasına göre ana kaydı Ogrenci olarak döndürür (ders alanları boş)
+     */
+    public Ogrenci getOgrenci(String ogrNo) {
+        if (ogrNo == null) {
+            return null;
+        }
+        Integer id = ogrNoIndex.get(ogrNo);
+        OgrenciKaydi kayit = id != null ? kayit(id) : null;
+        return kayit != null ? toOgrenci(kayit, null, StringDictionary.NULL_ID, StringDictionary.NULL_ID) : null;
+    }
+
+    /**
+     * Tüm benzersiz öğrenciler üzerinde gezinir (her öğrenci bir kez)
+     */
+    public void forEachOgrenci(Consumer<Ogrenci> consumer) {
+        int count = sonrakiId.get();
+        for (int i = 0; i < count; i++) {
+            OgrenciKaydi kayit = kayit(i);
+            if (kayit != null) {
+                consumer.accept(toOgrenci(kayit, null, StringDictionary.NULL_ID, StringDictionary.NULL_ID));
+            }
+        }
+    }
+
+    /**
+     * Tekil öğrenciler (TC, yoksa ogrNo bazında) üzerinde anahtar sırasıyla gezinir
+     * Tekilleştirme sıralı index'ten gelir, ek küme tutulmaz
+     */
+    public void forEachTekilOgrenci(Consumer<Ogrenci> consumer) {
+        for (Integer id : siraliOgrenciler.values()) {
+            Ogrenci ogrenci = anaKayitOgrenci(id);
+            if (ogrenci != null) {
+                consumer.accept(ogrenci);
+            }
+        }
+    }
+
+    /**
+     * Fakültesi verilen değere eşit (büyük/küçük harf duyarsız) tekil öğrenciler, anahtar sırasıyla
+     */
+    public void forEachTekilOgrenciByFakulte(String fakulte, Consumer<Ogrenci> consumer) {
+        forEachTekilOgrenci(fakulteler.lookupIgnoreCase(fakulte), kayit -> kayit.fakulte, consumer);
+    }
+
+    /**
+     * Bölümü verilen değere eşit (büyük/küçük harf duyarsız) tekil öğrenciler, anahtar sırasıyla
+     */
+    public void forEachTekilOgrenciByBolum(String bolum, Consumer<Ogrenci> consumer) {
+        forEachTekilOgrenci(bolumler.lookupIgnoreCase(bolum), kayit -> kayit.bolum, consumer);
+    }
+
+    /**
+     * Sınıfı verilen değere eşit (büyük/küçük harf duyarsız) tekil öğrenciler, anahtar sırasıyla
+     */
+    public void forEachTekilOgrenciBySinif(String sinif, Consumer<Ogrenci> consumer) {
+        forEachTekilOgrenci(siniflar.lookupIgnoreCase(sinif), kayit -> kayit.sinif, consumer);
+    }
+
+    /**
+     * Değer bir kez sözlük id'sine çevrilir, karşılaştırma int kolonda yapılır;
+     * Ogrenci sadece eşleşen kayıtlar için oluşturulur
+     */
+    private void forEachTekilOgrenci(int degerId, ToIntFunction<OgrenciKaydi> kolon, Consumer<Ogrenci> consumer) {
+        if (degerId == StringDictionary.NULL_ID) {
+            return;
+        }
+        for (Integer id : siraliOgrenciler.values()) {
+            OgrenciKaydi kayit = kayit(id);
+            if (kayit != null && kolon.applyAsInt(kayit) == degerId) {
+                consumer.accept(toOgrenci(kayit, null, StringDictionary.NULL_ID, StringDictionary.NULL_ID));
+            }
+        }
+    }
+
+    /**
+     * Tekil öğrenciler (TC, yoksa ogrNo bazında) üzerinden anahtar sıralı sayfa okur
+     *
+     * @param sonrakiAnahtar önceki sayfanın son anahtarı (hariç), ilk sayfa için null
+     */
+    public KeysetSayfa<Ogrenci> ogrenciSayfasi(String sonrakiAnahtar, int limit) {
+        return KeysetSayfa.oku(siraliOgrenciler, sonrakiAnahtar, limit, this::anaKayitOgrenci);
+    }
+
+    /**
+     * Eski page/size istemcileri için offset bazlı okuma (liste oluşturmadan)
+     */
+    public KeysetSayfa<Ogrenci> ogrenciSayfasiOffset(long offset, int limit) {
+        return KeysetSayfa.okuOffset(siraliOgrenciler, offset, limit, this::anaKayitOgrenci);
+    }
+
+    /**
+     * TC veya ogrNo bazında tekil öğrenci sayısı
+     */
+    public int tekilOgrenciSayisi() {
+        return tekilOgrenciSayisi.get();
+    }
+
+    private Ogrenci anaKayitOgrenci(int id) {
+        OgrenciKaydi kayit = kayit(id);
+        return kayit != null ? toOgrenci(kayit, null, StringDictionary.NULL_ID, StringDictionary.NULL_ID) : null;
+    }
+
+    /**
+     * TC, yoksa ogrNo; ikisi de yoksa null (tekil öğrenci listelerine girmez)
+     */
+    private static String tekilAnahtar(OgrenciKaydi kayit) {
+        return kayit.tcKimlikNo != null && !kayit.tcKimlikNo.isEmpty() ? kayit.tcKimlikNo : kayit.ogrNo;
+    }
+
+    public int dersSayisi() {
+        return dersKayitlari.size();
+    }
+
+    /**
+     * Ana kayıt sayısı (ogrNo'suz anonim satırlar dahil)
+     */
+    public int ogrenciSayisi() {
+        return ogrNoIndex.size();
+    }
+
+    /**
+     * Toplam ders-öğrenci kayıt sayısı
+     */
+    public long kayitSayisi() {
+        long total = 0;
+        for (DersKayitlari kayitlar : dersKayitlari.values()) {
+            total += kayitlar.ogrenciIds.length;
+        }
+        return total;
+    }
+
+    /**
+     * Depo istatistikleri (monitoring için)
+     */
+    public Map<String, Object> getIstatistikler() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("dersSayisi", dersSayisi());
+        stats.put("ogrenciSayisi", ogrenciSayisi());
+        stats.put("tekilOgrenciSayisi", tekilOgrenciSayisi());
+        stats.put("kayitSayisi", kayitSayisi());
+        stats.put("sozlukIsim", isimler.size());
+        stats.put("sozlukFakulte", fakulteler.size());
+        stats.put("sozlukBolum", bolumler.size());
+        stats.put("sozlukProgram", programlar.size());
+        stats.put("sozlukSinif", siniflar.size());
+        return stats;
+    }
+
+    private Ogrenci toOgrenci(OgrenciKaydi kayit, String dersHarId, int dersKredi, int dersAkts) {
+        Ogrenci ogrenci = new Ogrenci(kayit.ogrNo, kayit.tcKimlikNo, isimler.decode(kayit.adi), isimler.decode(kayit.soyadi));
+        ogrenci.setFakulte(fakulteler.decode(kayit.fakulte));
+        ogrenci.setBolum(bolumler.decode(kayit.bolum));
+        ogrenci.setProgram(programlar.decode(kayit.program));
+        ogrenci.setSinif(siniflar.decode(kayit.sinif));
+        ogrenci.setKayitNeden(kayitNedenleri.decode(kayit.kayitNeden));
+        ogrenci.setOgrenimDurum(ogrenimDurumlari.decode(kayit.ogrenimDurum));
+        ogrenci.setDersKredi(dersDegerleri.decode(dersKredi));
+        ogrenci.setDersAkts(dersDegerleri.decode(dersAkts));
+        ogrenci.setDersHarId(dersHarId);
+        return ogrenci;
+    }
+
+    /**
+     * Ders kayıtlarını Ogrenci listesi olarak gösteren read-only view
+     * Ogrenci objeleri sadece erişildiğinde (serialize sırasında) oluşturulur
+     */
+    private final class DersOgrenciView extends AbstractList<Ogrenci> implements RandomAccess {
+
+        private final DersKayitlari kayitlar;
+
+        DersOgrenciView(DersKayitlari kayitlar) {
+            this.kayitlar = kayitlar;
+        }
+
+        @Override
+        public Ogrenci get(int index) {
+            return toOgrenci(
+                kayit(kayitlar.ogrenciIds[index]),
+                kayitlar.dersHarId,
+                kayitlar.dersKredi[index],
+                kayitlar.dersAkts[index]
+            );
+        }
+
+        @Override
+        public int size() {
+            return kayitlar.ogrenciIds.length;
+        }
+    }
+}
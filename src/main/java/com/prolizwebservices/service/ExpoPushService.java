@@ -1,67 +1,243 @@
 package com.prolizwebservices.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prolizwebservices.model.notification.PushDispatchResult;
+import com.prolizwebservices.model.notification.PushTicketResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Service for sending push notifications via Expo Push Service
+ *
+ * Messages are split into chunks of at most expo.push.chunk-size (Expo accepts 100 per request)
+ * and sent concurrently on expoPushExecutor, whose pool size bounds the number of in-flight
+ * requests. Each chunk's response is parsed ticket by ticket so sent/failed counts are exact.
  */
 @Service
 @Slf4j
 public class ExpoPushService {
-    
-    private static final String EXPO_PUSH_URL = "https://exp.host/--/api/v2/push/send";
-    private final RestTemplate restTemplate = new RestTemplate();
-    
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor expoPushExecutor;
+    private final MeterRegistry meterRegistry;
+    private final String pushUrl;
+    private final String receiptsUrl;
+    private final int chunkSize;
+    private final boolean gzipEnabled;
+
+    public ExpoPushService(ObjectMapper objectMapper,
+                           @Qualifier("expoPushExecutor") Executor expoPushExecutor,
+                           MeterRegistry meterRegistry,
+                           @Value("${expo.push.url:https://exp.host/--/api/v2/push/send}") String pushUrl,
+                           @Value("${expo.receipts.url:https://exp.host/--/api/v2/push/getReceipts}") String receiptsUrl,
+                           @Value("${expo.push.chunk-size:100}") int chunkSize,
+                           @Value("${expo.push.gzip:true}") boolean gzipEnabled,
+                           @Value("${expo.push.timeout.connect:10000}") int connectTimeout,
+                           @Value("${expo.push.timeout.read:30000}") int readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.objectMapper = objectMapper;
+        this.expoPushExecutor = expoPushExecutor;
+        this.meterRegistry = meterRegistry;
+        this.pushUrl = pushUrl;
+        this.receiptsUrl = receiptsUrl;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, 100));
+        this.gzipEnabled = gzipEnabled;
+    }
+
     /**
      * Send push notifications to multiple devices
+     * Blocks until every chunk has completed; never throws for delivery errors
      */
-    public Map<String, Object> sendPushNotifications(
+    public PushDispatchResult sendPushNotifications(
             List<String> tokens,
             String title,
             String body,
             Map<String, Object> data,
             String channelId) {
-        
+
         if (tokens == null || tokens.isEmpty()) {
             log.warn("No tokens provided for push notification");
-            return Map.of("success", false, "error", "No tokens provided");
+            return new PushDispatchResult(0, 0, 0, Collections.emptyList());
+        }
+
+        List<Map<String, Object>> messages = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            messages.add(createMessage(token, title, body, data, channelId));
         }
-        
-        List<Map<String, Object>> messages = tokens.stream()
-            .map(token -> createMessage(token, title, body, data, channelId))
-            .collect(Collectors.toList());
-        
+
+        // Split into chunks and send them concurrently
+        List<CompletableFuture<List<PushTicketResult>>> futures = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            List<Map<String, Object>> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> sendChunk(chunk), expoPushExecutor));
+        }
+
+        List<PushTicketResult> tickets = new ArrayList<>(messages.size());
+        int sentCount = 0;
+        for (CompletableFuture<List<PushTicketResult>> future : futures) {
+            for (PushTicketResult ticket : future.join()) {
+                tickets.add(ticket);
+                if (ticket.isOk()) {
+                    sentCount++;
+                }
+            }
+        }
+        int failedCount = tickets.size() - sentCount;
+
+        log.info("Push dispatch finished: {} messages in {} chunks, {} ok, {} failed",
+            messages.size(), futures.size(), sentCount, failedCount);
+
+        return new PushDispatchResult(sentCount, failedCount, futures.size(), tickets);
+    }
+
+    /**
+     * Send one chunk (max 100 messages) and map the response to one ticket per message
+     */
+    private List<PushTicketResult> sendChunk(List<Map<String, Object>> chunk) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ERROR";
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<List<Map<String, Object>>> request = new HttpEntity<>(messages, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(EXPO_PUSH_URL, request, Map.class);
-            
-            log.info("Push notification sent to {} devices. Status: {}", tokens.size(), response.getStatusCode());
-            
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", true);
-            result.put("statusCode", response.getStatusCode().value());
-            result.put("response", response.getBody());
-            
-            return result;
-            
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+            byte[] payload = objectMapper.writeValueAsBytes(chunk);
+            if (gzipEnabled) {
+                payload = gzip(payload);
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+
+            HttpEntity<byte[]> request = new HttpEntity<>(payload, headers);
+            ResponseEntity<Map> response = restTemplate.postForEntity(pushUrl, request, Map.class);
+
+            List<PushTicketResult> tickets = parseTickets(chunk, response.getBody());
+            outcome = "SUCCESS";
+            return tickets;
+
+        } catch (RestClientResponseException e) {
+            log.error("Expo push request rejected - HTTP {}: {}", e.getStatusCode().value(), e.getResponseBodyAsString());
+            return failAll(chunk, "HTTP_" + e.getStatusCode().value(), e.getMessage());
         } catch (Exception e) {
-            log.error("Error sending push notification", e);
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", false);
-            result.put("error", e.getMessage());
-            return result;
+            log.error("Error sending push notification chunk ({} messages): {}", chunk.size(), e.getMessage());
+            return failAll(chunk, "REQUEST_FAILED", e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("expo.push.requests")
+                .description("Expo push chunk request duration")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Expo returns {"data": [ticket...]} in the same order as the request messages.
+     * A ticket is either {"status":"ok","id":...} or {"status":"error","message":...,"details":{"error":...}}
+     */
+    @SuppressWarnings("unchecked")
+    private List<PushTicketResult> parseTickets(List<Map<String, Object>> chunk, Map<?, ?> body) {
+        Object data = body != null ? body.get("data") : null;
+        if (!(data instanceof List)) {
+            Object errors = body != null ? body.get("errors") : null;
+            return failAll(chunk, "INVALID_RESPONSE", errors != null ? errors.toString() : "Response has no data");
         }
+
+        List<Object> ticketList = (List<Object>) data;
+        List<PushTicketResult> tickets = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String token = (String) chunk.get(i).get("to");
+            Object item = i < ticketList.size() ? ticketList.get(i) : null;
+            if (!(item instanceof Map)) {
+                tickets.add(new PushTicketResult(token, false, null, "MISSING_TICKET", "No ticket returned for message"));
+                continue;
+            }
+
+            Map<String, Object> ticket = (Map<String, Object>) item;
+            if ("ok".equals(ticket.get("status"))) {
+                tickets.add(new PushTicketResult(token, true, (String) ticket.get("id"), null, null));
+            } else {
+                tickets.add(new PushTicketResult(token, false, null, errorCode(ticket), (String) ticket.get("message")));
+            }
+        }
+        return tickets;
+    }
+
+    /**
+     * Fetch receipts for up to 1000 ticket ids
+     * Ids missing from the result have no receipt yet (or it expired); throws on HTTP failure
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, PushTicketResult> fetchReceipts(List<String> ticketIds) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        HttpEntity<byte[]> request = new HttpEntity<>(objectMapper.writeValueAsBytes(Map.of("ids", ticketIds)), headers);
+        ResponseEntity<Map> response = restTemplate.postForEntity(receiptsUrl, request, Map.class);
+
+        Object data = response.getBody() != null ? response.getBody().get("data") : null;
+        if (!(data instanceof Map)) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, PushTicketResult> receipts = new HashMap<>();
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) data).entrySet()) {
+            if (!(entry.getValue() instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> receipt = (Map<String, Object>) entry.getValue();
+            if ("ok".equals(receipt.get("status"))) {
+                receipts.put(entry.getKey(), new PushTicketResult(null, true, entry.getKey(), null, null));
+            } else {
+                receipts.put(entry.getKey(), new PushTicketResult(null, false, entry.getKey(),
+                    errorCode(receipt), (String) receipt.get("message")));
+            }
+        }
+        return receipts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String errorCode(Map<String, Object> ticketOrReceipt) {
+        Object details = ticketOrReceipt.get("details");
+        if (details instanceof Map && ((Map<String, Object>) details).get("error") != null) {
+            return ((Map<String, Object>) details).get("error").toString();
+        }
+        return "UNKNOWN";
     }
-    
+
+    private static List<PushTicketResult> failAll(List<Map<String, Object>> chunk, String error, String message) {
+        List<PushTicketResult> tickets = new ArrayList<>(chunk.size());
+        for (Map<String, Object> msg : chunk) {
+            tickets.add(new PushTicketResult((String) msg.get("to"), false, null, error, message));
+        }
+        return tickets;
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(payload);
+        }
+        return out.toByteArray();
+    }
+
     /**
      * Create a single push notification message
      */
@@ -71,7 +247,7 @@ public class ExpoPushService {
             String body,
             Map<String, Object> data,
             String channelId) {
-        
+
         Map<String, Object> message = new HashMap<>();
         message.put("to", token);
         message.put("sound", "default");
@@ -80,19 +256,19 @@ public class ExpoPushService {
         message.put("data", data != null ? data : new HashMap<>());
         message.put("priority", "high");
         message.put("channelId", channelId != null ? channelId : "default");
-        
+
         return message;
     }
-    
+
     /**
      * Send a single push notification
      */
-    public Map<String, Object> sendSingleNotification(
+    public PushDispatchResult sendSingleNotification(
             String token,
             String title,
             String body,
             Map<String, Object> data) {
-        
+
         return sendPushNotifications(List.of(token), title, body, data, "default");
     }
 }
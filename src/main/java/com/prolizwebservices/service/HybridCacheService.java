@@ -5,6 +5,8 @@ import com.prolizwebservices.entity.CachedSoapResponse;
 import com.prolizwebservices.entity.CacheMetrics;
 import com.prolizwebservices.repository.CachedSoapResponseRepository;
 import com.prolizwebservices.repository.CacheMetricsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,6 +61,9 @@ public class HybridCacheService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${cache.strategy.redis.enabled:true}")
     private volatile boolean redisEnabled;
 
@@ -83,29 +88,29 @@ public class HybridCacheService {
      * @return Cache'lenmiş veya yeni çekilmiş veri
      */
     public String getOrFetch(String cacheKey, String serviceMethod, Supplier<String> dataSupplier) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         String result = null;
-        String source = null;
+        String source = "ERROR";
 
         try {
             // L1: Redis Cache
             if (redisEnabled) {
-                result = getFromRedis(cacheKey);
+                result = katmanOku("redis", () -> getFromRedis(cacheKey));
                 if (result != null) {
                     source = "REDIS";
                     logger.debug("✅ Cache HIT (Redis): {}", cacheKey);
-                    recordMetric(serviceMethod, "REDIS_HIT");
+                    recordMetric(serviceMethod, "REDIS_HIT", gecenMs(startTime));
                     return result;
                 }
             }
 
             // L2: Disk Cache
             if (diskEnabled) {
-                result = getFromDisk(cacheKey);
+                result = katmanOku("disk", () -> getFromDisk(cacheKey));
                 if (result != null) {
                     source = "DISK";
                     logger.debug("✅ Cache HIT (Disk): {}", cacheKey);
-                    recordMetric(serviceMethod, "DISK_HIT");
+                    recordMetric(serviceMethod, "DISK_HIT", gecenMs(startTime));
                     
                     // Disk'ten bulundu, Redis'e de yaz (promotion)
                     if (redisEnabled) {
@@ -117,11 +122,11 @@ public class HybridCacheService {
 
             // L3: Database Cache
             if (databaseEnabled) {
-                result = getFromDatabase(cacheKey);
+                result = katmanOku("database", () -> getFromDatabase(cacheKey));
                 if (result != null) {
                     source = "DATABASE";
                     logger.debug("✅ Cache HIT (Database): {}", cacheKey);
-                    recordMetric(serviceMethod, "DATABASE_HIT");
+                    recordMetric(serviceMethod, "DATABASE_HIT", gecenMs(startTime));
                     
                     // Database'den bulundu, üst katmanlara yaz (promotion)
                     if (diskEnabled) {
@@ -135,12 +140,15 @@ public class HybridCacheService {
             }
 
             // Cache MISS - SOAP'tan çek
-            logger.info("❌ Cache MISS: {} - SOAP çağrısı yapılıyor", cacheKey);
-            recordMetric(serviceMethod, "CACHE_MISS");
-            recordMetric(serviceMethod, "SOAP_CALL");
+            logger.debug("❌ Cache MISS: {} - SOAP çağrısı yapılıyor", cacheKey);
+            recordMetric(serviceMethod, "CACHE_MISS", null);
             
-            result = dataSupplier.get();
-            source = "SOAP";
+            try {
+                result = dataSupplier.get();
+                source = "SOAP";
+            } finally {
+                recordMetric(serviceMethod, "SOAP_CALL", gecenMs(startTime));
+            }
 
             // Tüm katmanlara yaz
             if (result != null && !result.isEmpty()) {
@@ -150,10 +158,35 @@ public class HybridCacheService {
             return result;
 
         } finally {
-            long duration = System.currentTimeMillis() - startTime;
-            logger.debug("Cache operation completed: {} ms (source: {})", duration, source);
+            long durationNanos = System.nanoTime() - startTime;
+            Timer.builder("cache.fetch")
+                .description("Hybrid cache okuma süresi (kaynak bazında)")
+                .tag("method", serviceMethod)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+            logger.debug("Cache operation completed: {} ms (source: {})", durationNanos / 1_000_000, source);
         }
     }
+
+    /**
+     * Tek bir cache katmanını okur ve süresini hit/miss olarak kaydeder
+     */
+    private String katmanOku(String katman, Supplier<String> okuma) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String value = okuma.get();
+        sample.stop(Timer.builder("cache.tier.lookups")
+            .description("Cache katmanı okuma süresi")
+            .tag("tier", katman)
+            .tag("result", value != null ? "hit" : "miss")
+            .register(meterRegistry));
+        return value;
+    }
+
+    private static double gecenMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
     /**
      * Redis'ten veri oku
      */
@@ -299,7 +332,7 @@ public class HybridCacheService {
         if (databaseEnabled) {
             saveToDatabase(cacheKey, serviceMethod, data);
         }
-        logger.info("✅ Cache yazıldı (tüm katmanlar): {}", cacheKey);
+        logger.debug("✅ Cache yazıldı (tüm katmanlar): {}", cacheKey);
     }
 
     /**
@@ -363,8 +396,9 @@ public class HybridCacheService {
 
     /**
      * Metrik kaydet
+     * Süre verilirse (hit veya SOAP çağrısı) günlük ortalama yanıt süresi de güncellenir
      */
-    private void recordMetric(String serviceMethod, String metricType) {
+    private void recordMetric(String serviceMethod, String metricType, Double durationMs) {
         try {
             LocalDateTime today = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
             
@@ -396,6 +430,13 @@ public class HybridCacheService {
                     metrics.setSoapCalls(metrics.getSoapCalls() + 1);
                     break;
             }
+
+            if (durationMs != null) {
+                // Artımlı ortalama: örnek sayısı = hit + SOAP çağrısı (her istek bunlardan biriyle biter)
+                long ornekSayisi = metrics.getCacheHits() + metrics.getSoapCalls();
+                double ortalama = metrics.getAvgResponseTime();
+                metrics.setAvgResponseTime(ortalama + (durationMs - ortalama) / Math.max(1, ornekSayisi));
+            }
             
             metricsRepository.save(metrics);
             
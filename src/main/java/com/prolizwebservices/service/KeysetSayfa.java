@@ -0,0 +1,71 @@
+package com.prolizwebservices.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+/**
+ * Sıralı (NavigableMap) bir index üzerinden okunmuş tek sayfa
+ *
+ * Sayfa, son anahtardan sonraki kayıtlardan okunur (tailMap); maliyeti sayfa boyutu kadardır
+ * ve araya yeni kayıt girse bile önceki sayfalardaki kayıtlar kaymaz/tekrarlanmaz.
+ */
+public final class KeysetSayfa<T> {
+
+    private final List<T> icerik;
+    private final String sonAnahtar;
+    private final boolean devamVar;
+
+    private KeysetSayfa(List<T> icerik, String sonAnahtar, boolean devamVar) {
+        this.icerik = icerik;
+        this.sonAnahtar = sonAnahtar;
+        this.devamVar = devamVar;
+    }
+
+    /**
+     * Verilen anahtardan (hariç) sonraki en fazla limit kaydı okur
+     *
+     * @param sonrakiAnahtar önceki sayfanın son anahtarı, ilk sayfa için null
+     */
+    public static <V, T> KeysetSayfa<T> oku(NavigableMap<String, V> index, String sonrakiAnahtar, int limit,
+                                            Function<V, T> donustur) {
+        NavigableMap<String, V> kalan = sonrakiAnahtar != null ? index.tailMap(sonrakiAnahtar, false) : index;
+        return topla(kalan.entrySet().iterator(), limit, donustur);
+    }
+
+    /**
+     * Eski page/size istemcileri için: ilk offset kaydı atlayıp okur (liste kopyalanmaz)
+     */
+    public static <V, T> KeysetSayfa<T> okuOffset(NavigableMap<String, V> index, long offset, int limit,
+                                                  Function<V, T> donustur) {
+        Iterator<Map.Entry<String, V>> it = index.entrySet().iterator();
+        for (long i = 0; i < offset && it.hasNext(); i++) {
+            it.next();
+        }
+        return topla(it, limit, donustur);
+    }
+
+    private static <V, T> KeysetSayfa<T> topla(Iterator<Map.Entry<String, V>> it, int limit, Function<V, T> donustur) {
+        List<T> icerik = new ArrayList<>(limit);
+        String sonAnahtar = null;
+        while (icerik.size() < limit && it.hasNext()) {
+            Map.Entry<String, V> entry = it.next();
+            T item = donustur.apply(entry.getValue());
+            if (item != null) {
+                icerik.add(item);
+                sonAnahtar = entry.getKey();
+            }
+        }
+        return new KeysetSayfa<>(icerik, sonAnahtar, it.hasNext());
+    }
+
+    public List<T> getIcerik() { return icerik; }
+
+    /** Bu sayfadaki son kaydın anahtarı (boş sayfada null) */
+    public String getSonAnahtar() { return sonAnahtar; }
+
+    public boolean isDevamVar() { return devamVar; }
+}
@@ -0,0 +1,403 @@
+package com.prolizwebservices.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prolizwebservices.entity.NotificationHistory;
+import com.prolizwebservices.entity.NotificationOutbox;
+import com.prolizwebservices.entity.NotificationOutbox.Status;
+import com.prolizwebservices.exception.ValidationException;
+import com.prolizwebservices.model.notification.NotificationJobStatus;
+import com.prolizwebservices.model.notification.SendNotificationRequest;
+import com.prolizwebservices.model.notification.SendNotificationResponse;
+import com.prolizwebservices.repository.NotificationOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous notification outbox
+ *
+ * Send requests are stored in notification_outbox and acknowledged with a job id. Workers claim
+ * due jobs in short transactions (FOR UPDATE SKIP LOCKED), then resolve recipients and call Expo
+ * outside any transaction, so neither a Tomcat thread nor a Hikari connection waits on Expo.
+ * Delivery is at-least-once: a job left in PROCESSING by a crashed worker is re-queued after
+ * the stale window. Each claim holds a lease (lockedBy is unique per claim) that the worker
+ * renews while the send runs; the renew interval is one worst-case Expo request
+ * (expo.push.timeout.connect + read) and the stale window is at least three of them. The final
+ * status update is applied only while the lease is still held, so a job re-queued by stale
+ * recovery is never overwritten by its previous worker.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxService {
+
+    private static final long CACHE_WAIT_SECONDS = 30;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final DataCacheService cacheService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor workerExecutor;
+    private final TaskScheduler taskScheduler;
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration staleWindow;
+    private final Duration heartbeatInterval;
+    private final long retentionDays;
+
+    private final String workerId = truncate(ManagementFactory.getRuntimeMXBean().getName(), 90);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     NotificationService notificationService,
+                                     DataCacheService cacheService,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Qualifier("notificationWorkerExecutor") Executor workerExecutor,
+                                     @Qualifier("notificationTaskScheduler") TaskScheduler taskScheduler,
+                                     @Value("${notification.outbox.workers:4}") int workers,
+                                     @Value("${notification.outbox.batch-size:10}") int batchSize,
+                                     @Value("${notification.outbox.max-attempts:3}") int maxAttempts,
+                                     @Value("${notification.outbox.stale-minutes:10}") long staleMinutes,
+                                     @Value("${notification.outbox.retention-days:14}") long retentionDays,
+                                     @Value("${expo.push.timeout.connect:10000}") long expoConnectTimeoutMs,
+                                     @Value("${expo.push.timeout.read:30000}") long expoReadTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.cacheService = cacheService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workerExecutor = workerExecutor;
+        this.taskScheduler = taskScheduler;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+
+        // One Expo request can block a worker for connect + read timeout: renew at least that often
+        this.heartbeatInterval = Duration.ofMillis(Math.max(10_000, expoConnectTimeoutMs + expoReadTimeoutMs));
+        Duration minimumStale = heartbeatInterval.multipliedBy(3);
+        Duration configured = Duration.ofMinutes(staleMinutes);
+        if (configured.compareTo(minimumStale) < 0) {
+            log.warn("notification.outbox.stale-minutes={} is shorter than three lease renewals ({}s), using {}s",
+                staleMinutes, minimumStale.toSeconds(), minimumStale.toSeconds());
+        }
+        this.staleWindow = configured.compareTo(minimumStale) < 0 ? minimumStale : configured;
+    }
+
+    /**
+     * Validate and store a send request; returns immediately with the PENDING job
+     */
+    public NotificationJobStatus enqueue(SendNotificationRequest request, NotificationHistory.RecipientType recipientType) {
+        validate(request, recipientType);
+
+        NotificationOutbox job = new NotificationOutbox();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setAcademicId(request.getAcademicId());
+        job.setLessonId(request.getLessonId());
+        job.setRecipientType(recipientType);
+        job.setStatus(Status.PENDING);
+        try {
+            job.setPayload(objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request could not be serialized: " + e.getMessage(), e);
+        }
+        job = outboxRepository.save(job);
+
+        log.info("Notification job {} queued ({} for lesson {})", job.getJobId(), recipientType, job.getLessonId());
+
+        // Don't wait for the next poll tick
+        taskScheduler.schedule(this::poll, Instant.now());
+        return toStatus(job);
+    }
+
+    /**
+     * Job status by job id (null if unknown or purged)
+     */
+    public NotificationJobStatus getJobStatus(String jobId) {
+        return outboxRepository.findByJobId(jobId).map(this::toStatus).orElse(null);
+    }
+
+    /**
+     * Claim as many due jobs as there are free workers and hand them to the worker pool
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:2000}")
+    public synchronized void poll() {
+        int free = Math.min(workers - inFlight.get(), batchSize);
+        if (free <= 0) {
+            return;
+        }
+
+        List<NotificationOutbox> claimed;
+        try {
+            claimed = claim(free);
+        } catch (Exception e) {
+            log.warn("Outbox claim failed: {}", e.getMessage());
+            return;
+        }
+
+        for (NotificationOutbox job : claimed) {
+            inFlight.incrementAndGet();
+            try {
+                workerExecutor.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Rejected: release so another poll picks it up
+                inFlight.decrementAndGet();
+                reschedule(job, LocalDateTime.now(), false, "Worker rejected: " + e.getMessage());
+            }
+        }
+    }
+
+    private List<NotificationOutbox> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutbox> jobs = outboxRepository.findClaimable(Status.PENDING, now, PageRequest.of(0, limit));
+            for (NotificationOutbox job : jobs) {
+                job.setStatus(Status.PROCESSING);
+                job.setLockedBy(workerId + "#" + UUID.randomUUID().toString().substring(0, 8));
+                job.setLockedAt(now);
+                job.setAttempts(job.getAttempts() + 1);
+            }
+            return outboxRepository.saveAll(jobs);
+        });
+    }
+
+    /**
+     * Dispatch one claimed job (runs on notificationWorkerExecutor, no surrounding transaction)
+     */
+    private void process(NotificationOutbox job) {
+        // Lesson/class targets need the SOAP data cache; wait for it instead of sending to nobody
+        if (job.getRecipientType() != NotificationHistory.RecipientType.INDIVIDUAL && !cacheService.isInitialized()) {
+            reschedule(job, LocalDateTime.now().plusSeconds(CACHE_WAIT_SECONDS), false, "Cache is still loading");
+            return;
+        }
+
+        ScheduledFuture<?> heartbeat = taskScheduler.scheduleAtFixedRate(() -> renewLease(job),
+            Instant.now().plus(heartbeatInterval), heartbeatInterval);
+        try {
+            SendNotificationResponse response;
+            try {
+                SendNotificationRequest request = objectMapper.readValue(job.getPayload(), SendNotificationRequest.class);
+                response = notificationService.send(request, job.getRecipientType());
+            } catch (Exception e) {
+                // Nothing was dispatched (send() logs its own post-dispatch bookkeeping failures), safe to retry
+                log.error("Notification job {} failed (attempt {}/{}): {}",
+                    job.getJobId(), job.getAttempts(), maxAttempts, e.getMessage());
+                // Exponential backoff: 30s, 60s, 120s ...
+                long delaySeconds = CACHE_WAIT_SECONDS << Math.min(job.getAttempts() - 1, 6);
+                reschedule(job, LocalDateTime.now().plusSeconds(delaySeconds), true, e.getMessage());
+                return;
+            }
+            complete(job, response);
+        } finally {
+            heartbeat.cancel(false);
+        }
+    }
+
+    /**
+     * Record a dispatched job as COMPLETED. A failure here is logged, not rescheduled: re-sending would
+     * push the broadcast twice. A row left PROCESSING is treated like a crashed worker's by stale recovery.
+     */
+    private void complete(NotificationOutbox job, SendNotificationResponse response) {
+        try {
+            boolean updated = updateIfLeased(job, current -> {
+                current.setStatus(Status.COMPLETED);
+                current.setSentCount(response.getSentCount());
+                current.setFailedCount(response.getFailedCount());
+                current.setResultMessage(truncate(response.getMessage(), 500));
+                current.setLastError(null);
+                current.setLockedBy(null);
+                current.setLockedAt(null);
+                current.setCompletedAt(LocalDateTime.now());
+            });
+
+            if (updated) {
+                log.info("Notification job {} completed: {} sent, {} failed",
+                    job.getJobId(), response.getSentCount(), response.getFailedCount());
+            }
+        } catch (Exception e) {
+            log.error("Notification job {} was dispatched ({} sent) but could not be marked completed: {}",
+                job.getJobId(), response.getSentCount(), e.getMessage());
+        }
+    }
+
+    private void renewLease(NotificationOutbox job) {
+        try {
+            if (outboxRepository.renewLease(job.getId(), job.getLockedBy(), Status.PROCESSING, LocalDateTime.now()) == 0) {
+                log.warn("Notification job {} lost its lease while sending; its result will not be recorded",
+                    job.getJobId());
+            }
+        } catch (Exception e) {
+            log.warn("Lease renewal for notification job {} failed: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a final update under a row lock, only if this claim still holds the job
+     *
+     * @return false if the job was released as stale (and possibly claimed again) meanwhile
+     */
+    private boolean updateIfLeased(NotificationOutbox job, Consumer<NotificationOutbox> update) {
+        Boolean updated = transactionTemplate.execute(status -> {
+            NotificationOutbox current = outboxRepository.findByIdForUpdate(job.getId()).orElse(null);
+            if (current == null || current.getStatus() != Status.PROCESSING
+                    || !Objects.equals(current.getLockedBy(), job.getLockedBy())) {
+                return false;
+            }
+            update.accept(current);
+            outboxRepository.save(current);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(updated)) {
+            log.warn("Notification job {} is no longer held by this worker, skipping status update", job.getJobId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Put a job back to PENDING, or mark it FAILED when attempts are exhausted
+     *
+     * @param countAttempt false when the job never actually ran (cache loading, rejected)
+     */
+    private void reschedule(NotificationOutbox job, LocalDateTime nextAttemptAt, boolean countAttempt, String error) {
+        try {
+            updateIfLeased(job, current -> {
+                if (!countAttempt) {
+                    current.setAttempts(Math.max(0, current.getAttempts() - 1));
+                }
+                if (countAttempt && current.getAttempts() >= maxAttempts) {
+                    current.setStatus(Status.FAILED);
+                    current.setCompletedAt(LocalDateTime.now());
+                } else {
+                    current.setStatus(Status.PENDING);
+                    current.setNextAttemptAt(nextAttemptAt);
+                }
+                current.setLastError(truncate(error, 1000));
+                current.setLockedBy(null);
+                current.setLockedAt(null);
+            });
+        } catch (Exception e) {
+            // Stale-lock recovery will return it to the queue
+            log.error("Could not update notification job {}: {}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-queue jobs whose worker died, and purge old finished jobs
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.maintenance-interval-ms:60000}")
+    public void maintenance() {
+        try {
+            int released = outboxRepository.releaseStale(Status.PENDING, Status.PROCESSING,
+                LocalDateTime.now().minus(staleWindow));
+            if (released > 0) {
+                log.warn("Re-queued {} stale notification jobs", released);
+            }
+            int purged = outboxRepository.deleteFinishedBefore(EnumSet.of(Status.COMPLETED, Status.FAILED),
+                LocalDateTime.now().minusDays(retentionDays));
+            if (purged > 0) {
+                log.info("Purged {} finished notification jobs", purged);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queue statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Status status : Status.values()) {
+            stats.put(status.name().toLowerCase(), outboxRepository.countByStatus(status));
+        }
+        stats.put("inFlight", inFlight.get());
+        stats.put("workers", workers);
+        return stats;
+    }
+
+    static void validate(SendNotificationRequest request, NotificationHistory.RecipientType recipientType) {
+        if (request == null || isBlank(request.getTitle()) || isBlank(request.getBody())) {
+            throw new ValidationException("title and body are required", "title", null);
+        }
+        switch (recipientType) {
+            case INDIVIDUAL:
+                if (request.getStudentIds() == null || request.getStudentIds().isEmpty()) {
+                    throw new ValidationException("studentIds cannot be null or empty", "studentIds", null);
+                }
+                break;
+            case TARGETED:
+                if (!NotificationTargetResolver.hasLessonCriteria(request)) {
+                    throw new ValidationException("At least one of lessonIds, faculty, department or instructorId is required",
+                        "lessonIds", null);
+                }
+                break;
+            case CLASS:
+                if (isBlank(request.getClassId())) {
+                    throw new ValidationException("classId is required", "classId", null);
+                }
+                // Class notifications also need the lesson
+                requireLessonId(request);
+                break;
+            default:
+                requireLessonId(request);
+                break;
+        }
+    }
+
+    private static void requireLessonId(SendNotificationRequest request) {
+        if (isBlank(request.getLessonId())) {
+            throw new ValidationException("lessonId is required", "lessonId", null);
+        }
+    }
+
+    private NotificationJobStatus toStatus(NotificationOutbox job) {
+        NotificationJobStatus status = new NotificationJobStatus();
+        status.setJobId(job.getJobId());
+        status.setStatus(job.getStatus().name());
+        status.setRecipientType(job.getRecipientType().name());
+        status.setLessonId(job.getLessonId());
+        status.setAttempts(job.getAttempts());
+        status.setSentCount(job.getSentCount());
+        status.setFailedCount(job.getFailedCount());
+        status.setMessage(job.getResultMessage());
+        status.setLastError(job.getLastError());
+        status.setCreatedAt(job.getCreatedAt());
+        status.setCompletedAt(job.getCompletedAt());
+        return status;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+}
@@ -1,27 +1,45 @@
 package com.prolizwebservices.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.prolizwebservices.entity.NotificationHistory;
 import com.prolizwebservices.entity.NotificationToken;
+import com.prolizwebservices.event.DersKayitDegisti;
+import com.prolizwebservices.event.StudentTokenStatusChanged;
+import com.prolizwebservices.exception.ValidationException;
 import com.prolizwebservices.model.Ders;
 import com.prolizwebservices.model.Ogrenci;
 import com.prolizwebservices.model.OgretimElemani;
 import com.prolizwebservices.model.notification.*;
 import com.prolizwebservices.repository.NotificationHistoryRepository;
 import com.prolizwebservices.repository.NotificationTokenRepository;
-import lombok.RequiredArgsConstructor;
+import com.prolizwebservices.util.SayfaImleci;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Service for managing push notifications
+ *
+ * Every send records notification.send.stage timers (stage = recipients, tokens, dispatch,
+ * history, tickets) so the time of a broadcast can be split between roster resolution,
+ * token lookup, Expo HTTP and bookkeeping writes.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
     
@@ -29,51 +47,94 @@ public class NotificationService {
     private final NotificationHistoryRepository historyRepository;
     private final ExpoPushService expoPushService;
     private final DataCacheService cacheService;
+    private final PushReceiptService pushReceiptService;
+    private final NotificationTokenRegistry tokenRegistry;
+    private final NotificationTargetResolver targetResolver;
+    private final TokenRegistrationBuffer tokenBuffer;
     
-    // 🚀 PERFORMANCE: In-memory cache for frequently accessed lesson students
-    // Cache expires after 5 minutes to prevent stale data
-    private final Map<String, CachedStudentList> studentListCache = new ConcurrentHashMap<>();
-    private static final long CACHE_TTL_MS = 5 * 60 * 1000; // 5 minutes
+    // 🚀 PERFORMANCE: Bounded cache for frequently accessed lesson students (lessonId -> roster)
+    // Invalidated per lesson by enrollment deltas and token status changes; TTL is only a safety net
+    private final Cache<String, List<StudentInfo>> studentListCache;
     
-    private static class CachedStudentList {
-        final List<StudentInfo> students;
-        final long timestamp;
-        
-        CachedStudentList(List<StudentInfo> students) {
-            this.students = students;
-            this.timestamp = System.currentTimeMillis();
-        }
-        
-        boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > CACHE_TTL_MS;
-        }
+    private final Timer recipientsTimer;
+    private final Timer tokensTimer;
+    private final Timer dispatchTimer;
+    private final Timer historyTimer;
+    private final Timer ticketsTimer;
+    
+    private static final int MAX_HISTORY_LIMIT = 500;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_STATS_DAYS = 366;
+    
+    public NotificationService(NotificationTokenRepository tokenRepository,
+                               NotificationHistoryRepository historyRepository,
+                               ExpoPushService expoPushService,
+                               DataCacheService cacheService,
+                               PushReceiptService pushReceiptService,
+                               NotificationTokenRegistry tokenRegistry,
+                               NotificationTargetResolver targetResolver,
+                               TokenRegistrationBuffer tokenBuffer,
+                               MeterRegistry meterRegistry,
+                               @Value("${notification.student-cache.max-size:2000}") long maxSize,
+                               @Value("${notification.student-cache.ttl-minutes:30}") long ttlMinutes) {
+        this.tokenRepository = tokenRepository;
+        this.historyRepository = historyRepository;
+        this.expoPushService = expoPushService;
+        this.cacheService = cacheService;
+        this.pushReceiptService = pushReceiptService;
+        this.tokenRegistry = tokenRegistry;
+        this.targetResolver = targetResolver;
+        this.tokenBuffer = tokenBuffer;
+        this.studentListCache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+        this.recipientsTimer = stageTimer(meterRegistry, "recipients");
+        this.tokensTimer = stageTimer(meterRegistry, "tokens");
+        this.dispatchTimer = stageTimer(meterRegistry, "dispatch");
+        this.historyTimer = stageTimer(meterRegistry, "history");
+        this.ticketsTimer = stageTimer(meterRegistry, "tickets");
+    }
+    
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("notification.send.stage")
+            .description("Notification send stage duration")
+            .tag("stage", stage)
+            .register(meterRegistry);
     }
     
     /**
      * Register a device token
+     * Queued in the coalescing buffer and upserted with the next batch (within notification.token-batch.flush-interval-ms)
      */
-    @Transactional
     public void registerToken(TokenRegistrationRequest request) {
-        Optional<NotificationToken> existing = tokenRepository.findByToken(request.getToken());
-        
-        NotificationToken token;
-        if (existing.isPresent()) {
-            token = existing.get();
-            log.info("Updating existing token for user: {}", request.getUserId());
-        } else {
-            token = new NotificationToken();
-            token.setToken(request.getToken());
-            log.info("Registering new token for user: {}", request.getUserId());
+        tokenBuffer.submit(request);
+        log.debug("Token queued for user: {}", request.getUserId());
+    }
+    
+    /**
+     * Register many device tokens; invalid entries are skipped
+     *
+     * @return accepted/rejected counts
+     */
+    public Map<String, Object> registerTokens(List<TokenRegistrationRequest> requests) {
+        int accepted = 0;
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                tokenBuffer.submit(requests.get(i));
+                accepted++;
+            } catch (IllegalArgumentException e) {
+                errors.add("[" + i + "] " + e.getMessage());
+            }
         }
         
-        token.setUserId(request.getUserId());
-        token.setUserType(NotificationToken.UserType.valueOf(request.getUserType().toUpperCase()));
-        token.setPlatform(request.getPlatform());
-        token.setDeviceId(request.getDeviceId());
-        token.setOsVersion(request.getOsVersion());
-        
-        tokenRepository.save(token);
-        log.info("Token registered successfully for user: {}", request.getUserId());
+        Map<String, Object> result = new HashMap<>();
+        result.put("accepted", accepted);
+        result.put("rejected", errors.size());
+        result.put("errors", errors.size() > 20 ? errors.subList(0, 20) : errors);
+        return result;
     }
     
     /**
@@ -81,7 +142,10 @@ public class NotificationService {
      */
     @Transactional
     public void unregisterToken(String token) {
+        // A still-pending registration must not resurrect the token
+        tokenBuffer.cancel(token);
         tokenRepository.deleteByToken(token);
+        tokenRegistry.remove(token);
         log.info("Token unregistered: {}", token);
     }
     
@@ -144,9 +208,9 @@ public class NotificationService {
     /**
      * Get students for a lesson from CACHE (not from database)
      * Student data comes from SOAP web service via DataCacheService
-     * OPTIMIZED: Single DB query for all tokens instead of N queries
+     * OPTIMIZED: hasToken comes from the in-memory token registry (no DB query)
      * ULTRA-OPTIMIZED: Parallel processing for large student lists
-     * CACHED: Results cached for 5 minutes to reduce repeated queries
+     * CACHED: Results cached until the lesson's enrollment or a student's token status changes
      */
     public List<StudentInfo> getLessonStudents(String lessonId) {
         long startTime = System.currentTimeMillis();
@@ -157,70 +221,15 @@ public class NotificationService {
                 return Collections.emptyList();
             }
             
-            // 🚀 Check in-memory cache first
-            CachedStudentList cached = studentListCache.get(lessonId);
-            if (cached != null && !cached.isExpired()) {
-                long duration = System.currentTimeMillis() - startTime;
-                log.info("⚡ Cache HIT for lesson {} - returned {} students in {}ms", 
-                    lessonId, cached.students.size(), duration);
-                return cached.students;
-            }
-            
-            // Get students from CACHE (loaded from SOAP service)
-            List<Ogrenci> ogrenciler = cacheService.getOgrencilerByDersHarId(lessonId);
-            log.info("Found {} students for lesson {} from cache", ogrenciler.size(), lessonId);
-            
-            if (ogrenciler.isEmpty()) {
+            // 🚀 Built at most once per lesson; an invalidation racing the build drops the built list
+            List<StudentInfo> result = studentListCache.get(lessonId, this::buildLessonStudents);
+            if (result == null) {
                 log.info("No students found for lesson {}", lessonId);
                 return Collections.emptyList();
             }
             
-            // OPTIMIZATION: Get all student IDs first
-            List<String> studentIds = ogrenciler.stream()
-                .map(Ogrenci::getOgrNo)
-                .collect(Collectors.toList());
-            
-            // OPTIMIZATION: Single DB query to get all tokens at once
-            List<NotificationToken> tokens = tokenRepository.findByUserIdInAndUserType(
-                studentIds, 
-                NotificationToken.UserType.STUDENT
-            );
-            
-            // Create a Set for fast lookup
-            Set<String> studentIdsWithTokens = tokens.stream()
-                .map(NotificationToken::getUserId)
-                .collect(Collectors.toSet());
-            
-            log.info("Found {} students with notification tokens", studentIdsWithTokens.size());
-            
-            // ULTRA-OPTIMIZATION: Use parallel stream for large lists (>100 students)
-            List<StudentInfo> result = (ogrenciler.size() > 100 ? ogrenciler.parallelStream() : ogrenciler.stream())
-                .map(ogrenci -> {
-                    StudentInfo info = new StudentInfo();
-                    info.setStudentId(ogrenci.getOgrNo());
-                    info.setStudentNo(ogrenci.getOgrNo());
-                    info.setName(ogrenci.getAdi());
-                    info.setSurname(ogrenci.getSoyadi());
-                    info.setClassId(ogrenci.getSinif());
-                    
-                    // Fast lookup: O(1) instead of DB query
-                    info.setHasToken(studentIdsWithTokens.contains(ogrenci.getOgrNo()));
-                    
-                    return info;
-                })
-                .collect(Collectors.toList());
-            
             long duration = System.currentTimeMillis() - startTime;
-            log.info("✅ getLessonStudents completed in {}ms for {} students", duration, result.size());
-            
-            // 🚀 Store in cache for future requests
-            studentListCache.put(lessonId, new CachedStudentList(result));
-            
-            // Clean up expired cache entries (simple cleanup)
-            if (studentListCache.size() > 1000) {
-                studentListCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
-            }
-            
+            log.debug("getLessonStudents completed in {}ms for {} students", duration, result.size());
             return result;
             
         } catch (Exception e) {
@@ -231,6 +240,59 @@ public class NotificationService {
         }
     }
     
+    /**
+     * Student list of a lesson with hasToken flags (cache loader; null when the lesson has no students)
+     */
+    private List<StudentInfo> buildLessonStudents(String lessonId) {
+        long startTime = System.currentTimeMillis();
+        
+        // Get students from CACHE (loaded from SOAP service)
+        List<Ogrenci> ogrenciler = cacheService.getOgrencilerByDersHarId(lessonId);
+        log.info("Found {} students for lesson {} from cache", ogrenciler.size(), lessonId);
+        
+        if (ogrenciler.isEmpty()) {
+            return null;
+        }
+        
+        // Registry not loaded yet (DB was down at startup): single IN query as before
+        Set<String> studentIdsWithTokens = tokenRegistry.isLoaded() ? null : findStudentIdsWithTokens(ogrenciler);
+        
+        // ULTRA-OPTIMIZATION: Use parallel stream for large lists (>100 students)
+        List<StudentInfo> result = (ogrenciler.size() > 100 ? ogrenciler.parallelStream() : ogrenciler.stream())
+            .map(ogrenci -> {
+                StudentInfo info = new StudentInfo();
+                info.setStudentId(ogrenci.getOgrNo());
+                info.setStudentNo(ogrenci.getOgrNo());
+                info.setName(ogrenci.getAdi());
+                info.setSurname(ogrenci.getSoyadi());
+                info.setClassId(ogrenci.getSinif());
+                
+                // Fast lookup: map lookup + bit test, no DB query
+                info.setHasToken(studentIdsWithTokens != null
+                    ? studentIdsWithTokens.contains(ogrenci.getOgrNo())
+                    : tokenRegistry.hasStudentToken(ogrenci.getOgrNo()));
+                
+                return info;
+            })
+            .collect(Collectors.toList());
+        
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("✅ Built student list for lesson {} in {}ms ({} students)", lessonId, duration, result.size());
+        
+        // Unmodifiable: the same list is shared by all callers
+        return Collections.unmodifiableList(result);
+    }
+    
+    private Set<String> findStudentIdsWithTokens(List<Ogrenci> ogrenciler) {
+        List<String> studentIds = ogrenciler.stream()
+            .map(Ogrenci::getOgrNo)
+            .collect(Collectors.toList());
+        
+        return tokenRepository.findByUserIdInAndUserType(studentIds, NotificationToken.UserType.STUDENT).stream()
+            .map(NotificationToken::getUserId)
+            .collect(Collectors.toSet());
+    }
+    
     /**
      * Get students for a lesson and class
      */
@@ -242,12 +304,28 @@ public class NotificationService {
             .collect(Collectors.toList());
     }
     
+    /**
+     * Resolve recipients and send (called by outbox workers)
+     * Not transactional: no DB connection is held while Expo requests are in flight
+     */
+    public SendNotificationResponse send(SendNotificationRequest request, NotificationHistory.RecipientType recipientType) {
+        switch (recipientType) {
+            case CLASS:
+                return sendClassNotification(request);
+            case INDIVIDUAL:
+                return sendIndividualNotification(request);
+            case TARGETED:
+                return sendTargetedNotification(request);
+            default:
+                return sendBulkNotification(request);
+        }
+    }
+    
     /**
      * Send bulk notification to all students in a lesson
      */
-    @Transactional
     public SendNotificationResponse sendBulkNotification(SendNotificationRequest request) {
-        List<StudentInfo> students = getLessonStudents(request.getLessonId());
+        List<StudentInfo> students = recipientsTimer.record(() -> getLessonStudents(request.getLessonId()));
         List<String> studentIds = students.stream()
             .map(StudentInfo::getStudentId)
             .collect(Collectors.toList());
@@ -265,9 +343,9 @@ public class NotificationService {
     /**
      * Send notification to a specific class
      */
-    @Transactional
     public SendNotificationResponse sendClassNotification(SendNotificationRequest request) {
-        List<StudentInfo> students = getLessonClassStudents(request.getLessonId(), request.getClassId());
+        List<StudentInfo> students = recipientsTimer.record(
+            () -> getLessonClassStudents(request.getLessonId(), request.getClassId()));
         List<String> studentIds = students.stream()
             .map(StudentInfo::getStudentId)
             .collect(Collectors.toList());
@@ -285,7 +363,6 @@ public class NotificationService {
     /**
      * Send notification to individual students
      */
-    @Transactional
     public SendNotificationResponse sendIndividualNotification(SendNotificationRequest request) {
         return sendNotificationToStudents(
             request.getStudentIds(),
@@ -297,6 +374,40 @@ public class NotificationService {
         );
     }
     
+    /**
+     * Send one notification to the deduplicated students of all lessons matching the targeting predicate
+     */
+    public SendNotificationResponse sendTargetedNotification(SendNotificationRequest request) {
+        long start = System.nanoTime();
+        List<String> lessonIds = targetResolver.resolveLessons(request);
+        List<String> studentIds = targetResolver.resolveStudents(lessonIds, request.getClassId());
+        recipientsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Targeted notification resolved to {} lessons, {} unique students", lessonIds.size(), studentIds.size());
+        
+        return sendNotificationToStudents(
+            studentIds,
+            request.getTitle(),
+            request.getBody(),
+            request.getData(),
+            request,
+            NotificationHistory.RecipientType.TARGETED
+        );
+    }
+    
+    /**
+     * Lesson/recipient counts for a targeting predicate without sending
+     */
+    public Map<String, Object> previewTarget(SendNotificationRequest request) {
+        List<String> lessonIds = targetResolver.resolveLessons(request);
+        List<String> studentIds = targetResolver.resolveStudents(lessonIds, request.getClassId());
+        
+        Map<String, Object> preview = new HashMap<>();
+        preview.put("lessonCount", lessonIds.size());
+        preview.put("studentCount", studentIds.size());
+        preview.put("studentsWithTokens", studentIds.stream().filter(tokenRegistry::hasStudentToken).count());
+        return preview;
+    }
+    
     /**
      * Internal method to send notifications to students
      */
@@ -313,44 +424,63 @@ public class NotificationService {
             return new SendNotificationResponse(false, 0, 0, "No students found");
         }
         
-        // Get tokens for students
-        List<NotificationToken> tokens = tokenRepository.findByUserIdIn(studentIds);
-        List<String> expoPushTokens = tokens.stream()
-            .map(NotificationToken::getToken)
-            .collect(Collectors.toList());
+        // Get tokens for students (registry; repository only until the registry has loaded)
+        List<String> expoPushTokens = tokensTimer.record(() -> tokenRegistry.isLoaded()
+            ? tokenRegistry.getTokens(studentIds)
+            : tokenRepository.findByUserIdIn(studentIds).stream()
+                .map(NotificationToken::getToken)
+                .collect(Collectors.toList()));
         
         int sentCount = 0;
         int failedCount = 0;
+        PushDispatchResult result = null;
         
         if (!expoPushTokens.isEmpty()) {
-            try {
-                // Send push notifications
-                Map<String, Object> result = expoPushService.sendPushNotifications(
-                    expoPushTokens,
-                    title,
-                    body,
-                    data,
-                    "lessons"
-                );
-                
-                if (Boolean.TRUE.equals(result.get("success"))) {
-                    sentCount = expoPushTokens.size();
-                    log.info("Successfully sent {} notifications", sentCount);
-                } else {
-                    failedCount = expoPushTokens.size();
-                    log.error("Failed to send notifications: {}", result.get("error"));
-                }
-            } catch (Exception e) {
-                log.error("Error sending notifications", e);
-                failedCount = expoPushTokens.size();
+            // Chunked dispatch; counts come from per-ticket results
+            result = dispatchTimer.record(() -> expoPushService.sendPushNotifications(
+                expoPushTokens,
+                title,
+                body,
+                data,
+                "lessons"
+            ));
+            sentCount = result.getSentCount();
+            failedCount = result.getFailedCount();
+            
+            if (failedCount > 0) {
+                log.warn("Push dispatch: {} sent, {} failed ({} chunks)", sentCount, failedCount, result.getChunkCount());
+            } else {
+                log.info("Successfully sent {} notifications", sentCount);
             }
         }
         
         // Calculate students without tokens
-        int studentsWithoutTokens = studentIds.size() - tokens.size();
+        int studentsWithoutTokens = studentIds.size() - expoPushTokens.size();
+        
+        // The push has gone out at this point: bookkeeping failures are logged, not thrown,
+        // so callers that retry on exceptions (outbox) never re-send the whole broadcast
         
         // Save to history
-        saveNotificationHistory(request, recipientType, studentIds.size(), sentCount, failedCount);
+        NotificationHistory history = null;
+        long historyStart = System.nanoTime();
+        try {
+            history = saveNotificationHistory(request, recipientType, studentIds.size(), sentCount, failedCount);
+        } catch (Exception e) {
+            log.error("Notification history could not be saved after dispatch ({} sent): {}", sentCount, e.getMessage());
+        }
+        historyTimer.record(System.nanoTime() - historyStart, TimeUnit.NANOSECONDS);
+        
+        // Keep ok tickets for receipt polling, prune tokens Expo already rejected
+        if (result != null) {
+            long ticketsStart = System.nanoTime();
+            try {
+                pushReceiptService.recordTickets(history != null ? history.getId() : null, result.getTickets());
+            } catch (Exception e) {
+                log.error("Push tickets could not be recorded after dispatch ({} tickets): {}",
+                    result.getTickets().size(), e.getMessage());
+            }
+            ticketsTimer.record(System.nanoTime() - ticketsStart, TimeUnit.NANOSECONDS);
+        }
         
         String message = String.format(
             "Notification sent to %d students. %d without tokens.",
@@ -364,7 +494,7 @@ public class NotificationService {
     /**
      * Save notification to history
      */
-    private void saveNotificationHistory(
+    private NotificationHistory saveNotificationHistory(
             SendNotificationRequest request,
             NotificationHistory.RecipientType recipientType,
             int recipientCount,
@@ -382,37 +512,136 @@ public class NotificationService {
         history.setSentCount(sentCount);
         history.setFailedCount(failedCount);
         
-        historyRepository.save(history);
+        NotificationHistory saved = historyRepository.save(history);
         log.info("Notification history saved for academic: {}", request.getAcademicId());
+        return saved;
     }
     
     /**
      * Get notification history for an academic
      */
     public List<NotificationHistory> getNotificationHistory(String academicId, int limit) {
-        List<NotificationHistory> history = historyRepository.findByAcademicIdOrderByCreatedAtDesc(academicId);
+        // LIMIT in SQL (index-backed); non-positive or huge limits are capped
+        int size = limit > 0 ? Math.min(limit, MAX_HISTORY_LIMIT) : MAX_HISTORY_LIMIT;
+        return historyRepository.findByAcademicIdOrderByCreatedAtDescIdDesc(academicId, PageRequest.of(0, size));
+    }
+    
+    /**
+     * Keyset page of an academic's history, newest first, optionally for one lesson
+     * The cursor carries the last row's (createdAt, id), so every page costs the same index range scan
+     */
+    public Map<String, Object> getNotificationHistoryPage(String academicId, String lessonId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        boolean byLesson = lessonId != null && !lessonId.isEmpty();
+        // One extra row tells whether there is a next page
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
         
-        if (limit > 0 && history.size() > limit) {
-            return history.subList(0, limit);
+        List<NotificationHistory> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = byLesson
+                ? historyRepository.findByAcademicIdAndLessonIdOrderByCreatedAtDescIdDesc(academicId, lessonId, limit)
+                : historyRepository.findByAcademicIdOrderByCreatedAtDescIdDesc(academicId, limit);
+        } else {
+            String key = SayfaImleci.decode(cursor).getSonAnahtar();
+            int separator = key.lastIndexOf(',');
+            LocalDateTime createdAt;
+            long id;
+            try {
+                createdAt = LocalDateTime.parse(key.substring(0, separator));
+                id = Long.parseLong(key.substring(separator + 1));
+            } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+                throw new ValidationException("Invalid cursor", "cursor", cursor);
+            }
+            rows = byLesson
+                ? historyRepository.findLessonPageAfter(academicId, lessonId, createdAt, id, limit)
+                : historyRepository.findPageAfter(academicId, createdAt, id, limit);
         }
         
-        return history;
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationHistory> items = hasMore ? rows.subList(0, pageSize) : rows;
+        NotificationHistory last = items.isEmpty() ? null : items.get(items.size() - 1);
+        
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", items);
+        page.put("size", items.size());
+        // History is not tied to a data-cache snapshot, so the cursor version is always 0
+        page.put("nextCursor", hasMore && last != null
+            ? new SayfaImleci(0, last.getCreatedAt() + "," + last.getId()).encode() : null);
+        return page;
+    }
+    
+    /**
+     * Per-day notification totals for the last N days, aggregated in SQL
+     */
+    public List<Map<String, Object>> getDailyHistoryStats(String academicId, String lessonId, int days) {
+        int range = Math.max(1, Math.min(days, MAX_STATS_DAYS));
+        LocalDateTime since = LocalDate.now().minusDays(range - 1L).atStartOfDay();
+        List<Object[]> rows = lessonId != null && !lessonId.isEmpty()
+            ? historyRepository.dailyLessonStats(academicId, lessonId, since)
+            : historyRepository.dailyStats(academicId, since);
+        
+        List<Map<String, Object>> stats = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> day = new HashMap<>();
+            day.put("date", String.valueOf(row[0]));
+            day.put("notifications", toLong(row[1]));
+            day.put("recipients", toLong(row[2]));
+            day.put("sent", toLong(row[3]));
+            day.put("failed", toLong(row[4]));
+            day.put("delivered", toLong(row[5]));
+            day.put("undelivered", toLong(row[6]));
+            stats.add(day);
+        }
+        return stats;
+    }
+    
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
     }
     
     /**
      * Clear student list cache (useful when tokens are updated)
      */
     public void clearStudentListCache() {
-        int size = studentListCache.size();
-        studentListCache.clear();
+        long size = studentListCache.estimatedSize();
+        studentListCache.invalidateAll();
         log.info("🗑️ Cleared student list cache ({} entries)", size);
     }
     
+    /**
+     * Enrollment delta for a lesson: its roster is rebuilt on next access
+     */
+    @EventListener
+    public void onDersKayitDegisti(DersKayitDegisti event) {
+        studentListCache.invalidate(event.getDersHarId());
+    }
+    
+    /**
+     * Students gained/lost their device token: drop only the rosters they appear in
+     */
+    @EventListener
+    public void onStudentTokenStatusChanged(StudentTokenStatusChanged event) {
+        Set<String> lessonIds = new HashSet<>();
+        for (String studentId : event.getStudentIds()) {
+            List<Ders> dersler = cacheService.getIndekslenmisDersler(studentId);
+            if (dersler != null) {
+                for (Ders ders : dersler) {
+                    lessonIds.add(ders.getDersHarId());
+                }
+            }
+        }
+        if (!lessonIds.isEmpty()) {
+            studentListCache.invalidateAll(lessonIds);
+            log.debug("Token status of {} students changed, invalidated {} cached lessons",
+                event.getStudentIds().size(), lessonIds.size());
+        }
+    }
+    
     /**
      * Clear cache for specific lesson
      */
     public void clearLessonCache(String lessonId) {
-        studentListCache.remove(lessonId);
+        studentListCache.invalidate(lessonId);
         log.info("🗑️ Cleared cache for lesson {}", lessonId);
     }
     
@@ -420,9 +649,15 @@ public class NotificationService {
      * Get cache statistics
      */
     public Map<String, Object> getCacheStats() {
+        CacheStats cacheStats = studentListCache.stats();
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalCachedLessons", studentListCache.size());
-        stats.put("expiredEntries", studentListCache.values().stream().filter(CachedStudentList::isExpired).count());
+        stats.put("totalCachedLessons", studentListCache.estimatedSize());
+        stats.put("hitCount", cacheStats.hitCount());
+        stats.put("missCount", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictionCount", cacheStats.evictionCount());
+        stats.put("tokenRegistry", tokenRegistry.getStats());
+        stats.put("tokenWrites", tokenBuffer.getStats());
         return stats;
     }
 }
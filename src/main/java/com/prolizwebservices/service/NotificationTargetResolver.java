@@ -0,0 +1,82 @@
+package com.prolizwebservices.service;
+
+import com.prolizwebservices.model.OgretimElemani;
+import com.prolizwebservices.model.notification.SendNotificationRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Resolves TARGETED notification predicates into one deduplicated recipient set
+ *
+ * Every given criterion narrows the lesson set (AND): explicit lessonIds, faculty, department
+ * and instructor are intersected as DersKatalogu row BitSets. The rosters of the selected
+ * lessons are then unioned as EnrollmentStore student-id BitSets, so a student enrolled in
+ * several matching lessons is notified once. classId keeps only students of that class.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationTargetResolver {
+
+    private final DataCacheService cacheService;
+
+    /**
+     * True if the request carries at least one lesson criterion (whole-university sends are not allowed)
+     */
+    public static boolean hasLessonCriteria(SendNotificationRequest request) {
+        return (request.getLessonIds() != null && !request.getLessonIds().isEmpty())
+            || !isBlank(request.getFaculty())
+            || !isBlank(request.getDepartment())
+            || !isBlank(request.getInstructorId());
+    }
+
+    /**
+     * Lesson ids (DERS_HAR_ID) matching all given criteria
+     */
+    public List<String> resolveLessons(SendNotificationRequest request) {
+        if (!hasLessonCriteria(request)) {
+            return Collections.emptyList();
+        }
+
+        DersKatalogu katalog = cacheService.getDersKatalogu();
+        BitSet rows = katalog.filtrele(blankToNull(request.getFaculty()), blankToNull(request.getDepartment()),
+            null, null, null);
+
+        if (request.getLessonIds() != null && !request.getLessonIds().isEmpty()) {
+            rows.and(katalog.satirlarByHarId(request.getLessonIds()));
+        }
+        if (!isBlank(request.getInstructorId())) {
+            OgretimElemani instructor = cacheService.getOgretimElemaniBySicil(request.getInstructorId());
+            if (instructor == null) {
+                log.warn("Targeted notification: instructor {} not found", request.getInstructorId());
+                return Collections.emptyList();
+            }
+            rows.and(katalog.ogretimElemaniSatirlari(instructor.getTcKimlikNo()));
+        }
+
+        List<String> lessonIds = new ArrayList<>(rows.cardinality());
+        katalog.getDersler(rows).forEach(ders -> lessonIds.add(ders.getDersHarId()));
+        return lessonIds;
+    }
+
+    /**
+     * Deduplicated student numbers enrolled in any of the lessons
+     */
+    public List<String> resolveStudents(Collection<String> lessonIds, String classId) {
+        if (lessonIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return cacheService.getOgrNolariByDersler(lessonIds, blankToNull(classId));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String blankToNull(String value) {
+        return isBlank(value) ? null : value.trim();
+    }
+}
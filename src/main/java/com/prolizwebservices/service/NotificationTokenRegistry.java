@@ -0,0 +1,282 @@
+package com.prolizwebservices.service;
+
+import com.prolizwebservices.entity.NotificationToken;
+import com.prolizwebservices.entity.NotificationToken.UserType;
+import com.prolizwebservices.event.NotificationTokensRemoved;
+import com.prolizwebservices.event.StudentTokenStatusChanged;
+import com.prolizwebservices.repository.NotificationTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory mirror of notification_tokens
+ *
+ * Send-target resolution and roster hasToken annotation read from here instead of running
+ * large IN queries. Writes go to NotificationTokenRepository first and are then applied here
+ * (write-through). Students that have at least one STUDENT token are tracked in a BitSet over
+ * a dense per-user index, so a roster check is one map lookup plus one bit test.
+ *
+ * Reads are lock-free: token arrays and the BitSet are copy-on-write and replaced under the
+ * registry lock. A periodic full reload picks up writes made by other instances.
+ *
+ * Whenever a student's hasToken flag flips, StudentTokenStatusChanged is published (outside
+ * the lock) with the affected student ids.
+ */
+@Component
+@Slf4j
+public class NotificationTokenRegistry {
+
+    private final NotificationTokenRepository tokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile State state = new State();
+    private volatile boolean loaded;
+    private volatile LocalDateTime lastLoadedAt;
+
+    private static final class Entry {
+        final String token;
+        final UserType userType;
+
+        Entry(String token, UserType userType) {
+            this.token = token;
+            this.userType = userType;
+        }
+    }
+
+    private static final class State {
+        final Map<String, Entry[]> tokensByUser = new ConcurrentHashMap<>();
+        final Map<String, String> ownerByToken = new ConcurrentHashMap<>();
+        final Map<String, Integer> studentIndex = new ConcurrentHashMap<>();
+        volatile BitSet studentsWithToken = new BitSet();
+        int tokenCount; // guarded by registry lock
+    }
+
+    public NotificationTokenRegistry(NotificationTokenRepository tokenRepository,
+                                     ApplicationEventPublisher eventPublisher) {
+        this.tokenRepository = tokenRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    /**
+     * Rebuild from the database; on failure the previous state is kept
+     */
+    @Scheduled(fixedDelayString = "${notification.token-registry.reload-interval-ms:600000}",
+               initialDelayString = "${notification.token-registry.reload-interval-ms:600000}")
+    public void reload() {
+        publishChanges(doReload());
+    }
+
+    private synchronized Set<String> doReload() {
+        long start = System.currentTimeMillis();
+        try {
+            State fresh = new State();
+            BitSet bits = new BitSet();
+            for (Object[] row : tokenRepository.findAllTokenRows()) {
+                add(fresh, bits, (String) row[0], (UserType) row[1], (String) row[2]);
+            }
+            fresh.studentsWithToken = bits;
+
+            // Flags changed by other instances since the last load (nothing is cached before the first one)
+            Set<String> changed = new HashSet<>();
+            if (loaded) {
+                State previous = state;
+                for (String userId : previous.studentIndex.keySet()) {
+                    if (hasStudentToken(previous, userId) != hasStudentToken(fresh, userId)) {
+                        changed.add(userId);
+                    }
+                }
+                for (String userId : fresh.studentIndex.keySet()) {
+                    if (!previous.studentIndex.containsKey(userId)) {
+                        changed.add(userId);
+                    }
+                }
+            }
+
+            state = fresh;
+            loaded = true;
+            lastLoadedAt = LocalDateTime.now();
+            log.info("Token registry loaded: {} tokens for {} users in {}ms",
+                fresh.tokenCount, fresh.tokensByUser.size(), System.currentTimeMillis() - start);
+            return changed;
+        } catch (Exception e) {
+            log.warn("Token registry reload failed (keeping previous state, loaded={}): {}", loaded, e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * False until the first successful load; callers fall back to the repository
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Apply a saved token (new, or re-registered for another user/type)
+     */
+    public void put(NotificationToken token) {
+        publishChanges(apply(token, Collections.singleton(token.getToken())));
+    }
+
+    /**
+     * Whether the token is currently registered (as of the last local write or reload)
+     */
+    public boolean contains(String token) {
+        return token != null && state.ownerByToken.containsKey(token);
+    }
+
+    public void remove(String token) {
+        removeAll(Collections.singleton(token));
+    }
+
+    public void removeAll(Collection<String> tokens) {
+        publishChanges(apply(null, tokens));
+    }
+
+    /**
+     * Remove the given tokens, then add the saved token (if any)
+     *
+     * @return students whose hasToken flag flipped
+     */
+    private synchronized Set<String> apply(NotificationToken added, Collection<String> removed) {
+        State current = state;
+        Set<String> affected = new HashSet<>();
+        for (String token : removed) {
+            String owner = current.ownerByToken.get(token);
+            if (owner != null) {
+                affected.add(owner);
+            }
+        }
+        if (added != null) {
+            affected.add(added.getUserId());
+        }
+
+        Map<String, Boolean> before = new HashMap<>();
+        for (String userId : affected) {
+            before.put(userId, hasStudentToken(current, userId));
+        }
+
+        BitSet bits = (BitSet) current.studentsWithToken.clone();
+        for (String token : removed) {
+            removeToken(current, bits, token);
+        }
+        if (added != null) {
+            add(current, bits, added.getUserId(), added.getUserType(), added.getToken());
+        }
+        current.studentsWithToken = bits;
+
+        affected.removeIf(userId -> before.get(userId) == hasStudentToken(current, userId));
+        return affected;
+    }
+
+    private void publishChanges(Set<String> changed) {
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new StudentTokenStatusChanged(changed));
+        }
+    }
+
+    /**
+     * Tokens pruned by receipt processing are already deleted from the database
+     */
+    @EventListener
+    public void onTokensRemoved(NotificationTokensRemoved event) {
+        removeAll(event.getTokens());
+    }
+
+    /**
+     * All device tokens (any user type) of the given users
+     */
+    public List<String> getTokens(Collection<String> userIds) {
+        State current = state;
+        List<String> tokens = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            Entry[] entries = userId != null ? current.tokensByUser.get(userId) : null;
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    tokens.add(entry.token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Whether the student has at least one STUDENT token
+     */
+    public boolean hasStudentToken(String userId) {
+        return hasStudentToken(state, userId);
+    }
+
+    private static boolean hasStudentToken(State target, String userId) {
+        Integer index = userId != null ? target.studentIndex.get(userId) : null;
+        return index != null && target.studentsWithToken.get(index);
+    }
+
+    public Map<String, Object> getStats() {
+        State current = state;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("lastLoadedAt", lastLoadedAt);
+        stats.put("tokens", current.tokenCount);
+        stats.put("users", current.tokensByUser.size());
+        stats.put("studentsWithToken", current.studentsWithToken.cardinality());
+        return stats;
+    }
+
+    private static void add(State target, BitSet bits, String userId, UserType userType, String token) {
+        Entry[] entries = target.tokensByUser.get(userId);
+        Entry[] updated = entries == null ? new Entry[1] : Arrays.copyOf(entries, entries.length + 1);
+        updated[updated.length - 1] = new Entry(token, userType);
+        target.tokensByUser.put(userId, updated);
+        target.ownerByToken.put(token, userId);
+        target.tokenCount++;
+
+        if (userType == UserType.STUDENT) {
+            bits.set(target.studentIndex.computeIfAbsent(userId, k -> target.studentIndex.size()));
+        }
+    }
+
+    private static void removeToken(State target, BitSet bits, String token) {
+        String userId = target.ownerByToken.remove(token);
+        if (userId == null) {
+            return;
+        }
+        Entry[] entries = target.tokensByUser.get(userId);
+        if (entries == null) {
+            return;
+        }
+
+        List<Entry> kept = new ArrayList<>(entries.length);
+        boolean student = false;
+        for (Entry entry : entries) {
+            if (!entry.token.equals(token)) {
+                kept.add(entry);
+                student |= entry.userType == UserType.STUDENT;
+            }
+        }
+        if (kept.isEmpty()) {
+            target.tokensByUser.remove(userId);
+        } else {
+            target.tokensByUser.put(userId, kept.toArray(new Entry[0]));
+        }
+        target.tokenCount -= entries.length - kept.size();
+
+        Integer index = target.studentIndex.get(userId);
+        if (index != null && !student) {
+            bits.clear(index);
+        }
+    }
+}
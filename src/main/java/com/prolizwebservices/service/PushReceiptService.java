@@ -0,0 +1,195 @@
+package com.prolizwebservices.service;
+
+import com.prolizwebservices.entity.PushTicket;
+import com.prolizwebservices.event.NotificationTokensRemoved;
+import com.prolizwebservices.model.notification.PushTicketResult;
+import com.prolizwebservices.repository.NotificationHistoryRepository;
+import com.prolizwebservices.repository.NotificationTokenRepository;
+import com.prolizwebservices.repository.PushTicketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Expo push receipt processing and dead-token pruning
+ *
+ * Ok tickets are stored in push_tickets. A scheduled poller fetches their receipts in batches
+ * (Expo accepts up to 1000 ids per call), adds delivered/undelivered counts to NotificationHistory
+ * and deletes the processed tickets. Tokens reported as DeviceNotRegistered - either directly in
+ * the ticket or later in the receipt - are bulk-deleted from notification_tokens.
+ *
+ * Tickets are written with a JDBC batch insert (the IDENTITY id would make saveAll insert them one
+ * by one). The delivery counts of a batch and the deletion of its tickets commit together, so a
+ * failed poll never counts the same receipts twice.
+ */
+@Service
+@Slf4j
+public class PushReceiptService {
+
+    static final String DEVICE_NOT_REGISTERED = "DeviceNotRegistered";
+
+    private static final String INSERT_TICKET_SQL =
+        "INSERT INTO push_tickets (ticket_id, token, history_id, created_at) VALUES (?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final PushTicketRepository ticketRepository;
+    private final NotificationTokenRepository tokenRepository;
+    private final NotificationHistoryRepository historyRepository;
+    private final ExpoPushService expoPushService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long delayMinutes;
+    private final long expireHours;
+
+    public PushReceiptService(PushTicketRepository ticketRepository,
+                              NotificationTokenRepository tokenRepository,
+                              NotificationHistoryRepository historyRepository,
+                              ExpoPushService expoPushService,
+                              ApplicationEventPublisher eventPublisher,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${expo.receipts.batch-size:1000}") int batchSize,
+                              @Value("${expo.receipts.delay-minutes:15}") long delayMinutes,
+                              @Value("${expo.receipts.expire-hours:24}") long expireHours) {
+        this.ticketRepository = ticketRepository;
+        this.tokenRepository = tokenRepository;
+        this.historyRepository = historyRepository;
+        this.expoPushService = expoPushService;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, Math.min(batchSize, 1000));
+        this.delayMinutes = delayMinutes;
+        this.expireHours = expireHours;
+    }
+
+    /**
+     * Store ok tickets for receipt polling and prune tokens already rejected in the ticket
+     */
+    public void recordTickets(Long historyId, List<PushTicketResult> tickets) {
+        List<PushTicketResult> pending = new ArrayList<>();
+        Set<String> deadTokens = new HashSet<>();
+
+        for (PushTicketResult result : tickets) {
+            if (result.isOk() && result.getTicketId() != null) {
+                pending.add(result);
+            } else if (DEVICE_NOT_REGISTERED.equals(result.getError())) {
+                deadTokens.add(result.getToken());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_TICKET_SQL, pending, INSERT_BATCH_SIZE, (ps, result) -> {
+                ps.setString(1, result.getTicketId());
+                ps.setString(2, result.getToken());
+                ps.setObject(3, historyId, Types.BIGINT);
+                ps.setTimestamp(4, now);
+            });
+        }
+        pruneTokens(deadTokens);
+    }
+
+    /**
+     * Poll receipts for tickets older than expo.receipts.delay-minutes (Expo recommends waiting ~15 min)
+     */
+    @Scheduled(fixedDelayString = "${expo.receipts.poll-interval-ms:300000}",
+               initialDelayString = "${expo.receipts.poll-interval-ms:300000}")
+    public void pollReceipts() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(delayMinutes);
+        LocalDateTime expiry = LocalDateTime.now().minusHours(expireHours);
+
+        int processed = 0;
+        long lastId = 0;
+        try {
+            List<PushTicket> batch;
+            while (!(batch = ticketRepository.findByCreatedAtBeforeAndIdGreaterThanOrderByIdAsc(
+                    cutoff, lastId, PageRequest.of(0, batchSize))).isEmpty()) {
+                processed += processBatch(batch, expiry);
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.warn("Push receipt polling stopped: {}", e.getMessage());
+        }
+
+        if (processed > 0) {
+            log.info("Processed {} push receipts", processed);
+        }
+    }
+
+    /**
+     * @return number of tickets resolved (receipt found or expired) and deleted
+     */
+    private int processBatch(List<PushTicket> batch, LocalDateTime expiry) throws IOException {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (PushTicket ticket : batch) {
+            ids.add(ticket.getTicketId());
+        }
+        Map<String, PushTicketResult> receipts = expoPushService.fetchReceipts(ids);
+
+        Map<Long, int[]> countsByHistory = new HashMap<>(); // historyId -> {delivered, undelivered}
+        Set<String> deadTokens = new HashSet<>();
+        List<Long> resolved = new ArrayList<>();
+
+        for (PushTicket ticket : batch) {
+            PushTicketResult receipt = receipts.get(ticket.getTicketId());
+            if (receipt == null) {
+                // No receipt yet; Expo drops receipts after ~24h, so give up on expired tickets
+                if (ticket.getCreatedAt() != null && ticket.getCreatedAt().isBefore(expiry)) {
+                    resolved.add(ticket.getId());
+                }
+                continue;
+            }
+
+            resolved.add(ticket.getId());
+            if (ticket.getHistoryId() != null) {
+                int[] counts = countsByHistory.computeIfAbsent(ticket.getHistoryId(), id -> new int[2]);
+                counts[receipt.isOk() ? 0 : 1]++;
+            }
+            if (!receipt.isOk()) {
+                if (DEVICE_NOT_REGISTERED.equals(receipt.getError())) {
+                    deadTokens.add(ticket.getToken());
+                } else {
+                    log.warn("Push receipt error {} for ticket {}: {}",
+                        receipt.getError(), ticket.getTicketId(), receipt.getMessage());
+                }
+            }
+        }
+
+        // Counts and ticket deletion commit together; on failure the tickets stay for the next poll
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Map.Entry<Long, int[]> entry : countsByHistory.entrySet()) {
+                historyRepository.addDeliveryCounts(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            }
+            if (!resolved.isEmpty()) {
+                ticketRepository.deleteAllByIdInBatch(resolved);
+            }
+        });
+        pruneTokens(deadTokens);
+        return resolved.size();
+    }
+
+    private void pruneTokens(Set<String> deadTokens) {
+        if (deadTokens.isEmpty()) {
+            return;
+        }
+        int deleted = tokenRepository.deleteByTokenIn(deadTokens);
+        log.info("Pruned {} device tokens reported as {}", deleted, DEVICE_NOT_REGISTERED);
+        eventPublisher.publishEvent(new NotificationTokensRemoved(deadTokens));
+    }
+}
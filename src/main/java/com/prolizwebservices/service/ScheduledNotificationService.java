@@ -0,0 +1,310 @@
+package com.prolizwebservices.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prolizwebservices.entity.NotificationHistory;
+import com.prolizwebservices.entity.ScheduledNotification;
+import com.prolizwebservices.entity.ScheduledNotification.Status;
+import com.prolizwebservices.exception.ValidationException;
+import com.prolizwebservices.model.notification.NotificationJobStatus;
+import com.prolizwebservices.model.notification.ScheduleNotificationRequest;
+import com.prolizwebservices.model.notification.SendNotificationRequest;
+import com.prolizwebservices.repository.ScheduledNotificationRepository;
+import com.prolizwebservices.util.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deferred notification delivery
+ *
+ * Schedules are persisted in scheduled_notifications. Only the ones due within
+ * notification.schedule.horizon-minutes are kept in memory, in a hashed timing wheel that is
+ * advanced every tick; the database is polled once per poll interval to pull the next window
+ * in. A due schedule is handed to the notification outbox in the same transaction that flips
+ * it from SCHEDULED to QUEUED, so with several instances each schedule is queued exactly once.
+ * The wheel ticks on notificationTaskScheduler, so long @Scheduled jobs (SOAP cache loading)
+ * never delay a due schedule.
+ */
+@Service
+@Slf4j
+public class ScheduledNotificationService {
+
+    private final ScheduledNotificationRepository scheduleRepository;
+    private final NotificationOutboxService outboxService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor fireExecutor;
+    private final TaskScheduler tickScheduler;
+
+    private final long tickMs;
+    private final long horizonMinutes;
+    private final long maxDaysAhead;
+    private final long retentionDays;
+    private final HashedTimingWheel<Long> wheel;
+
+    private final AtomicLong fired = new AtomicLong();
+    private volatile LocalDateTime lastPolledAt;
+
+    public ScheduledNotificationService(ScheduledNotificationRepository scheduleRepository,
+                                        NotificationOutboxService outboxService,
+                                        ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager,
+                                        @Qualifier("generalTaskExecutor") Executor fireExecutor,
+                                        @Qualifier("notificationTaskScheduler") TaskScheduler tickScheduler,
+                                        @Value("${notification.schedule.tick-ms:1000}") long tickMs,
+                                        @Value("${notification.schedule.wheel-size:512}") int wheelSize,
+                                        @Value("${notification.schedule.horizon-minutes:10}") long horizonMinutes,
+                                        @Value("${notification.schedule.max-days-ahead:365}") long maxDaysAhead,
+                                        @Value("${notification.outbox.retention-days:14}") long retentionDays) {
+        this.scheduleRepository = scheduleRepository;
+        this.outboxService = outboxService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fireExecutor = fireExecutor;
+        this.tickScheduler = tickScheduler;
+        this.tickMs = tickMs;
+        this.horizonMinutes = horizonMinutes;
+        this.maxDaysAhead = maxDaysAhead;
+        this.retentionDays = retentionDays;
+        this.wheel = new HashedTimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * Validate and persist a schedule; schedules inside the horizon go straight into the wheel
+     */
+    public ScheduledNotification schedule(ScheduleNotificationRequest request) {
+        if (request == null) {
+            throw new ValidationException("Request body is required");
+        }
+        NotificationHistory.RecipientType recipientType = recipientType(request.getRecipientType());
+        NotificationOutboxService.validate(request, recipientType);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime sendAt = request.getSendAt();
+        if (sendAt == null) {
+            throw new ValidationException("sendAt is required", "sendAt", null);
+        }
+        if (sendAt.isBefore(now.minusMinutes(1)) || sendAt.isAfter(now.plusDays(maxDaysAhead))) {
+            throw new ValidationException("sendAt must be between now and " + maxDaysAhead + " days ahead",
+                "sendAt", sendAt);
+        }
+
+        ScheduledNotification schedule = new ScheduledNotification();
+        schedule.setScheduleId(UUID.randomUUID().toString());
+        schedule.setAcademicId(request.getAcademicId());
+        schedule.setLessonId(request.getLessonId());
+        schedule.setTitle(request.getTitle());
+        schedule.setRecipientType(recipientType);
+        schedule.setSendAt(sendAt);
+        schedule.setStatus(Status.SCHEDULED);
+        try {
+            // Stored as the plain send request the outbox worker expects
+            schedule.setPayload(objectMapper.writeValueAsString(toSendRequest(request)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request could not be serialized: " + e.getMessage(), e);
+        }
+        schedule = scheduleRepository.save(schedule);
+
+        if (sendAt.isBefore(now.plusMinutes(horizonMinutes))) {
+            wheel.add(schedule.getId(), schedule.getId(), toMillis(sendAt));
+        }
+        log.info("Notification {} scheduled for {} ({} for lesson {})",
+            schedule.getScheduleId(), sendAt, recipientType, schedule.getLessonId());
+        return schedule;
+    }
+
+    /**
+     * Cancel a schedule that has not fired yet
+     *
+     * @return false if it was already queued, cancelled or failed
+     * @throws NoSuchElementException if the schedule id is unknown
+     */
+    public boolean cancel(String scheduleId) {
+        ScheduledNotification schedule = scheduleRepository.findByScheduleId(scheduleId)
+            .orElseThrow(() -> new NoSuchElementException("Schedule not found: " + scheduleId));
+        if (scheduleRepository.markFinished(schedule.getId(), null, Status.SCHEDULED, Status.CANCELLED) == 0) {
+            return false;
+        }
+        wheel.cancel(schedule.getId());
+        log.info("Scheduled notification {} cancelled", scheduleId);
+        return true;
+    }
+
+    public Optional<ScheduledNotification> getSchedule(String scheduleId) {
+        return scheduleRepository.findByScheduleId(scheduleId);
+    }
+
+    /**
+     * Pending schedules of an academic, soonest first
+     */
+    public List<ScheduledNotification> getPendingSchedules(String academicId, int limit) {
+        return scheduleRepository.findByAcademicIdAndStatusOrderBySendAtAsc(
+            academicId, Status.SCHEDULED, PageRequest.of(0, Math.max(1, Math.min(limit, 200))));
+    }
+
+    @PostConstruct
+    void startTicking() {
+        tickScheduler.scheduleWithFixedDelay(this::tick, Duration.ofMillis(tickMs));
+    }
+
+    /**
+     * Advance the wheel; due schedules are fired as one batch off the scheduler thread
+     */
+    void tick() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            fireExecutor.execute(() -> due.forEach(this::fire));
+        } catch (RejectedExecutionException e) {
+            // Still SCHEDULED in the database; the next poll puts them back into the wheel
+            log.warn("{} due schedules deferred to the next poll: {}", due.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Load schedules due within the horizon into the wheel (already loaded ones are skipped)
+     */
+    @Scheduled(fixedDelayString = "${notification.schedule.poll-interval-ms:60000}")
+    public void pollUpcoming() {
+        try {
+            LocalDateTime horizon = LocalDateTime.now().plusMinutes(horizonMinutes);
+            int added = 0;
+            for (Object[] row : scheduleRepository.findDueKeys(Status.SCHEDULED, horizon)) {
+                Long id = (Long) row[0];
+                if (wheel.add(id, id, toMillis((LocalDateTime) row[1]))) {
+                    added++;
+                }
+            }
+            lastPolledAt = LocalDateTime.now();
+            if (added > 0) {
+                log.debug("Loaded {} upcoming schedules into the timing wheel", added);
+            }
+        } catch (Exception e) {
+            log.warn("Scheduled notification poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Purge old queued/cancelled/failed schedules
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.maintenance-interval-ms:60000}")
+    public void maintenance() {
+        try {
+            int purged = scheduleRepository.deleteFinishedBefore(
+                EnumSet.of(Status.QUEUED, Status.CANCELLED, Status.FAILED),
+                LocalDateTime.now().minusDays(retentionDays));
+            if (purged > 0) {
+                log.info("Purged {} finished scheduled notifications", purged);
+            }
+        } catch (Exception e) {
+            log.warn("Scheduled notification maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hand the schedule to the outbox and mark it QUEUED atomically
+     */
+    private void fire(Long id) {
+        try {
+            NotificationJobStatus job = transactionTemplate.execute(tx -> {
+                ScheduledNotification schedule = scheduleRepository.findById(id).orElse(null);
+                if (schedule == null || schedule.getStatus() != Status.SCHEDULED) {
+                    return null;
+                }
+                SendNotificationRequest request;
+                try {
+                    request = objectMapper.readValue(schedule.getPayload(), SendNotificationRequest.class);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Stored payload is unreadable: " + e.getMessage(), e);
+                }
+                NotificationJobStatus queued = outboxService.enqueue(request, schedule.getRecipientType());
+                if (scheduleRepository.markQueued(id, queued.getJobId(), LocalDateTime.now(),
+                        Status.SCHEDULED, Status.QUEUED) == 0) {
+                    // Cancelled or fired by another instance meanwhile
+                    tx.setRollbackOnly();
+                    return null;
+                }
+                return queued;
+            });
+            if (job != null) {
+                fired.incrementAndGet();
+                log.info("Scheduled notification {} handed to outbox job {}", id, job.getJobId());
+            }
+        } catch (ValidationException | IllegalStateException e) {
+            // Permanent: retrying the same payload cannot succeed
+            log.error("Scheduled notification {} failed: {}", id, e.getMessage());
+            scheduleRepository.markFinished(id, truncate(e.getMessage()), Status.SCHEDULED, Status.FAILED);
+        } catch (Exception e) {
+            // Stays SCHEDULED; the next poll retries
+            log.warn("Scheduled notification {} could not be queued, will retry: {}", id, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Status status : Status.values()) {
+            stats.put(status.name().toLowerCase(), scheduleRepository.countByStatus(status));
+        }
+        stats.put("inWheel", wheel.size());
+        stats.put("fired", fired.get());
+        stats.put("horizonMinutes", horizonMinutes);
+        stats.put("lastPolledAt", lastPolledAt);
+        return stats;
+    }
+
+    private static NotificationHistory.RecipientType recipientType(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new ValidationException("recipientType is required (all, class, individual, targeted)",
+                "recipientType", null);
+        }
+        try {
+            return NotificationHistory.RecipientType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown recipientType (all, class, individual, targeted)",
+                "recipientType", value);
+        }
+    }
+
+    private static SendNotificationRequest toSendRequest(ScheduleNotificationRequest request) {
+        SendNotificationRequest copy = new SendNotificationRequest();
+        copy.setTitle(request.getTitle());
+        copy.setBody(request.getBody());
+        copy.setData(request.getData());
+        copy.setRecipientType(request.getRecipientType());
+        copy.setLessonId(request.getLessonId());
+        copy.setClassId(request.getClassId());
+        copy.setStudentIds(request.getStudentIds());
+        copy.setAcademicId(request.getAcademicId());
+        copy.setLessonIds(request.getLessonIds());
+        copy.setFaculty(request.getFaculty());
+        copy.setDepartment(request.getDepartment());
+        copy.setInstructorId(request.getInstructorId());
+        return copy;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
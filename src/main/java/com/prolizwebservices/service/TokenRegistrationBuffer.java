@@ -0,0 +1,291 @@
+package com.prolizwebservices.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.prolizwebservices.entity.NotificationToken;
+import com.prolizwebservices.entity.NotificationToken.UserType;
+import com.prolizwebservices.event.NotificationTokensRemoved;
+import com.prolizwebservices.model.notification.TokenRegistrationRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescing write buffer for device token registrations
+ *
+ * Registrations are validated and parked in memory keyed by token; a re-registration of the
+ * same token within the flush window replaces the pending one. Every flush writes the batch
+ * with one JDBC batch upsert (ON DUPLICATE KEY UPDATE on MariaDB/MySQL, ON CONFLICT on
+ * PostgreSQL, MERGE elsewhere) and then applies it to the token registry. Registrations
+ * identical to one written in the last notification.token-batch.dedupe-minutes are dropped
+ * without touching the database, as long as the token registry still holds the token (so a
+ * delete by any instance, picked up by the registry, lets the next registration through).
+ * cancel() waits for an in-flight flush, so an unregister can't be overtaken by the upsert of
+ * a registration that was already taken out of the pending map. Pending registrations are
+ * flushed on shutdown.
+ */
+@Service
+@Slf4j
+public class TokenRegistrationBuffer {
+
+    private static final String TABLE_COLUMNS =
+        "notification_tokens (token, user_id, user_type, platform, device_id, os_version, created_at, updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationTokenRegistry tokenRegistry;
+    private final TaskScheduler taskScheduler;
+    private final int maxBatchSize;
+
+    private final Map<String, TokenRegistrationRequest> pending = new ConcurrentHashMap<>();
+    private final Cache<String, Integer> recentlyWritten;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile String upsertSql;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    public TokenRegistrationBuffer(JdbcTemplate jdbcTemplate,
+                                   NotificationTokenRegistry tokenRegistry,
+                                   @Qualifier("notificationTaskScheduler") TaskScheduler taskScheduler,
+                                   @Value("${notification.token-batch.max-batch-size:500}") int maxBatchSize,
+                                   @Value("${notification.token-batch.dedupe-minutes:10}") long dedupeMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenRegistry = tokenRegistry;
+        this.taskScheduler = taskScheduler;
+        this.maxBatchSize = maxBatchSize;
+        this.recentlyWritten = Caffeine.newBuilder()
+            .maximumSize(200_000)
+            .expireAfterWrite(Duration.ofMinutes(dedupeMinutes))
+            .build();
+    }
+
+    /**
+     * Validate and queue a registration; written by the next flush
+     *
+     * @throws IllegalArgumentException for missing/oversized fields or an unknown userType
+     */
+    public void submit(TokenRegistrationRequest request) {
+        validate(request);
+        submitted.incrementAndGet();
+
+        Integer fingerprint = recentlyWritten.getIfPresent(request.getToken());
+        if (fingerprint != null && fingerprint == fingerprint(request) && !pending.containsKey(request.getToken())
+                && tokenRegistry.contains(request.getToken())) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        if (pending.put(request.getToken(), request) != null) {
+            coalesced.incrementAndGet();
+        }
+
+        // Full batch: don't wait for the next tick
+        if (pending.size() >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    /**
+     * Drop a pending or recently written registration (the token is being unregistered)
+     * Synchronized with flush(): returns only after an in-flight upsert of the token has
+     * finished, so the caller's delete is always the later write.
+     */
+    public synchronized void cancel(String token) {
+        pending.remove(token);
+        recentlyWritten.invalidate(token);
+    }
+
+    /**
+     * Tokens pruned elsewhere (receipt processing) must be written again on re-registration
+     */
+    @EventListener
+    public void onTokensRemoved(NotificationTokensRemoved event) {
+        recentlyWritten.invalidateAll(event.getTokens());
+    }
+
+    /**
+     * Write all pending registrations in batches of notification.token-batch.max-batch-size
+     */
+    @Scheduled(fixedDelayString = "${notification.token-batch.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        while (!pending.isEmpty()) {
+            List<TokenRegistrationRequest> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+            for (String token : pending.keySet()) {
+                TokenRegistrationRequest request = pending.remove(token);
+                if (request != null) {
+                    batch.add(request);
+                }
+                if (batch.size() >= maxBatchSize) {
+                    break;
+                }
+            }
+            if (batch.isEmpty() || !write(batch)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Registrations are acknowledged before they are written; don't lose them on shutdown
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        int count = pending.size();
+        if (count > 0) {
+            log.info("Flushing {} pending token registrations before shutdown", count);
+            flush();
+        }
+    }
+
+    private boolean write(List<TokenRegistrationRequest> batch) {
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(upsertSql(), batch, batch.size(), (ps, request) -> {
+                ps.setString(1, request.getToken());
+                ps.setString(2, request.getUserId());
+                ps.setString(3, userType(request).name());
+                ps.setString(4, request.getPlatform());
+                ps.setString(5, request.getDeviceId());
+                ps.setString(6, request.getOsVersion());
+                ps.setTimestamp(7, now);
+                ps.setTimestamp(8, now);
+            });
+        } catch (Exception e) {
+            // Re-queue unless a newer registration for the same token arrived meanwhile
+            for (TokenRegistrationRequest request : batch) {
+                pending.putIfAbsent(request.getToken(), request);
+            }
+            log.error("Token batch upsert failed ({} tokens re-queued): {}", batch.size(), e.getMessage());
+            return false;
+        }
+
+        for (TokenRegistrationRequest request : batch) {
+            recentlyWritten.put(request.getToken(), fingerprint(request));
+            tokenRegistry.put(toEntity(request));
+        }
+        written.addAndGet(batch.size());
+        flushes.incrementAndGet();
+        log.debug("Upserted {} device tokens", batch.size());
+        return true;
+    }
+
+    /**
+     * Dialect-specific upsert on the unique token column (created_at is kept on update)
+     */
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql != null) {
+            return sql;
+        }
+
+        String product;
+        try {
+            product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                DatabaseMetaData::getDatabaseProductName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Database product could not be detected: " + e.getMessage(), e);
+        }
+
+        String name = product != null ? product.toLowerCase() : "";
+        if (name.contains("mariadb") || name.contains("mysql")) {
+            sql = "INSERT INTO " + TABLE_COLUMNS + " VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), user_type = VALUES(user_type), "
+                + "platform = VALUES(platform), device_id = VALUES(device_id), "
+                + "os_version = VALUES(os_version), updated_at = VALUES(updated_at)";
+        } else if (name.contains("postgresql")) {
+            sql = "INSERT INTO " + TABLE_COLUMNS + " VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT (token) DO UPDATE SET user_id = EXCLUDED.user_id, user_type = EXCLUDED.user_type, "
+                + "platform = EXCLUDED.platform, device_id = EXCLUDED.device_id, "
+                + "os_version = EXCLUDED.os_version, updated_at = EXCLUDED.updated_at";
+        } else {
+            // SQL:2003 MERGE (H2 and others)
+            sql = "MERGE INTO notification_tokens t USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(50)), "
+                + "CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(50)), "
+                + "CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP))) "
+                + "AS s (token, user_id, user_type, platform, device_id, os_version, created_at, updated_at) "
+                + "ON t.token = s.token "
+                + "WHEN MATCHED THEN UPDATE SET user_id = s.user_id, user_type = s.user_type, platform = s.platform, "
+                + "device_id = s.device_id, os_version = s.os_version, updated_at = s.updated_at "
+                + "WHEN NOT MATCHED THEN INSERT (token, user_id, user_type, platform, device_id, os_version, "
+                + "created_at, updated_at) VALUES (s.token, s.user_id, s.user_type, s.platform, s.device_id, "
+                + "s.os_version, s.created_at, s.updated_at)";
+        }
+        log.info("Token upsert uses {} syntax", product);
+        upsertSql = sql;
+        return sql;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("submitted", submitted.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("written", written.get());
+        stats.put("flushes", flushes.get());
+        return stats;
+    }
+
+    private static void validate(TokenRegistrationRequest request) {
+        if (request == null || isBlank(request.getToken()) || isBlank(request.getUserId())) {
+            throw new IllegalArgumentException("token and userId are required");
+        }
+        checkLength("token", request.getToken(), 255);
+        checkLength("userId", request.getUserId(), 50);
+        checkLength("platform", request.getPlatform(), 20);
+        checkLength("deviceId", request.getDeviceId(), 100);
+        checkLength("osVersion", request.getOsVersion(), 50);
+        userType(request);
+    }
+
+    private static UserType userType(TokenRegistrationRequest request) {
+        if (request.getUserType() == null) {
+            throw new IllegalArgumentException("userType is required");
+        }
+        return UserType.valueOf(request.getUserType().trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static void checkLength(String field, String value, int max) {
+        if (value != null && value.length() > max) {
+            throw new IllegalArgumentException(field + " exceeds " + max + " characters");
+        }
+    }
+
+    private static int fingerprint(TokenRegistrationRequest request) {
+        return Objects.hash(request.getUserId(), userType(request), request.getPlatform(),
+            request.getDeviceId(), request.getOsVersion());
+    }
+
+    private static NotificationToken toEntity(TokenRegistrationRequest request) {
+        NotificationToken token = new NotificationToken();
+        token.setToken(request.getToken());
+        token.setUserId(request.getUserId());
+        token.setUserType(userType(request));
+        token.setPlatform(request.getPlatform());
+        token.setDeviceId(request.getDeviceId());
+        token.setOsVersion(request.getOsVersion());
+        return token;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
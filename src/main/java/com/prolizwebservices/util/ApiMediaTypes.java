@@ -0,0 +1,21 @@
+package com.prolizwebservices.util;
+
+import org.springframework.http.MediaType;
+
+/**
+ * API'nin içerik anlaşmasında (Accept) desteklediği medya tipleri
+ *
+ * JSON varsayılandır; yüksek hacimli istemciler aynı veri modelini ikili (binary)
+ * JSON olarak CBOR veya Smile formatında isteyebilir.
+ */
+public final class ApiMediaTypes {
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType(APPLICATION_CBOR_VALUE);
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private ApiMediaTypes() {
+    }
+}
@@ -0,0 +1,143 @@
+package com.prolizwebservices.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel (zaman çarkı) - çok sayıda zamanlanmış işi O(1) ekleme/iptal ile tutar
+ *
+ * Çark wheelSize adet kovadan oluşur, her kova tickMs genişliğindedir. Bir iş teslim anına göre
+ * (deadline / tickMs) % wheelSize kovasına konur; bir turdan uzak işler kovada kalır ve kova her
+ * ziyaret edildiğinde sadece tick'i gelmiş olanlar çıkarılır.
+ * advance() her çağrıldığında son çağrıdan bu yana geçen tick'ler işlenir (geciken scheduler'da
+ * kaçan tick'ler toplu işlenir), süresi dolan işler liste olarak döner.
+ *
+ * Thread-safety: add/cancel her thread'den çağrılabilir (eklemeler kuyruğa yazılır, ilk advance'te
+ * kovalara dağıtılır). advance tek bir thread'den (scheduler) çağrılmalıdır.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickMs;
+    private final List<LinkedList<Zamanli<T>>> kovalar;
+    private final Queue<Zamanli<T>> bekleyenEklemeler = new ConcurrentLinkedQueue<>();
+    private final Map<Object, Zamanli<T>> anahtarlar = new ConcurrentHashMap<>();
+
+    private long sonTick; // advance thread'ine ait
+
+    private static final class Zamanli<T> {
+        final Object anahtar;
+        final T deger;
+        final long deadlineMs;
+        volatile boolean iptal;
+
+        Zamanli(Object anahtar, T deger, long deadlineMs) {
+            this.anahtar = anahtar;
+            this.deger = deger;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+
+    public HashedTimingWheel(long tickMs, int wheelSize, long baslangicMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs ve wheelSize pozitif olmalı");
+        }
+        this.tickMs = tickMs;
+        this.kovalar = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            kovalar.add(new LinkedList<>());
+        }
+        this.sonTick = baslangicMs / tickMs;
+    }
+
+    /**
+     * İşi deadline anında teslim edilmek üzere ekler; aynı anahtar zaten varsa eklemez
+     *
+     * @return true eklendiyse
+     */
+    public boolean add(Object anahtar, T deger, long deadlineMs) {
+        Zamanli<T> zamanli = new Zamanli<>(anahtar, deger, deadlineMs);
+        if (anahtarlar.putIfAbsent(anahtar, zamanli) != null) {
+            return false;
+        }
+        bekleyenEklemeler.add(zamanli);
+        return true;
+    }
+
+    /**
+     * İşi iptal eder (kovadan advance sırasında düşer)
+     */
+    public boolean cancel(Object anahtar) {
+        Zamanli<T> zamanli = anahtarlar.remove(anahtar);
+        if (zamanli == null) {
+            return false;
+        }
+        zamanli.iptal = true;
+        return true;
+    }
+
+    public boolean contains(Object anahtar) {
+        return anahtarlar.containsKey(anahtar);
+    }
+
+    /**
+     * Çarktaki (iptal edilmemiş) iş sayısı
+     */
+    public int size() {
+        return anahtarlar.size();
+    }
+
+    /**
+     * Çarkı şimdiki zamana kadar döndürür ve süresi dolan işleri döndürür
+     */
+    public List<T> advance(long simdiMs) {
+        List<T> dolanlar = new ArrayList<>();
+        long hedefTick = simdiMs / tickMs;
+
+        // Yeni eklemeleri kovalara dağıt; geçmiş/şimdiki tick'e düşenler hemen teslim edilir
+        Zamanli<T> zamanli;
+        while ((zamanli = bekleyenEklemeler.poll()) != null) {
+            if (zamanli.iptal) {
+                continue;
+            }
+            long tick = zamanli.deadlineMs / tickMs;
+            if (tick <= sonTick) {
+                teslimEt(zamanli, dolanlar);
+            } else {
+                kovalar.get((int) (tick % kovalar.size())).add(zamanli);
+            }
+        }
+
+        // Bir turdan fazla geride kalındıysa her kovayı bir kez (son tur) ziyaret etmek yeter
+        long adim = Math.min(hedefTick - sonTick, kovalar.size());
+        for (long i = 1; i <= adim; i++) {
+            long tick = hedefTick - adim + i;
+            Iterator<Zamanli<T>> it = kovalar.get((int) (tick % kovalar.size())).iterator();
+            while (it.hasNext()) {
+                Zamanli<T> z = it.next();
+                if (z.iptal) {
+                    it.remove();
+                } else if (z.deadlineMs / tickMs <= tick) {
+                    it.remove();
+                    teslimEt(z, dolanlar);
+                }
+            }
+        }
+        if (hedefTick > sonTick) {
+            sonTick = hedefTick;
+        }
+        return dolanlar;
+    }
+
+    private void teslimEt(Zamanli<T> zamanli, List<T> dolanlar) {
+        // İptal ile yarışta anahtar kimde kaldıysa o kazanır
+        if (anahtarlar.remove(zamanli.anahtar, zamanli)) {
+            dolanlar.add(zamanli.deger);
+        }
+    }
+}
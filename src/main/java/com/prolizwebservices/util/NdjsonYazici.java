@@ -0,0 +1,73 @@
+package com.prolizwebservices.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * NDJSON (satır başına bir JSON kaydı) akış yazıcısı
+ *
+ * Kayıtlar index iterator'larından doğrudan JsonGenerator'a yazılır;
+ * sonuç listesi veya Map sarmalayıcısı bellekte oluşturulmaz.
+ * Belirli sayıda kayıtta bir flush yapılarak ilk byte gecikmesi düşük tutulur.
+ */
+public final class NdjsonYazici {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-ndjson";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    /** Streaming endpoint'lerini seçen istek parametresi (JSON endpoint'leriyle aynı path) */
+    public static final String FORMAT_PARAM = "format=ndjson";
+
+    private static final int FLUSH_ARALIGI = 256;
+
+    private NdjsonYazici() {
+    }
+
+    /**
+     * İstek streaming (NDJSON) modunda mı? Yanıtı tamponlayan filtreler bu istekleri atlamalıdır.
+     */
+    public static boolean istendi(HttpServletRequest request) {
+        return "ndjson".equalsIgnoreCase(request.getParameter("format"));
+    }
+
+    /**
+     * Kaynak tarafından üretilen her kaydı ayrı bir satır olarak yazan gövde döner
+     *
+     * @param kaynak kayıtları verilen consumer'a sırayla ileten gezici
+     */
+    public static StreamingResponseBody akis(ObjectMapper objectMapper, Consumer<Consumer<Object>> kaynak) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // Jackson kök değerler arasına varsayılan olarak boşluk koyar, NDJSON için satır sonu
+                generator.setRootValueSeparator(null);
+                int[] sayac = {0};
+                try {
+                    kaynak.accept(kayit -> {
+                        try {
+                            generator.writeObject(kayit);
+                            generator.writeRaw('\n');
+                            if (++sayac[0] % FLUSH_ARALIGI == 0) {
+                                generator.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    // İstemci bağlantıyı kapattıysa gezinme burada sonlanır
+                    throw e.getCause();
+                }
+                generator.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.prolizwebservices.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.prolizwebservices.exception.ValidationException;
+
+/**
+ * Keyset sayfalama için opak imleç (cursor)
+ *
+ * İmleç, sayfanın üretildiği snapshot versiyonu ile son dönen kaydın sıralama anahtarını taşır.
+ * İstemci için anlamsız bir base64url string'dir; sadece bir sonraki isteğe aynen geri gönderilir.
+ */
+public final class SayfaImleci {
+
+    private static final String ON_EK = "v1:";
+
+    private final long snapshotVersion;
+    private final String sonAnahtar;
+
+    public SayfaImleci(long snapshotVersion, String sonAnahtar) {
+        this.snapshotVersion = snapshotVersion;
+        this.sonAnahtar = sonAnahtar;
+    }
+
+    public long getSnapshotVersion() { return snapshotVersion; }
+
+    public String getSonAnahtar() { return sonAnahtar; }
+
+    public String encode() {
+        String ham = ON_EK + snapshotVersion + "|" + sonAnahtar;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(ham.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * İstemciden gelen imleci çözer; bozuk/elle değiştirilmiş imleçler 400 (ValidationException) döner
+     */
+    public static SayfaImleci decode(String cursor) {
+        try {
+            String ham = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int ayrac = ham.indexOf('|');
+            if (!ham.startsWith(ON_EK) || ayrac < 0) {
+                throw new IllegalArgumentException("format");
+            }
+            long versiyon = Long.parseLong(ham.substring(ON_EK.length(), ayrac));
+            return new SayfaImleci(versiyon, ham.substring(ayrac + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor", "cursor", cursor);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.prolizwebservices.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tekrarlanan String değerlerini int id'lere eşleyen sözlük (dictionary encoding)
+ *
+ * Fakülte/bölüm/program gibi kategorik kolonlar binlerce kayıtta aynı değeri taşır.
+ * Her değer heap'te tek kopya olarak tutulur, kayıtlar sadece int id saklar.
+ *
+ * Thread-safety: Okumalar kilitsizdir, yeni değer ekleme senkronizedir.
+ */
+public class StringDictionary {
+
+    /** null değerler için ayrılmış id */
+    public static final int NULL_ID = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values;
+    private int size = 0; // guarded by this
+
+    public StringDictionary() {
+        this(64);
+    }
+
+    public StringDictionary(int initialCapacity) {
+        this.values = new String[Math.max(initialCapacity, 16)];
+    }
+
+    /**
+     * Değerin id'sini döndürür, yoksa yeni id atar
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_ID;
+        }
+
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = value;
+            values = current; // volatile publish - id map'e eklenmeden önce
+
+            int newId = size++;
+            ids.put(value, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * Id'ye karşılık gelen değeri döndürür
+     */
+    public String decode(int id) {
+        if (id < 0) {
+            return null;
+        }
+        return values[id];
+    }
+
+    /**
+     * Değeri sözlükteki tekil (canonical) kopyası ile değiştirir
+     */
+    public String intern(String value) {
+        return decode(encode(value));
+    }
+
+    /**
+     * Değer sözlükte varsa id'sini, yoksa NULL_ID döndürür (yeni id atamaz)
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NULL_ID;
+        }
+        Integer id = ids.get(value);
+        return id != null ? id : NULL_ID;
+    }
+
+    /**
+     * Önce birebir, bulamazsa büyük/küçük harf duyarsız arar (yeni id atamaz)
+     */
+    public int lookupIgnoreCase(String value) {
+        int id = lookup(value);
+        if (id != NULL_ID || value == null) {
+            return id;
+        }
+        String[] snapshot = values;
+        int count = Math.min(ids.size(), snapshot.length);
+        for (int i = 0; i < count; i++) {
+            if (value.equalsIgnoreCase(snapshot[i])) {
+                return i;
+            }
+        }
+        return NULL_ID;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,28 @@
+package com.prolizwebservices.util;
+
+import java.util.Locale;
+
+/**
+ * Türkçe metin karşılaştırma yardımcıları
+ *
+ * String.toLowerCase() varsayılan locale'e göre çalışır; "İ" / "I" harfleri
+ * sunucu locale'ine bağlı olarak farklı sonuç verir. Arama anahtarları burada
+ * Türkçe kurallarıyla ve tek boşluklu olarak normalize edilir.
+ */
+public final class TurkceMetin {
+
+    private static final Locale TR = Locale.forLanguageTag("tr-TR");
+
+    private TurkceMetin() {
+    }
+
+    /**
+     * Türkçe küçük harfe çevirir, baştaki/sondaki ve tekrarlı boşlukları temizler (null -> "")
+     */
+    public static String katla(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(TR);
+    }
+}
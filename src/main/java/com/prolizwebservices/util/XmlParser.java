@@ -15,6 +15,9 @@ import com.prolizwebservices.model.OgretimElemani;
 import com.prolizwebservices.model.OgrenciIstatistik;
 import com.prolizwebservices.model.AktifOgrenci;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * SOAP XML response'larını parse eden utility sınıfı
  */
@@ -23,10 +26,59 @@ public class XmlParser {
 
     private static final Logger logger = LoggerFactory.getLogger(XmlParser.class);
 
+    private final MeterRegistry meterRegistry;
+
+    public XmlParser(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * UzaktanEgitimDersleri SOAP response'unu parse eder
      */
     public List<Ders> parseDersler(String xmlResponse) {
+        return parseTimer("dersler").record(() -> parseDerslerXml(xmlResponse));
+    }
+
+    /**
+     * Öğretim elemanı SOAP response'unu parse eder
+     */
+    public List<OgretimElemani> parseOgretimElemanlari(String xmlResponse) {
+        return parseTimer("ogretim-elemanlari").record(() -> parseOgretimElemanlariXml(xmlResponse));
+    }
+
+    /**
+     * Ders öğrencileri SOAP response'unu parse eder
+     */
+    public List<Ogrenci> parseOgrenciler(String xmlResponse, String dersHarId) {
+        return parseTimer("ogrenciler").record(() -> parseOgrencilerXml(xmlResponse, dersHarId));
+    }
+
+    /**
+     * OgrenciIstatistik SOAP response'unu parse eder
+     */
+    public List<OgrenciIstatistik> parseOgrenciIstatistik(String xmlResponse) {
+        return parseTimer("ogrenci-istatistik").record(() -> parseOgrenciIstatistikXml(xmlResponse));
+    }
+
+    /**
+     * AktifOgrenciListesi SOAP response'unu parse eder
+     */
+    public List<AktifOgrenci> parseAktifOgrenciler(String xmlResponse) {
+        return parseTimer("aktif-ogrenciler").record(() -> parseAktifOgrencilerXml(xmlResponse));
+    }
+
+    // Parse süresi timer'ı (response tipi bazında)
+    private Timer parseTimer(String tip) {
+        return Timer.builder("soap.parse")
+            .description("SOAP XML parse süresi")
+            .tag("type", tip)
+            .register(meterRegistry);
+    }
+
+    /**
+     * UzaktanEgitimDersleri SOAP response'unu parse eder
+     */
+    private List<Ders> parseDerslerXml(String xmlResponse) {
         List<Ders> dersler = new ArrayList<>();
         
         if (xmlResponse == null || xmlResponse.isEmpty()) {
@@ -34,12 +86,14 @@ public class XmlParser {
             return dersler;
         }
         
-        // DEBUG: SOAP response'u görmek için
-        logger.info("🔍 SOAP Response uzunluğu: {} karakter", xmlResponse.length());
-        if (xmlResponse.length() < 1000) {
-            logger.info("🔍 SOAP Response: {}", xmlResponse);
-        } else {
-            logger.info("🔍 SOAP Response preview: {}", xmlResponse.substring(0, 500) + "...");
+        // DEBUG: SOAP response'u görmek için (preview substring'i sadece debug açıkken oluşturulur)
+        if (logger.isDebugEnabled()) {
+            logger.debug("🔍 SOAP Response uzunluğu: {} karakter", xmlResponse.length());
+            if (xmlResponse.length() < 1000) {
+                logger.debug("🔍 SOAP Response: {}", xmlResponse);
+            } else {
+                logger.debug("🔍 SOAP Response preview: {}...", xmlResponse.substring(0, 500));
+            }
         }
 
         try {
@@ -87,7 +141,7 @@ public class XmlParser {
     /**
      * DersiVerenOgretimElamaniGetir SOAP response'unu parse eder
      */
-    public List<OgretimElemani> parseOgretimElemanlari(String xmlResponse) {
+    private List<OgretimElemani> parseOgretimElemanlariXml(String xmlResponse) {
         List<OgretimElemani> ogretimElemanlari = new ArrayList<>();
         
         if (xmlResponse == null || xmlResponse.isEmpty()) {
@@ -132,7 +186,7 @@ public class XmlParser {
     /**
      * UzaktanEgitimDersiAlanOgrencileri SOAP response'unu parse eder
      */
-    public List<Ogrenci> parseOgrenciler(String xmlResponse, String dersHarId) {
+    private List<Ogrenci> parseOgrencilerXml(String xmlResponse, String dersHarId) {
         List<Ogrenci> ogrenciler = new ArrayList<>();
         
         if (xmlResponse == null || xmlResponse.isEmpty()) {
@@ -168,7 +222,7 @@ public class XmlParser {
                 }
             }
 
-            logger.info("Toplam {} öğrenci parse edildi (Ders: {})", ogrenciler.size(), dersHarId);
+            logger.debug("Toplam {} öğrenci parse edildi (Ders: {})", ogrenciler.size(), dersHarId);
             
         } catch (Exception e) {
             logger.error("Öğrenci parsing hatası: {}", e.getMessage(), e);
@@ -180,7 +234,7 @@ public class XmlParser {
     /**
      * OgrenciIstatistik SOAP response'unu parse eder
      */
-    public List<OgrenciIstatistik> parseOgrenciIstatistik(String xmlResponse) {
+    private List<OgrenciIstatistik> parseOgrenciIstatistikXml(String xmlResponse) {
         List<OgrenciIstatistik> istatistikler = new ArrayList<>();
         
         if (xmlResponse == null || xmlResponse.isEmpty()) {
@@ -188,7 +242,7 @@ public class XmlParser {
             return istatistikler;
         }
         
-        logger.info("🔍 Öğrenci İstatistik SOAP Response uzunluğu: {} karakter", xmlResponse.length());
+        logger.debug("🔍 Öğrenci İstatistik SOAP Response uzunluğu: {} karakter", xmlResponse.length());
         
         try {
             // <Istatistik> elementlerini bul
@@ -223,7 +277,7 @@ public class XmlParser {
     /**
      * AktifOgrenciListesiGetir SOAP response'unu parse eder
      */
-    public List<AktifOgrenci> parseAktifOgrenciler(String xmlResponse) {
+    private List<AktifOgrenci> parseAktifOgrencilerXml(String xmlResponse) {
         List<AktifOgrenci> ogrenciler = new ArrayList<>();
         
         if (xmlResponse == null || xmlResponse.isEmpty()) {
@@ -231,7 +285,7 @@ public class XmlParser {
             return ogrenciler;
         }
         
-        logger.info("🔍 Aktif Öğrenci SOAP Response uzunluğu: {} karakter", xmlResponse.length());
+        logger.debug("🔍 Aktif Öğrenci SOAP Response uzunluğu: {} karakter", xmlResponse.length());
         
         try {
             // <Ogrenci> elementlerini bul